@@ -0,0 +1,42 @@
+package ru.smirnovv.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the allocation profiler and writes the results in JSON.
+ * Запускает бенчмарки с профилировщиком выделения памяти и записывает результаты в JSON.
+ * <p>
+ * The usual JMH options are accepted, e.g. a benchmark name pattern or {@code -t 4} for four threads.
+ * Принимаются обычные опции JMH, например шаблон названия бенчмарка или {@code -t 4} для четырех потоков.
+ */
+public final class BenchmarkMain {
+    /**
+     * Prohibits the instantiation.
+     * Запрещает создание экземпляров.
+     */
+    private BenchmarkMain() {
+    }
+
+    /**
+     * The entry point.
+     * Точка входа.
+     *
+     * @param args the JMH options.
+     *             опции JMH.
+     * @throws Exception is thrown when the options are invalid or a benchmark fails.
+     *                   данное исключение, выбрасывается если опции некорректны или бенчмарк завершился ошибкой.
+     */
+    public static void main(final String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder()
+                .parent(options)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(options.getResultFormat().orElse(ResultFormatType.JSON))
+                .result(options.getResult().orElse("jmh-result.json"))
+                .build()).run();
+    }
+}
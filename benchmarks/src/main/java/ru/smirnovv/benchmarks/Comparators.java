@@ -0,0 +1,62 @@
+package ru.smirnovv.benchmarks;
+
+import ru.smirnovv.index.irisRecognition.GaborRecognition.GaborCompare;
+import ru.smirnovv.index.irisRecognition.GaborRecognition.GaborParameters;
+import ru.smirnovv.index.irisRecognition.GaborRecognition.compare.CorrelationCompare;
+import ru.smirnovv.index.irisRecognition.IrisCompare;
+import ru.smirnovv.index.irisRecognition.surfRecognition.SURFRecognition;
+
+/**
+ * The comparators of the application by name.
+ * Компараторы приложения по названию.
+ */
+public final class Comparators {
+    /**
+     * The names of all comparators.
+     * Названия всех компараторов.
+     */
+    public static final String[] NAMES = {"gabor-hamming", "gabor-correlation", "surf"};
+
+    /**
+     * Prohibits the instantiation.
+     * Запрещает создание экземпляров.
+     */
+    private Comparators() {
+    }
+
+    /**
+     * Creates the comparator as it is configured in the application.
+     * Создает компаратор так, как он настроен в приложении.
+     *
+     * @param name the name of the comparator.
+     *             название компаратора.
+     * @return the comparator.
+     *         компаратор.
+     */
+    public static IrisCompare create(final String name) {
+        switch (name) {
+            case "gabor-hamming":
+                return new GaborCompare();
+            case "gabor-correlation":
+                return new GaborCompare(new GaborParameters(10, 0, 3, 1), new CorrelationCompare(),
+                        new GaborCompare().getThreshold());
+            case "surf":
+                return new SURFRecognition();
+            default:
+                throw new IllegalArgumentException("Unknown comparator " + name);
+        }
+    }
+
+    /**
+     * Returns the threshold of the comparator, the irises match when the score is below it.
+     * Возвращает порог компаратора, РОГ совпадают, когда оценка ниже него.
+     *
+     * @param name the name of the comparator.
+     *             название компаратора.
+     * @return the threshold.
+     *         порог.
+     */
+    public static double threshold(final String name) {
+        return create(name).getThreshold();
+    }
+}
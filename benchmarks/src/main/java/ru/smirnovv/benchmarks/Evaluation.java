@@ -0,0 +1,496 @@
+package ru.smirnovv.benchmarks;
+
+import ru.smirnovv.index.irisRecognition.IrisCompare;
+import ru.smirnovv.iris.irisDetection.IrisDetector;
+import ru.smirnovv.iris.irisDetection.IrisTemplate;
+import ru.smirnovv.iris.irisDetection.localization.Localization;
+import ru.smirnovv.iris.irisDetection.localization.daugman.DaugmanLocalization;
+import ru.smirnovv.iris.irisDetection.localization.daugman.DaugmanParameters;
+import ru.smirnovv.iris.irisDetection.localization.hough.HoughLocalization;
+import ru.smirnovv.iris.irisDetection.normalization.polarСoordinateSystem.PolarCoordinateNormalization;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An offline evaluation of the accuracy and the throughput over a local directory of labelled eye images.
+ * Офлайн оценка точности и пропускной способности на локальном каталоге размеченных изображений глаза.
+ * <p>
+ * Every subdirectory is one eye, the images are enrolled through {@link IrisDetector} and compared all-vs-all
+ * in parallel without the database. For every localization and comparator the FAR and FRR at the configured
+ * threshold, the EER with its threshold, images per second and comparisons per second are printed.
+ * Каждый подкаталог - один глаз, изображения регистрируются через {@link IrisDetector} и сравниваются
+ * каждое с каждым параллельно без базы данных. Для каждой локализации и компаратора выводятся FAR и FRR
+ * при настроенном пороге, EER с его порогом, изображения в секунду и сравнения в секунду.
+ * <pre>
+ * java -cp target/benchmarks.jar ru.smirnovv.benchmarks.Evaluation &lt;directory&gt;
+ *     [--threads N] [--localizations hough,daugman] [--comparators gabor-hamming,gabor-correlation,surf]
+ * </pre>
+ */
+public final class Evaluation {
+    /**
+     * The extensions of the images.
+     * Расширения изображений.
+     */
+    private static final List<String> EXTENSIONS = Arrays.asList(
+            ".bmp", ".jpg", ".jpeg", ".png", ".pgm", ".ppm", ".tif", ".tiff");
+
+    /**
+     * The number of the threads.
+     * Количество потоков.
+     */
+    private final int threads;
+
+    /**
+     * The labelled images.
+     * Размеченные изображения.
+     */
+    private final List<Sample> samples;
+
+    /**
+     * Constructs an instance.
+     * Создает экземпляр.
+     *
+     * @param threads the number of the threads.
+     *                количество потоков.
+     * @param samples the labelled images.
+     *                размеченные изображения.
+     */
+    private Evaluation(final int threads, final List<Sample> samples) {
+        this.threads = threads;
+        this.samples = samples;
+    }
+
+    /**
+     * The entry point.
+     * Точка входа.
+     *
+     * @param args the directory and the options.
+     *             каталог и опции.
+     * @throws Exception is thrown when the directory can not be read or an evaluation fails.
+     *                   данное исключение, выбрасывается если каталог не читается или оценка завершилась ошибкой.
+     */
+    public static void main(final String[] args) throws Exception {
+        if (args.length == 0 || args.length % 2 == 0) {
+            System.err.println("Usage: Evaluation <directory> [--threads N] [--localizations hough,daugman]"
+                    + " [--comparators " + String.join(",", Comparators.NAMES) + "]");
+            System.exit(2);
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<String> localizations = Arrays.asList("hough", "daugman");
+        List<String> comparators = Arrays.asList(Comparators.NAMES);
+        for (int i = 1; i < args.length; i += 2) {
+            switch (args[i]) {
+                case "--threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--localizations":
+                    localizations = Arrays.asList(args[i + 1].split(","));
+                    break;
+                case "--comparators":
+                    comparators = Arrays.asList(args[i + 1].split(","));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        OpenCv.load();
+        Evaluation evaluation = new Evaluation(threads, Sample.load(Paths.get(args[0])));
+        System.out.printf(Locale.ROOT, "%d images of %d eyes, %d threads%n", evaluation.samples.size(),
+                evaluation.samples.stream().map(Sample::getLabel).distinct().count(), threads);
+        System.out.printf(Locale.ROOT, "%-10s %-18s %8s %8s %10s %12s %8s %8s %8s %10s%n",
+                "localize", "compare", "enrolled", "failed", "images/s", "compares/s", "FAR", "FRR", "EER",
+                "EER at");
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (String localization : localizations) {
+                Enrollment enrollment = evaluation.enroll(executor, localization);
+                for (String comparator : comparators) {
+                    Scores scores = evaluation.compare(executor, enrollment.templates, comparator);
+                    double threshold = Comparators.threshold(comparator);
+                    double[] eer = scores.equalErrorRate();
+                    System.out.printf(Locale.ROOT, "%-10s %-18s %8d %8d %10.1f %12.1f %8.4f %8.4f %8.4f %10.4f%n",
+                            localization, comparator, enrollment.enrolled(), enrollment.failed,
+                            enrollment.imagesPerSecond, scores.comparisonsPerSecond,
+                            scores.falseAcceptRate(threshold), scores.falseRejectRate(threshold), eer[0], eer[1]);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Enrolls all images in parallel.
+     * Регистрирует все изображения параллельно.
+     *
+     * @param executor     the executor.
+     *                     исполнитель.
+     * @param localization the name of the localization.
+     *                     название локализации.
+     * @return the templates, {@code null} for the images that failed.
+     *         шаблоны, {@code null} для изображений, которые не удалось зарегистрировать.
+     * @throws Exception is thrown when the enrollment is interrupted.
+     *                   данное исключение, выбрасывается если регистрация прервана.
+     */
+    private Enrollment enroll(final ExecutorService executor, final String localization) throws Exception {
+        ThreadLocal<IrisDetector> detectors = ThreadLocal.withInitial(
+                () -> new IrisDetector(localization(localization), new PolarCoordinateNormalization()));
+
+        long start = System.nanoTime();
+        List<Future<IrisTemplate>> futures = new ArrayList<>(samples.size());
+        for (Sample sample : samples) {
+            futures.add(executor.submit(() -> {
+                try {
+                    return detectors.get().createIrisTemplate(Files.readAllBytes(sample.getPath()));
+                } catch (RuntimeException exception) {
+                    return null;
+                }
+            }));
+        }
+
+        List<IrisTemplate> templates = new ArrayList<>(samples.size());
+        int failed = 0;
+        for (Future<IrisTemplate> future : futures) {
+            IrisTemplate template = future.get();
+            templates.add(template);
+            if (template == null) {
+                failed++;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        return new Enrollment(templates, failed, samples.size() / seconds);
+    }
+
+    /**
+     * Compares all enrolled templates with each other in parallel.
+     * Сравнивает все зарегистрированные шаблоны друг с другом параллельно.
+     *
+     * @param executor   the executor.
+     *                   исполнитель.
+     * @param templates  the templates, {@code null} for the images that failed.
+     *                   шаблоны, {@code null} для изображений, которые не удалось зарегистрировать.
+     * @param comparator the name of the comparator.
+     *                   название компаратора.
+     * @return the genuine and impostor scores.
+     *         оценки подлинных и самозванных пар.
+     * @throws Exception is thrown when the comparison is interrupted.
+     *                   данное исключение, выбрасывается если сравнение прервано.
+     */
+    private Scores compare(final ExecutorService executor, final List<IrisTemplate> templates,
+                           final String comparator) throws Exception {
+        ThreadLocal<IrisCompare> irisCompares = ThreadLocal.withInitial(() -> Comparators.create(comparator));
+
+        // Every task compares one template with all the following ones.
+        // Каждая задача сравнивает один шаблон со всеми следующими.
+        long start = System.nanoTime();
+        List<Future<Scores>> futures = new ArrayList<>();
+        for (int i = 0; i < templates.size(); i++) {
+            int row = i;
+            futures.add(executor.submit(() -> {
+                IrisCompare irisCompare = irisCompares.get();
+                Scores scores = new Scores();
+                for (int j = row + 1; j < templates.size(); j++) {
+                    if (templates.get(row) != null && templates.get(j) != null) {
+                        double score = irisCompare.compare(templates.get(row), templates.get(j));
+                        scores.add(samples.get(row).getLabel().equals(samples.get(j).getLabel()), score);
+                    }
+                }
+                return scores;
+            }));
+        }
+
+        Scores result = new Scores();
+        for (Future<Scores> future : futures) {
+            result.addAll(future.get());
+        }
+        result.comparisonsPerSecond = (result.genuine.size() + result.impostor.size())
+                / ((System.nanoTime() - start) / 1e9);
+        return result;
+    }
+
+    /**
+     * Creates the localization by name with the defaults of the application.
+     * Создает локализацию по названию со значениями приложения по умолчанию.
+     *
+     * @param name the name of the localization.
+     *             название локализации.
+     * @return the localization.
+     *         локализация.
+     */
+    private static Localization localization(final String name) {
+        switch (name) {
+            case "hough":
+                return new HoughLocalization();
+            case "daugman":
+                return new DaugmanLocalization(new DaugmanParameters(20, 60, 60, 20, 20));
+            default:
+                throw new IllegalArgumentException("Unknown localization " + name);
+        }
+    }
+
+    /**
+     * A labelled image.
+     * Размеченное изображение.
+     */
+    private static final class Sample {
+        /**
+         * The label of the eye.
+         * Метка глаза.
+         */
+        private final String label;
+
+        /**
+         * The path of the image.
+         * Путь к изображению.
+         */
+        private final Path path;
+
+        /**
+         * Constructs an instance.
+         * Создает экземпляр.
+         *
+         * @param label the label of the eye.
+         *              метка глаза.
+         * @param path  the path of the image.
+         *              путь к изображению.
+         */
+        private Sample(final String label, final Path path) {
+            this.label = label;
+            this.path = path;
+        }
+
+        /**
+         * Finds the images in the subdirectories, the name of a subdirectory is the label.
+         * Находит изображения в подкаталогах, название подкаталога - метка.
+         *
+         * @param directory the directory.
+         *                  каталог.
+         * @return the labelled images in a stable order.
+         *         размеченные изображения в стабильном порядке.
+         * @throws IOException is thrown when the directory can not be read.
+         *                     данное исключение, выбрасывается если каталог не читается.
+         */
+        private static List<Sample> load(final Path directory) throws IOException {
+            try (Stream<Path> files = Files.walk(directory, 2)) {
+                return files.filter(Files::isRegularFile)
+                        .filter(file -> !file.getParent().equals(directory))
+                        .filter(file -> EXTENSIONS.stream().anyMatch(
+                                file.getFileName().toString().toLowerCase(Locale.ROOT)::endsWith))
+                        .sorted()
+                        .map(file -> new Sample(file.getParent().getFileName().toString(), file))
+                        .collect(Collectors.toList());
+            }
+        }
+
+        /**
+         * Returns the label of the eye.
+         * Возвращает метку глаза.
+         *
+         * @return the label.
+         *         метка.
+         */
+        private String getLabel() {
+            return label;
+        }
+
+        /**
+         * Returns the path of the image.
+         * Возвращает путь к изображению.
+         *
+         * @return the path.
+         *         путь.
+         */
+        private Path getPath() {
+            return path;
+        }
+    }
+
+    /**
+     * The result of the enrollment.
+     * Результат регистрации.
+     */
+    private static final class Enrollment {
+        /**
+         * The templates, {@code null} for the images that failed.
+         * Шаблоны, {@code null} для изображений, которые не удалось зарегистрировать.
+         */
+        private final List<IrisTemplate> templates;
+
+        /**
+         * The number of the images that failed.
+         * Количество изображений, которые не удалось зарегистрировать.
+         */
+        private final int failed;
+
+        /**
+         * The throughput of the enrollment.
+         * Пропускная способность регистрации.
+         */
+        private final double imagesPerSecond;
+
+        /**
+         * Constructs an instance.
+         * Создает экземпляр.
+         *
+         * @param templates       the templates.
+         *                        шаблоны.
+         * @param failed          the number of the images that failed.
+         *                        количество изображений, которые не удалось зарегистрировать.
+         * @param imagesPerSecond the throughput of the enrollment.
+         *                        пропускная способность регистрации.
+         */
+        private Enrollment(final List<IrisTemplate> templates, final int failed, final double imagesPerSecond) {
+            this.templates = templates;
+            this.failed = failed;
+            this.imagesPerSecond = imagesPerSecond;
+        }
+
+        /**
+         * Returns the number of the enrolled images.
+         * Возвращает количество зарегистрированных изображений.
+         *
+         * @return the number of the enrolled images.
+         *         количество зарегистрированных изображений.
+         */
+        private int enrolled() {
+            return templates.size() - failed;
+        }
+    }
+
+    /**
+     * The scores of the genuine and impostor pairs, the irises match when the score is below the threshold.
+     * Оценки подлинных и самозванных пар, РОГ совпадают, когда оценка ниже порога.
+     */
+    private static final class Scores {
+        /**
+         * The scores of the pairs of the same eye.
+         * Оценки пар одного глаза.
+         */
+        private final List<Double> genuine = new ArrayList<>();
+
+        /**
+         * The scores of the pairs of different eyes.
+         * Оценки пар разных глаз.
+         */
+        private final List<Double> impostor = new ArrayList<>();
+
+        /**
+         * The throughput of the comparisons.
+         * Пропускная способность сравнений.
+         */
+        private double comparisonsPerSecond;
+
+        /**
+         * Adds the score of a pair.
+         * Добавляет оценку пары.
+         *
+         * @param same  whether the pair is of the same eye.
+         *              является ли пара одним глазом.
+         * @param score the score.
+         *              оценка.
+         */
+        private void add(final boolean same, final double score) {
+            (same ? genuine : impostor).add(score);
+        }
+
+        /**
+         * Adds all scores of other pairs.
+         * Добавляет все оценки других пар.
+         *
+         * @param other the scores.
+         *              оценки.
+         */
+        private void addAll(final Scores other) {
+            genuine.addAll(other.genuine);
+            impostor.addAll(other.impostor);
+        }
+
+        /**
+         * Returns the fraction of the impostor pairs that match.
+         * Возвращает долю самозванных пар, которые совпали.
+         *
+         * @param threshold the threshold.
+         *                  порог.
+         * @return the false accept rate.
+         *         доля ложных допусков.
+         */
+        private double falseAcceptRate(final double threshold) {
+            return impostor.isEmpty() ? Double.NaN
+                    : (double) impostor.stream().filter(score -> score < threshold).count() / impostor.size();
+        }
+
+        /**
+         * Returns the fraction of the genuine pairs that do not match.
+         * Возвращает долю подлинных пар, которые не совпали.
+         *
+         * @param threshold the threshold.
+         *                  порог.
+         * @return the false reject rate.
+         *         доля ложных отказов.
+         */
+        private double falseRejectRate(final double threshold) {
+            return genuine.isEmpty() ? Double.NaN
+                    : (double) genuine.stream().filter(score -> score >= threshold).count() / genuine.size();
+        }
+
+        /**
+         * Finds the threshold where the false accept and false reject rates are the closest.
+         * Находит порог, при котором доли ложных допусков и ложных отказов ближе всего.
+         *
+         * @return the equal error rate and its threshold.
+         *         равный уровень ошибок и его порог.
+         */
+        private double[] equalErrorRate() {
+            if (genuine.isEmpty() || impostor.isEmpty()) {
+                return new double[]{Double.NaN, Double.NaN};
+            }
+
+            double[] genuineScores = genuine.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+            double[] impostorScores = impostor.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+            double[] thresholds = new double[genuineScores.length + impostorScores.length + 1];
+            System.arraycopy(genuineScores, 0, thresholds, 0, genuineScores.length);
+            System.arraycopy(impostorScores, 0, thresholds, genuineScores.length, impostorScores.length);
+            thresholds[thresholds.length - 1] = Double.POSITIVE_INFINITY;
+            Arrays.sort(thresholds);
+
+            // Both rates are monotonic, so the sorted scores are walked once.
+            // Обе доли монотонны, поэтому отсортированные оценки проходятся один раз.
+            double[] best = {Double.NaN, Double.NaN};
+            double bestGap = Double.POSITIVE_INFINITY;
+            int accepted = 0;
+            int genuineAccepted = 0;
+            for (double threshold : thresholds) {
+                while (accepted < impostorScores.length && impostorScores[accepted] < threshold) {
+                    accepted++;
+                }
+                while (genuineAccepted < genuineScores.length && genuineScores[genuineAccepted] < threshold) {
+                    genuineAccepted++;
+                }
+                double far = (double) accepted / impostorScores.length;
+                double frr = (double) (genuineScores.length - genuineAccepted) / genuineScores.length;
+                if (Math.abs(far - frr) < bestGap) {
+                    bestGap = Math.abs(far - frr);
+                    best[0] = (far + frr) / 2;
+                    best[1] = threshold;
+                }
+            }
+            return best;
+        }
+    }
+}
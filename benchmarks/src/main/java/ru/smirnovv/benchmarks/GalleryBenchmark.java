@@ -0,0 +1,314 @@
+package ru.smirnovv.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.smirnovv.index.irisRecognition.IrisCompare;
+import ru.smirnovv.index.irisRecognition.IrisRecognition;
+import ru.smirnovv.iris.Cryptographer;
+import ru.smirnovv.iris.GalleryEntry;
+import ru.smirnovv.iris.KeyRing;
+import ru.smirnovv.iris.irisDetection.IrisTemplate;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the identification over synthetic galleries of several sizes.
+ * Измеряет идентификацию на синтетических галереях нескольких размеров.
+ * <p>
+ * The "encrypted" backend keeps the gallery as the database returns it and decrypts every entry
+ * during the scan, as {@link IrisRecognition} does in the application.
+ * The "decoded" backend keeps the decoded templates, whose images are off-heap OpenCV matrices.
+ * The load time and the heap and off-heap footprint of the gallery are printed when it is loaded.
+ * A gallery of 10^6 templates needs about 40 GB, so large sizes need {@code -jvmArgs -Xmx...}.
+ * Бэкенд "encrypted" хранит галерею так, как ее возвращает база данных, и дешифрует каждую запись
+ * при просмотре, как {@link IrisRecognition} в приложении.
+ * Бэкенд "decoded" хранит декодированные шаблоны, изображения которых - матрицы OpenCV вне кучи.
+ * Время загрузки и занимаемая галереей память в куче и вне кучи выводятся при ее загрузке.
+ * Галерее из 10^6 шаблонов нужно около 40 ГБ, поэтому для больших размеров нужен {@code -jvmArgs -Xmx...}.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class GalleryBenchmark {
+    /**
+     * The seed of the gallery.
+     * Начальное значение галереи.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * The synthetic gallery shared by all threads.
+     * Синтетическая галерея, общая для всех потоков.
+     */
+    @State(Scope.Benchmark)
+    public static class SyntheticGallery {
+        /**
+         * The number of the templates.
+         * Количество шаблонов.
+         */
+        @Param({"10000", "100000", "1000000"})
+        private int gallerySize;
+
+        /**
+         * The way the gallery is kept in memory.
+         * Способ хранения галереи в памяти.
+         */
+        @Param({"encrypted", "decoded"})
+        private String backend;
+
+        /**
+         * The amplitude of the noise of the genuine probes.
+         * Амплитуда шума подлинных проб.
+         */
+        @Param({"8"})
+        private int genuineNoise;
+
+        /**
+         * The gallery entries of the "encrypted" backend.
+         * Записи галереи бэкенда "encrypted".
+         */
+        private List<GalleryEntry> entries;
+
+        /**
+         * The templates of the "decoded" backend.
+         * Шаблоны бэкенда "decoded".
+         */
+        private List<IrisTemplate> templates;
+
+        /**
+         * A class that manages encode data.
+         * Класс, обеспечивающий шифрование данных.
+         */
+        private Cryptographer cryptographer;
+
+        /**
+         * The keystore file.
+         * Файл хранилища ключей.
+         */
+        private Path keystore;
+
+        /**
+         * The generator of the templates.
+         * Генератор шаблонов.
+         */
+        private SyntheticTemplates generator;
+
+        /**
+         * The first template of the gallery, the genuine probes are its captures.
+         * Первый шаблон галереи, подлинные пробы - его снимки.
+         */
+        private IrisTemplate enrolled;
+
+        /**
+         * Generates and loads the gallery.
+         * Генерирует и загружает галерею.
+         *
+         * @throws IOException is thrown when the keystore can not be created.
+         *                     данное исключение, выбрасывается если хранилище ключей не создается.
+         */
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            OpenCv.load();
+            keystore = Files.createTempFile("gallery-benchmark", ".jceks");
+            Files.delete(keystore);
+            cryptographer = new Cryptographer(new KeyRing(keystore.toString(), "benchmark", "benchmark", true));
+            generator = new SyntheticTemplates(SEED);
+
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            System.gc();
+            long heapBefore = memory.getHeapMemoryUsage().getUsed();
+            long start = System.nanoTime();
+
+            long offHeap = 0;
+            if ("encrypted".equals(backend)) {
+                entries = new ArrayList<>(gallerySize);
+                for (int i = 0; i < gallerySize; i++) {
+                    IrisTemplate template = next(i);
+                    entries.add(new GalleryEntry(i, i, cryptographer.getKeyId(),
+                            cryptographer.encrypt(template.toBytes())));
+                    if (template != enrolled) {
+                        template.getImage().release();
+                    }
+                }
+            } else {
+                templates = new ArrayList<>(gallerySize);
+                for (int i = 0; i < gallerySize; i++) {
+                    IrisTemplate template = next(i);
+                    templates.add(template);
+                    offHeap += template.getImage().total() * template.getImage().elemSize();
+                }
+            }
+
+            long loadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            System.gc();
+            long heap = memory.getHeapMemoryUsage().getUsed() - heapBefore;
+            System.out.printf(Locale.ROOT, "%n# gallery %s of %d templates: loaded in %d ms, heap %.1f MB,"
+                            + " off-heap %.1f MB%n", backend, gallerySize, loadMillis,
+                    heap / 1048576.0, offHeap / 1048576.0);
+        }
+
+        /**
+         * Removes the keystore.
+         * Удаляет хранилище ключей.
+         *
+         * @throws IOException is thrown when the keystore can not be removed.
+         *                     данное исключение, выбрасывается если хранилище ключей не удаляется.
+         */
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(keystore);
+        }
+
+        /**
+         * Generates the next template of the gallery.
+         * Генерирует следующий шаблон галереи.
+         *
+         * @param index the index of the template.
+         *              индекс шаблона.
+         * @return the template.
+         *         шаблон.
+         */
+        private IrisTemplate next(final int index) {
+            IrisTemplate template = generator.impostor(index % 4 == 0);
+            if (index == 0) {
+                enrolled = template;
+            }
+            return template;
+        }
+    }
+
+    /**
+     * The probes and the matchers of a thread.
+     * Пробы и сравнивающие объекты потока.
+     */
+    @State(Scope.Thread)
+    public static class Probes {
+        /**
+         * The comparator.
+         * Компаратор.
+         */
+        @Param({"gabor-hamming"})
+        private String comparator;
+
+        /**
+         * The comparator of the thread.
+         * Компаратор потока.
+         */
+        private IrisCompare irisCompare;
+
+        /**
+         * The recognition of the thread.
+         * Распознавание потока.
+         */
+        private IrisRecognition irisRecognition;
+
+        /**
+         * A capture of an eye that is not enrolled, it is compared with the whole gallery.
+         * Снимок незарегистрированного глаза, он сравнивается со всей галереей.
+         */
+        private IrisTemplate impostor;
+
+        /**
+         * A capture of the first enrolled eye.
+         * Снимок первого зарегистрированного глаза.
+         */
+        private IrisTemplate genuine;
+
+        /**
+         * Creates the probes and the matchers.
+         * Создает пробы и сравнивающие объекты.
+         *
+         * @param gallery the gallery.
+         *                галерея.
+         */
+        @Setup(Level.Trial)
+        public void setUp(final SyntheticGallery gallery) {
+            irisCompare = Comparators.create(comparator);
+            irisRecognition = new IrisRecognition(irisCompare, gallery.cryptographer, new SimpleMeterRegistry());
+
+            SyntheticTemplates generator = new SyntheticTemplates(SEED + 1);
+            impostor = generator.impostor(false);
+            genuine = generator.genuine(gallery.enrolled, gallery.genuineNoise, 2);
+        }
+    }
+
+    /**
+     * Identifies an eye that is not enrolled, the worst case that scans the whole gallery.
+     * Идентифицирует незарегистрированный глаз, худший случай, просматривающий всю галерею.
+     *
+     * @param gallery the gallery.
+     *                галерея.
+     * @param probes  the probes of the thread.
+     *                пробы потока.
+     * @return the id of the found person.
+     *         id найденного человека.
+     */
+    @Benchmark
+    public Long identifyImpostor(final SyntheticGallery gallery, final Probes probes) {
+        return identify(gallery, probes, probes.impostor);
+    }
+
+    /**
+     * Identifies the first enrolled eye, the best case that stops at the first entry.
+     * Идентифицирует первый зарегистрированный глаз, лучший случай, останавливающийся на первой записи.
+     *
+     * @param gallery the gallery.
+     *                галерея.
+     * @param probes  the probes of the thread.
+     *                пробы потока.
+     * @return the id of the found person.
+     *         id найденного человека.
+     */
+    @Benchmark
+    public Long identifyGenuine(final SyntheticGallery gallery, final Probes probes) {
+        return identify(gallery, probes, probes.genuine);
+    }
+
+    /**
+     * Identifies the probe in the gallery of the backend.
+     * Идентифицирует пробу в галерее бэкенда.
+     *
+     * @param gallery the gallery.
+     *                галерея.
+     * @param probes  the probes of the thread.
+     *                пробы потока.
+     * @param probe   the probe.
+     *                проба.
+     * @return the id of the found person.
+     *         id найденного человека.
+     */
+    private static Long identify(final SyntheticGallery gallery, final Probes probes, final IrisTemplate probe) {
+        if (gallery.entries != null) {
+            return probes.irisRecognition.identify(gallery.entries, probe);
+        }
+
+        for (int i = 0; i < gallery.templates.size(); i++) {
+            if (probes.irisCompare.authorize(probe, gallery.templates.get(i))) {
+                return (long) i;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,49 @@
+package ru.smirnovv.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Sweeps the thread count of {@link GalleryBenchmark}, the gallery sizes and backends are its parameters.
+ * Перебирает количество потоков {@link GalleryBenchmark}, размеры галереи и бэкенды - его параметры.
+ * <pre>
+ * java -cp target/benchmarks.jar ru.smirnovv.benchmarks.GalleryStress [JMH options, e.g. -p gallerySize=10000]
+ * </pre>
+ * The results of every thread count are written to {@code gallery-t<N>.json}.
+ * Результаты каждого количества потоков записываются в {@code gallery-t<N>.json}.
+ */
+public final class GalleryStress {
+    /**
+     * Prohibits the instantiation.
+     * Запрещает создание экземпляров.
+     */
+    private GalleryStress() {
+    }
+
+    /**
+     * The entry point.
+     * Точка входа.
+     *
+     * @param args the JMH options.
+     *             опции JMH.
+     * @throws Exception is thrown when the options are invalid or a benchmark fails.
+     *                   данное исключение, выбрасывается если опции некорректны или бенчмарк завершился ошибкой.
+     */
+    public static void main(final String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= processors; threads *= 2) {
+            new Runner(new OptionsBuilder()
+                    .parent(options)
+                    .include(GalleryBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("gallery-t" + threads + ".json")
+                    .build()).run();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package ru.smirnovv.benchmarks;
+
+import org.opencv.core.Mat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.smirnovv.index.irisRecognition.GaborRecognition.compare.CorrelationCompare;
+import ru.smirnovv.index.irisRecognition.GaborRecognition.compare.HammingDistanceCompare;
+import ru.smirnovv.index.irisRecognition.GaborRecognition.compare.IrisCodeCompare;
+import ru.smirnovv.iris.irisDetection.IrisTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one comparison of two filtered codes by every {@link IrisCodeCompare}.
+ * Измеряет одно сравнение двух отфильтрованных кодов каждым {@link IrisCodeCompare}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IrisCodeCompareBenchmark {
+    /**
+     * The seed of the codes.
+     * Начальное значение кодов.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * The comparator.
+     * Компаратор.
+     */
+    @Param({"hamming", "correlation"})
+    private String comparator;
+
+    /**
+     * The comparator under the test.
+     * Тестируемый компаратор.
+     */
+    private IrisCodeCompare irisCodeCompare;
+
+    /**
+     * The probe code.
+     * Код пробы.
+     */
+    private Mat probe;
+
+    /**
+     * A code of the same eye.
+     * Код того же глаза.
+     */
+    private Mat genuine;
+
+    /**
+     * The occlusion mask.
+     * Маска перекрытий.
+     */
+    private Mat mask;
+
+    /**
+     * Creates the comparator and the codes.
+     * Создает компаратор и коды.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        OpenCv.load();
+        irisCodeCompare = "hamming".equals(comparator) ? new HammingDistanceCompare() : new CorrelationCompare();
+
+        SyntheticTemplates templates = new SyntheticTemplates(SEED);
+        IrisTemplate template = templates.impostor(true);
+        probe = template.getImage();
+        genuine = templates.genuine(template, 8, 0).getImage();
+        mask = template.getMaskImage();
+    }
+
+    /**
+     * Compares the codes without the mask.
+     * Сравнивает коды без маски.
+     *
+     * @return the score.
+     *         оценка.
+     */
+    @Benchmark
+    public double compare() {
+        return irisCodeCompare.compare(probe, genuine);
+    }
+
+    /**
+     * Compares the codes skipping the occluded pixels.
+     * Сравнивает коды, пропуская перекрытые пиксели.
+     *
+     * @return the score.
+     *         оценка.
+     */
+    @Benchmark
+    public double compareMasked() {
+        return irisCodeCompare.compare(probe, genuine, mask);
+    }
+}
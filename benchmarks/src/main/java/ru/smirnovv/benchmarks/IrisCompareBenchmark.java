@@ -0,0 +1,128 @@
+package ru.smirnovv.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.smirnovv.index.irisRecognition.IrisCompare;
+import ru.smirnovv.iris.irisDetection.IrisTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one comparison of two templates by every {@link IrisCompare}.
+ * Измеряет одно сравнение двух шаблонов каждым {@link IrisCompare}.
+ * <p>
+ * Every thread has its own comparator, so {@code -t N} shows how the throughput scales.
+ * Каждый поток имеет свой компаратор, поэтому {@code -t N} показывает масштабирование пропускной способности.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IrisCompareBenchmark {
+    /**
+     * The seed of the templates.
+     * Начальное значение шаблонов.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * The comparator.
+     * Компаратор.
+     */
+    @Param({"gabor-hamming", "gabor-correlation", "surf"})
+    private String comparator;
+
+    /**
+     * Whether the templates have occlusion masks.
+     * Имеют ли шаблоны маски перекрытий.
+     */
+    @Param({"false", "true"})
+    private boolean occluded;
+
+    /**
+     * The comparator under the test.
+     * Тестируемый компаратор.
+     */
+    private IrisCompare irisCompare;
+
+    /**
+     * The probe template.
+     * Шаблон пробы.
+     */
+    private IrisTemplate probe;
+
+    /**
+     * A capture of the same eye.
+     * Снимок того же глаза.
+     */
+    private IrisTemplate genuine;
+
+    /**
+     * A capture of another eye.
+     * Снимок другого глаза.
+     */
+    private IrisTemplate impostor;
+
+    /**
+     * Creates the comparator and the templates.
+     * Создает компаратор и шаблоны.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        OpenCv.load();
+        irisCompare = Comparators.create(comparator);
+
+        SyntheticTemplates templates = new SyntheticTemplates(SEED);
+        probe = templates.impostor(occluded);
+        genuine = templates.genuine(probe, 8, 2);
+        impostor = templates.impostor(occluded);
+    }
+
+    /**
+     * Compares the captures of the same eye.
+     * Сравнивает снимки одного глаза.
+     *
+     * @return the score.
+     *         оценка.
+     */
+    @Benchmark
+    public double compareGenuine() {
+        return irisCompare.compare(probe, genuine);
+    }
+
+    /**
+     * Compares the captures of different eyes.
+     * Сравнивает снимки разных глаз.
+     *
+     * @return the score.
+     *         оценка.
+     */
+    @Benchmark
+    public double compareImpostor() {
+        return irisCompare.compare(probe, impostor);
+    }
+
+    /**
+     * Authorizes by the capture of another eye, the most common case of a gallery scan.
+     * Авторизует по снимку другого глаза, самый частый случай просмотра галереи.
+     *
+     * @return {@code true} if the templates match.
+     *         {@code true}, если шаблоны совпадают.
+     */
+    @Benchmark
+    public boolean authorizeImpostor() {
+        return irisCompare.authorize(probe, impostor);
+    }
+}
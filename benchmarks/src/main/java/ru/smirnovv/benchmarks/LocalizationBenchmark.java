@@ -0,0 +1,135 @@
+package ru.smirnovv.benchmarks;
+
+import org.opencv.core.Mat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.smirnovv.iris.irisDetection.localization.IrisBorders;
+import ru.smirnovv.iris.irisDetection.localization.Localization;
+import ru.smirnovv.iris.irisDetection.localization.PupilDetector;
+import ru.smirnovv.iris.irisDetection.localization.daugman.DaugmanLocalization;
+import ru.smirnovv.iris.irisDetection.localization.daugman.DaugmanParameters;
+import ru.smirnovv.iris.irisDetection.localization.hough.HoughLocalization;
+import ru.smirnovv.iris.irisDetection.localization.hough.HoughParameters;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the localization of one eye image by every {@link Localization} at several resolutions.
+ * Измеряет локализацию одного изображения глаза каждой {@link Localization} при нескольких разрешениях.
+ * <p>
+ * The sample time mode reports the latency percentiles, the GC profiler reports the allocation per image.
+ * Режим выборки времени показывает перцентили задержки, профилировщик GC - выделение памяти на изображение.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LocalizationBenchmark {
+    /**
+     * The seed of the images.
+     * Начальное значение изображений.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * The number of the images.
+     * Количество изображений.
+     */
+    private static final int IMAGES = 16;
+
+    /**
+     * The localization.
+     * Локализация.
+     */
+    @Param({"hough", "daugman"})
+    private String localization;
+
+    /**
+     * The resolution of the images.
+     * Разрешение изображений.
+     */
+    @Param({"320x240", "640x480", "1280x960"})
+    private String resolution;
+
+    /**
+     * Whether the search is narrowed by the pupil candidate, as in the application.
+     * Сужается ли поиск кандидатом зрачка, как в приложении.
+     */
+    @Param({"true", "false"})
+    private boolean pupilHint;
+
+    /**
+     * The localization under the test.
+     * Тестируемая локализация.
+     */
+    private Localization irisLocalization;
+
+    /**
+     * A class that quickly finds the pupil candidate.
+     * Класс, быстро находящий кандидата зрачка.
+     */
+    private PupilDetector pupilDetector;
+
+    /**
+     * The eye images.
+     * Изображения глаза.
+     */
+    private List<Mat> images;
+
+    /**
+     * The index of the next image.
+     * Индекс следующего изображения.
+     */
+    private int next;
+
+    /**
+     * Creates the localization and the images.
+     * Создает локализацию и изображения.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        OpenCv.load();
+        String[] size = resolution.split("x");
+        int width = Integer.parseInt(size[0]);
+        int height = Integer.parseInt(size[1]);
+        double scale = (double) width / SyntheticEyes.REFERENCE_WIDTH;
+
+        // The radii of the defaults are scaled as the images.
+        // Радиусы значений по умолчанию масштабируются как изображения.
+        int minR = (int) Math.round(20 * scale);
+        int maxR = (int) Math.round(60 * scale);
+        int distance = (int) Math.round(20 * scale);
+        irisLocalization = "hough".equals(localization)
+                ? new HoughLocalization(new HoughParameters(true, minR, maxR, 60, distance))
+                : new DaugmanLocalization(new DaugmanParameters(minR, maxR, 60, distance, distance));
+        pupilDetector = new PupilDetector(4, 60);
+        images = new SyntheticEyes(SEED, IMAGES, width, height).getImages();
+    }
+
+    /**
+     * Localizes the next image.
+     * Локализует следующее изображение.
+     *
+     * @return the borders of iris.
+     *         границы РОГ.
+     */
+    @Benchmark
+    public IrisBorders localize() {
+        Mat image = images.get(next);
+        next = (next + 1) % images.size();
+        return irisLocalization.localize(image, pupilHint ? pupilDetector.detect(image) : null);
+    }
+}
@@ -0,0 +1,127 @@
+package ru.smirnovv.benchmarks;
+
+import org.opencv.core.Mat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.smirnovv.iris.irisDetection.localization.IrisBorders;
+import ru.smirnovv.iris.irisDetection.normalization.Normalization;
+import ru.smirnovv.iris.irisDetection.normalization.polarСoordinateSystem.PolarCoordinateNormalization;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the normalization of one localized eye image by every {@link Normalization} at several resolutions.
+ * Измеряет нормализацию одного локализованного изображения глаза каждой {@link Normalization}
+ * при нескольких разрешениях.
+ * <p>
+ * The true borders of the synthetic images are used, so the localization is not measured.
+ * Используются истинные границы синтетических изображений, поэтому локализация не измеряется.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class NormalizationBenchmark {
+    /**
+     * The seed of the images.
+     * Начальное значение изображений.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * The number of the images.
+     * Количество изображений.
+     */
+    private static final int IMAGES = 16;
+
+    /**
+     * The normalization.
+     * Нормализация.
+     */
+    @Param({"polar"})
+    private String normalization;
+
+    /**
+     * The resolution of the images.
+     * Разрешение изображений.
+     */
+    @Param({"320x240", "640x480", "1280x960"})
+    private String resolution;
+
+    /**
+     * The normalization under the test.
+     * Тестируемая нормализация.
+     */
+    private Normalization irisNormalization;
+
+    /**
+     * The eye images.
+     * Изображения глаза.
+     */
+    private List<Mat> images;
+
+    /**
+     * The borders of iris on the images.
+     * Границы РОГ на изображениях.
+     */
+    private List<IrisBorders> borders;
+
+    /**
+     * The index of the next image.
+     * Индекс следующего изображения.
+     */
+    private int next;
+
+    /**
+     * Creates the normalization and the images.
+     * Создает нормализацию и изображения.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        OpenCv.load();
+        String[] size = resolution.split("x");
+        SyntheticEyes eyes = new SyntheticEyes(SEED, IMAGES, Integer.parseInt(size[0]), Integer.parseInt(size[1]));
+        irisNormalization = new PolarCoordinateNormalization();
+        images = eyes.getImages();
+        borders = eyes.getBorders();
+    }
+
+    /**
+     * Normalizes the next image.
+     * Нормализует следующее изображение.
+     *
+     * @return the normalized iris image.
+     *         нормализованное изображение РОГ.
+     */
+    @Benchmark
+    public Mat normalize() {
+        int index = next;
+        next = (next + 1) % images.size();
+        return irisNormalization.normalize(images.get(index), borders.get(index));
+    }
+
+    /**
+     * Normalizes the next image and finds its occlusions, as the detection does.
+     * Нормализует следующее изображение и находит его перекрытия, как при детектировании.
+     *
+     * @return the occlusion mask.
+     *         маска перекрытий.
+     */
+    @Benchmark
+    public Mat normalizeWithMask() {
+        return irisNormalization.occlusionMask(normalize());
+    }
+}
@@ -0,0 +1,34 @@
+package ru.smirnovv.benchmarks;
+
+import org.bytedeco.javacpp.Loader;
+import org.bytedeco.opencv.opencv_java;
+
+/**
+ * Loads the OpenCV native library once per JVM.
+ * Загружает нативную библиотеку OpenCV один раз на JVM.
+ */
+public final class OpenCv {
+    /**
+     * Whether the library is loaded.
+     * Загружена ли библиотека.
+     */
+    private static boolean loaded;
+
+    /**
+     * Prohibits the instantiation.
+     * Запрещает создание экземпляров.
+     */
+    private OpenCv() {
+    }
+
+    /**
+     * Loads the library if it is not loaded yet.
+     * Загружает библиотеку, если она еще не загружена.
+     */
+    public static synchronized void load() {
+        if (!loaded) {
+            Loader.load(opencv_java.class);
+            loaded = true;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package ru.smirnovv.benchmarks;
+
+import io.micrometer.core.instrument.Metrics;
+import ru.smirnovv.iris.irisDetection.EyeImage;
+import ru.smirnovv.iris.irisDetection.IrisDetector;
+import ru.smirnovv.iris.irisDetection.localization.IrisBorders;
+import ru.smirnovv.iris.irisDetection.localization.Localization;
+import ru.smirnovv.iris.irisDetection.localization.PupilDetector;
+import ru.smirnovv.iris.irisDetection.localization.daugman.DaugmanLocalization;
+import ru.smirnovv.iris.irisDetection.localization.daugman.DaugmanParameters;
+import ru.smirnovv.iris.irisDetection.localization.hough.HoughLocalization;
+import ru.smirnovv.iris.irisDetection.normalization.polarСoordinateSystem.PolarCoordinateNormalization;
+import ru.smirnovv.iris.irisDetection.quality.QualityAssessment;
+import ru.smirnovv.iris.irisDetection.quality.QualityParameters;
+import ru.smirnovv.monitoring.SlowRequestSampler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Replays the slow requests captured by {@link SlowRequestSampler} through the detection.
+ * Повторно пропускает медленные запросы, сохраненные {@link SlowRequestSampler}, через детектирование.
+ * <p>
+ * Every captured image is localized several times with the captured configuration, the median time is
+ * printed next to the captured one, along with whether the borders are found again.
+ * Каждое сохраненное изображение локализуется несколько раз с сохраненной конфигурацией, медианное время
+ * выводится рядом с сохраненным, вместе с тем, найдены ли границы снова.
+ */
+public final class Replay {
+    /**
+     * Prevents the instantiation.
+     * Запрещает создание экземпляров.
+     */
+    private Replay() {
+    }
+
+    /**
+     * Runs the replay.
+     * Запускает повтор.
+     *
+     * @param args the directory of the samples and {@code --repeat N}.
+     *             каталог образцов и {@code --repeat N}.
+     * @throws IOException is thrown when a sample can not be read.
+     *                     данное исключение, выбрасывается если образец не читается.
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 1 && !(args.length == 3 && "--repeat".equals(args[1]))) {
+            System.err.println("Usage: Replay <directory> [--repeat N]");
+            System.exit(2);
+        }
+        int repeat = args.length == 3 ? Integer.parseInt(args[2]) : 5;
+
+        OpenCv.load();
+        List<Path> samples;
+        try (Stream<Path> files = Files.list(Paths.get(args[0]))) {
+            samples = files.filter(file -> Files.isRegularFile(file.resolve(SlowRequestSampler.PROPERTIES)))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        System.out.printf(Locale.ROOT, "%d samples, %d runs per image%n", samples.size(), repeat);
+        System.out.printf(Locale.ROOT, "%-20s %-12s %-20s %10s %10s %10s %-8s%n",
+                "sample", "image", "localization", "total ms", "captured", "replayed", "borders");
+        for (Path sample : samples) {
+            Properties properties = new Properties();
+            try (InputStream input = Files.newInputStream(sample.resolve(SlowRequestSampler.PROPERTIES))) {
+                properties.load(input);
+            }
+
+            int images = Integer.parseInt(properties.getProperty("images", "0"));
+            for (int i = 0; i < images; i++) {
+                String prefix = "image." + i + ".";
+                IrisDetector detector = detector(properties, properties.getProperty(prefix + "localization"));
+                byte[] image = Files.readAllBytes(sample.resolve(properties.getProperty(prefix + "file")));
+
+                double[] millis = new double[repeat];
+                IrisBorders borders = null;
+                for (int run = 0; run < repeat; run++) {
+                    EyeImage eye = detector.decode(image);
+                    long start = System.nanoTime();
+                    try {
+                        borders = detector.localize(eye).getBorders();
+                    } catch (RuntimeException exception) {
+                        borders = null;
+                    }
+                    millis[run] = (System.nanoTime() - start) / 1e6;
+                }
+                Arrays.sort(millis);
+
+                System.out.printf(Locale.ROOT, "%-20s %-12s %-20s %10s %10s %10.3f %-8s%n",
+                        sample.getFileName(), properties.getProperty(prefix + "file"),
+                        properties.getProperty(prefix + "localization"),
+                        properties.getProperty("timing.total"), properties.getProperty(prefix + "localize"),
+                        millis[repeat / 2], compare(properties, prefix, borders));
+            }
+        }
+    }
+
+    /**
+     * Creates the detector with the captured configuration.
+     * Создает детектор с сохраненной конфигурацией.
+     *
+     * @param properties   the properties of the sample.
+     *                     свойства образца.
+     * @param localization the name of the captured localization.
+     *                     название сохраненной локализации.
+     * @return the detector.
+     *         детектор.
+     */
+    private static IrisDetector detector(final Properties properties, final String localization) {
+        return new IrisDetector(localization(localization),
+                new PupilDetector(Integer.parseInt(properties.getProperty("iris.pupil.scale", "4")),
+                        Integer.parseInt(properties.getProperty("iris.pupil.threshold", "60"))),
+                new PolarCoordinateNormalization(),
+                new QualityAssessment(new QualityParameters(0, 0, 255, 0, 0)),
+                Integer.parseInt(properties.getProperty("iris.detection.reduced-scale", "1")),
+                Metrics.globalRegistry);
+    }
+
+    /**
+     * Creates the localization by the name of its class.
+     * Создает локализацию по названию ее класса.
+     *
+     * @param name the simple name of the class.
+     *             простое название класса.
+     * @return the localization.
+     *         локализация.
+     */
+    private static Localization localization(final String name) {
+        switch (name) {
+            case "HoughLocalization":
+                return new HoughLocalization();
+            case "DaugmanLocalization":
+                return new DaugmanLocalization(new DaugmanParameters(20, 60, 60, 20, 20));
+            default:
+                throw new IllegalArgumentException("Unknown localization " + name);
+        }
+    }
+
+    /**
+     * Compares the replayed borders with the captured ones.
+     * Сравнивает повторно найденные границы с сохраненными.
+     *
+     * @param properties the properties of the sample.
+     *                   свойства образца.
+     * @param prefix     the prefix of the image properties.
+     *                   префикс свойств изображения.
+     * @param borders    the replayed borders or {@code null} if the iris is not found.
+     *                   повторно найденные границы или {@code null}, если РОГ не найден.
+     * @return {@code same}, {@code changed}, {@code lost} or {@code found}.
+     *         {@code same}, {@code changed}, {@code lost} или {@code found}.
+     */
+    private static String compare(final Properties properties, final String prefix, final IrisBorders borders) {
+        String pupil = properties.getProperty(prefix + "pupil");
+        if (borders == null) {
+            return pupil == null ? "same" : "lost";
+        }
+        if (pupil == null) {
+            return "found";
+        }
+        return pupil.equals(borders.getInsideBorder().toString())
+                && properties.getProperty(prefix + "iris").equals(borders.getOutsideBorder().toString())
+                ? "same" : "changed";
+    }
+}
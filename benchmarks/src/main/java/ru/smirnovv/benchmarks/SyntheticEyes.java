@@ -0,0 +1,139 @@
+package ru.smirnovv.benchmarks;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import ru.smirnovv.iris.irisDetection.localization.IrisBorders;
+import ru.smirnovv.iris.irisDetection.localization.IrisBorders.Border;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.opencv.core.Core.add;
+import static org.opencv.imgproc.Imgproc.GaussianBlur;
+import static org.opencv.imgproc.Imgproc.circle;
+
+/**
+ * A generator of synthetic grayscale eye images from a fixed seed.
+ * Генератор синтетических изображений глаза в оттенках серого с фиксированным начальным значением.
+ * <p>
+ * An image is a light sclera, a textured iris disk, a dark pupil and a specular reflection,
+ * the sizes are proportional to the width as in 640x480 captures of the eye.
+ * Изображение - светлая склера, текстурированный диск РОГ, темный зрачок и блик,
+ * размеры пропорциональны ширине, как в снимках глаза 640x480.
+ */
+public final class SyntheticEyes {
+    /**
+     * The width of the reference resolution.
+     * Ширина эталонного разрешения.
+     */
+    public static final int REFERENCE_WIDTH = 640;
+
+    /**
+     * The synthetic images.
+     * Синтетические изображения.
+     */
+    private final List<Mat> images = new ArrayList<>();
+
+    /**
+     * The true borders of the images.
+     * Истинные границы изображений.
+     */
+    private final List<IrisBorders> borders = new ArrayList<>();
+
+    /**
+     * Generates the images.
+     * Генерирует изображения.
+     *
+     * @param seed   the seed of the random numbers.
+     *               начальное значение случайных чисел.
+     * @param count  the number of the images.
+     *               количество изображений.
+     * @param width  the width of the images.
+     *               ширина изображений.
+     * @param height the height of the images.
+     *               высота изображений.
+     */
+    public SyntheticEyes(final long seed, final int count, final int width, final int height) {
+        Random random = new Random(seed);
+        double scale = (double) width / REFERENCE_WIDTH;
+
+        for (int i = 0; i < count; i++) {
+            int pupilRadius = (int) Math.round((30 + random.nextInt(15)) * scale);
+            int irisRadius = (int) Math.round((100 + random.nextInt(20)) * scale);
+            int row = height / 2 + (int) Math.round((random.nextInt(41) - 20) * scale);
+            int col = width / 2 + (int) Math.round((random.nextInt(41) - 20) * scale);
+
+            Mat image = new Mat(height, width, CvType.CV_8U, new Scalar(190));
+            Point center = new Point(col, row);
+            circle(image, center, irisRadius, new Scalar(110), -1);
+            add(image, texture(random, width, height, irisRadius, center), image);
+            circle(image, center, pupilRadius, new Scalar(20), -1);
+            circle(image, new Point(col + pupilRadius / 3, row - pupilRadius / 3),
+                    Math.max(1, pupilRadius / 6), new Scalar(250), -1);
+            GaussianBlur(image, image, new Size(3, 3), 0);
+
+            images.add(image);
+            borders.add(new IrisBorders(new Border(row, col, pupilRadius), new Border(row, col, irisRadius)));
+        }
+    }
+
+    /**
+     * Returns the images.
+     * Возвращает изображения.
+     *
+     * @return the images.
+     *         изображения.
+     */
+    public List<Mat> getImages() {
+        return images;
+    }
+
+    /**
+     * Returns the true borders of the images.
+     * Возвращает истинные границы изображений.
+     *
+     * @return the borders in the order of the images.
+     *         границы в порядке изображений.
+     */
+    public List<IrisBorders> getBorders() {
+        return borders;
+    }
+
+    /**
+     * Creates the texture of the iris disk.
+     * Создает текстуру диска РОГ.
+     *
+     * @param random     the source of the random numbers.
+     *                   источник случайных чисел.
+     * @param width      the width of the image.
+     *                   ширина изображения.
+     * @param height     the height of the image.
+     *                   высота изображения.
+     * @param irisRadius the radius of the iris.
+     *                   радиус РОГ.
+     * @param center     the center of the iris.
+     *                   центр РОГ.
+     * @return the texture, zero outside of the disk.
+     *         текстура, нулевая вне диска.
+     */
+    private static Mat texture(final Random random, final int width, final int height,
+                               final int irisRadius, final Point center) {
+        byte[] pixels = new byte[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = (byte) random.nextInt(40);
+        }
+        Mat noise = new Mat(height, width, CvType.CV_8U);
+        noise.put(0, 0, pixels);
+
+        Mat disk = Mat.zeros(height, width, CvType.CV_8U);
+        circle(disk, center, irisRadius, new Scalar(255), -1);
+
+        Mat result = Mat.zeros(height, width, CvType.CV_8U);
+        noise.copyTo(result, disk);
+        return result;
+    }
+}
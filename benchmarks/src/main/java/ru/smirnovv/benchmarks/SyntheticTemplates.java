@@ -0,0 +1,119 @@
+package ru.smirnovv.benchmarks;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import ru.smirnovv.iris.irisDetection.IrisTemplate;
+
+import java.util.Random;
+
+import static org.opencv.core.Core.NORM_MINMAX;
+import static org.opencv.core.Core.normalize;
+import static org.opencv.imgproc.Imgproc.GaussianBlur;
+
+/**
+ * A generator of synthetic iris templates from a fixed seed.
+ * Генератор синтетических шаблонов РОГ с фиксированным начальным значением.
+ * <p>
+ * An impostor template is a smoothed random texture, so distinct templates are uncorrelated.
+ * A genuine template is a copy of another template that is slightly rotated and noised,
+ * as two captures of the same eye are.
+ * Шаблон самозванца - сглаженная случайная текстура, поэтому разные шаблоны не коррелируют.
+ * Подлинный шаблон - копия другого шаблона, немного повернутая и зашумленная,
+ * как два снимка одного глаза.
+ */
+public final class SyntheticTemplates {
+    /**
+     * The source of the random numbers.
+     * Источник случайных чисел.
+     */
+    private final Random random;
+
+    /**
+     * Constructs an instance with the seed.
+     * Создает экземпляр с начальным значением.
+     *
+     * @param seed the seed of the random numbers.
+     *             начальное значение случайных чисел.
+     */
+    public SyntheticTemplates(final long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Creates a template of a new eye.
+     * Создает шаблон нового глаза.
+     *
+     * @param occluded whether the upper rows are occluded by the eyelid.
+     *                 перекрыты ли верхние строки веком.
+     * @return the template.
+     *         шаблон.
+     */
+    public IrisTemplate impostor(final boolean occluded) {
+        byte[] pixels = new byte[IrisTemplate.ROWS * IrisTemplate.COLS];
+        random.nextBytes(pixels);
+
+        Mat noise = new Mat(IrisTemplate.ROWS, IrisTemplate.COLS, CvType.CV_8U);
+        noise.put(0, 0, pixels);
+        Mat image = new Mat();
+        GaussianBlur(noise, image, new Size(5, 5), 0);
+        normalize(image, image, 0, 255, NORM_MINMAX);
+
+        return occluded ? new IrisTemplate(image, eyelid(random.nextInt(IrisTemplate.ROWS / 4)))
+                : new IrisTemplate(image);
+    }
+
+    /**
+     * Creates another capture of the same eye.
+     * Создает другой снимок того же глаза.
+     *
+     * @param template the template of the eye.
+     *                 шаблон глаза.
+     * @param noise    the amplitude of the noise added to every pixel.
+     *                 амплитуда шума, добавляемого к каждому пикселю.
+     * @param rotation the maximum rotation of the eye in columns.
+     *                 максимальный поворот глаза в столбцах.
+     * @return the template.
+     *         шаблон.
+     */
+    public IrisTemplate genuine(final IrisTemplate template, final int noise, final int rotation) {
+        int rows = IrisTemplate.ROWS;
+        int cols = IrisTemplate.COLS;
+        byte[] source = new byte[rows * cols];
+        template.getImage().get(0, 0, source);
+
+        int shift = rotation == 0 ? 0 : random.nextInt(2 * rotation + 1) - rotation;
+        byte[] pixels = new byte[rows * cols];
+        for (int x = 0; x < rows; x++) {
+            for (int y = 0; y < cols; y++) {
+                int value = (source[x * cols + (y + shift + cols) % cols] & 0xFF)
+                        + (noise == 0 ? 0 : random.nextInt(2 * noise + 1) - noise);
+                pixels[x * cols + y] = (byte) Math.max(0, Math.min(255, value));
+            }
+        }
+
+        Mat image = new Mat(rows, cols, CvType.CV_8U);
+        image.put(0, 0, pixels);
+        return template.isMasked() ? new IrisTemplate(image, template.getMaskImage()) : new IrisTemplate(image);
+    }
+
+    /**
+     * Creates the mask with the occluded upper rows.
+     * Создает маску с перекрытыми верхними строками.
+     *
+     * @param occludedRows the number of the occluded rows.
+     *                     количество перекрытых строк.
+     * @return the mask, 255 marks a valid pixel.
+     *         маска, 255 отмечает корректный пиксель.
+     */
+    private static Mat eyelid(final int occludedRows) {
+        byte[] pixels = new byte[IrisTemplate.ROWS * IrisTemplate.COLS];
+        for (int i = (occludedRows + 1) * IrisTemplate.COLS; i < pixels.length; i++) {
+            pixels[i] = (byte) 255;
+        }
+
+        Mat mask = new Mat(IrisTemplate.ROWS, IrisTemplate.COLS, CvType.CV_8U);
+        mask.put(0, 0, pixels);
+        return mask;
+    }
+}
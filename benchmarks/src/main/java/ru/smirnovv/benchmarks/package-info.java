@@ -0,0 +1,5 @@
+/**
+ * The package containing JMH benchmarks of the recognition algorithms.
+ * Пакет, содержащий JMH бенчмарки алгоритмов распознавания.
+ */
+package ru.smirnovv.benchmarks;
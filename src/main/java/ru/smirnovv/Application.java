@@ -3,9 +3,12 @@ package ru.smirnovv;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import ru.smirnovv.iris.InvalidIrisImageException;
+import ru.smirnovv.iris.irisDetection.quality.LowQualityImageException;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -14,12 +17,14 @@ import static java.lang.System.load;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 
 /**
  * A service that search people by iris.
  */
 @SuppressWarnings({"hideUtilityClassConstructor", "PMD.TooManyStaticImports"})
 @SpringBootApplication
+@EnableScheduling
 public class Application {
     static {
         if (getProperty("os.name").matches("Linux")) {
@@ -90,5 +95,74 @@ public class Application {
                     new ErrorType(request.getRequestURI(), BAD_REQUEST.value(), exception.getMessage()),
                     BAD_REQUEST);
         }
+
+        /**
+         * Handles {@link InvalidIrisImageException} and
+         * returns the response with error information.
+         *
+         * @param request   the request where the exception was thrown.
+         * @param exception the thrown exception.
+         * @return a response entity with error details.
+         * @see ErrorType
+         */
+        @ExceptionHandler(InvalidIrisImageException.class)
+        public final ResponseEntity<ErrorType> invalidIrisImageException(
+                final HttpServletRequest request, final InvalidIrisImageException exception) {
+            return new ResponseEntity<>(
+                    new ErrorType(request.getRequestURI(), BAD_REQUEST.value(), exception.getMessage()),
+                    BAD_REQUEST);
+        }
+
+        /**
+         * Handles {@link LowQualityImageException} and
+         * returns the response with error information and the reason of the rejection.
+         *
+         * @param request   the request where the exception was thrown.
+         * @param exception the thrown exception.
+         * @return a response entity with error details.
+         * @see ErrorType
+         */
+        @ExceptionHandler(LowQualityImageException.class)
+        public final ResponseEntity<ErrorType> lowQualityImageException(
+                final HttpServletRequest request, final LowQualityImageException exception) {
+            return new ResponseEntity<>(
+                    new ErrorType(request.getRequestURI(), BAD_REQUEST.value(), exception.getMessage(),
+                            exception.getReason().name()),
+                    BAD_REQUEST);
+        }
+
+        /**
+         * Handles {@link BadRequestException} and
+         * returns the response with error information.
+         *
+         * @param request   the request where the exception was thrown.
+         * @param exception the thrown exception.
+         * @return a response entity with error details.
+         * @see ErrorType
+         */
+        @ExceptionHandler(BadRequestException.class)
+        public final ResponseEntity<ErrorType> badRequestException(
+                final HttpServletRequest request, final BadRequestException exception) {
+            return new ResponseEntity<>(
+                    new ErrorType(request.getRequestURI(), BAD_REQUEST.value(), exception.getMessage()),
+                    BAD_REQUEST);
+        }
+
+        /**
+         * Handles {@link ServiceUnavailableException} and
+         * returns the response with error information.
+         *
+         * @param request   the request where the exception was thrown.
+         * @param exception the thrown exception.
+         * @return a response entity with error details.
+         * @see ErrorType
+         */
+        @ExceptionHandler(ServiceUnavailableException.class)
+        public final ResponseEntity<ErrorType> serviceUnavailableException(
+                final HttpServletRequest request, final ServiceUnavailableException exception) {
+            return new ResponseEntity<>(
+                    new ErrorType(request.getRequestURI(), SERVICE_UNAVAILABLE.value(), exception.getMessage()),
+                    SERVICE_UNAVAILABLE);
+        }
     }
 }
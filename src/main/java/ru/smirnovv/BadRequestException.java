@@ -0,0 +1,18 @@
+package ru.smirnovv;
+
+/**
+ * This exception indicates that the request is malformed.
+ * Исключение, указывающие на то, что запрос составлен неверно.
+ */
+public class BadRequestException extends RuntimeException {
+    /**
+     * Constructs an instance with the specified detail message.
+     * Создает экземпляр с указанным подробным сообщением.
+     *
+     * @param message the detail message.
+     *                подробное сообщение.
+     */
+    public BadRequestException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,165 @@
+package ru.smirnovv;
+
+import ru.smirnovv.iris.InvalidIrisImageException;
+
+import java.util.concurrent.CompletionException;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+/**
+ * The result of one item of a batch request.
+ * Результат одного элемента пакетного запроса.
+ *
+ * @param <T> the type of the result.
+ *            тип результата.
+ */
+public class BatchItem<T> {
+    /**
+     * The index of the item in the request.
+     * Индекс элемента в запросе.
+     */
+    private final int index;
+
+    /**
+     * HTTP status code of the item.
+     * HTTP код состояния элемента.
+     */
+    private final int status;
+
+    /**
+     * The result ({@code null} if the item failed).
+     * Результат ({@code null}, если элемент не обработан).
+     */
+    private final T result;
+
+    /**
+     * The detail message of the failure ({@code null} if the item succeeded).
+     * Подробное сообщение об ошибке ({@code null}, если элемент обработан).
+     */
+    private final String message;
+
+    /**
+     * Constructs an instance with the specified properties.
+     * Создает экземпляр с указанными свойствами.
+     *
+     * @param index   the index of the item in the request.
+     *                индекс элемента в запросе.
+     * @param status  HTTP status code of the item.
+     *                HTTP код состояния элемента.
+     * @param result  the result.
+     *                результат.
+     * @param message the detail message of the failure.
+     *                подробное сообщение об ошибке.
+     */
+    public BatchItem(final int index, final int status, final T result, final String message) {
+        this.index = index;
+        this.status = status;
+        this.result = result;
+        this.message = message;
+    }
+
+    /**
+     * Creates the succeeded item.
+     * Создает обработанный элемент.
+     *
+     * @param index  the index of the item in the request.
+     *               индекс элемента в запросе.
+     * @param result the result.
+     *               результат.
+     * @param <T>    the type of the result.
+     *               тип результата.
+     * @return the item.
+     *         элемент.
+     */
+    public static <T> BatchItem<T> success(final int index, final T result) {
+        return new BatchItem<>(index, OK.value(), result, null);
+    }
+
+    /**
+     * Creates the failed item with the same status as the single request would get.
+     * Создает необработанный элемент с тем же кодом, что получил бы одиночный запрос.
+     *
+     * @param index     the index of the item in the request.
+     *                  индекс элемента в запросе.
+     * @param exception the failure.
+     *                  ошибка.
+     * @param <T>       the type of the result.
+     *                  тип результата.
+     * @return the item.
+     *         элемент.
+     */
+    public static <T> BatchItem<T> failure(final int index, final Throwable exception) {
+        Throwable cause = exception instanceof CompletionException && exception.getCause() != null
+                ? exception.getCause() : exception;
+        return new BatchItem<>(index, statusOf(cause), null, cause.getMessage());
+    }
+
+    /**
+     * Returns HTTP status code the exception is answered with.
+     * Возвращает HTTP код состояния, которым отвечают на исключение.
+     *
+     * @param exception the exception.
+     *                  исключение.
+     * @return HTTP status code.
+     *         HTTP код состояния.
+     */
+    public static int statusOf(final Throwable exception) {
+        if (exception instanceof NotFoundException) {
+            return NOT_FOUND.value();
+        } else if (exception instanceof InvalidIrisImageException || exception instanceof BadRequestException) {
+            return BAD_REQUEST.value();
+        } else if (exception instanceof ServiceUnavailableException) {
+            return SERVICE_UNAVAILABLE.value();
+        } else {
+            return INTERNAL_SERVER_ERROR.value();
+        }
+    }
+
+    /**
+     * Returns the index of the item in the request.
+     * Возвращает индекс элемента в запросе.
+     *
+     * @return the index of the item.
+     *         индекс элемента.
+     */
+    public final int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns HTTP status code of the item.
+     * Возвращает HTTP код состояния элемента.
+     *
+     * @return HTTP status code.
+     *         HTTP код состояния.
+     */
+    public final int getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the result.
+     * Возвращает результат.
+     *
+     * @return the result ({@code null} if the item failed).
+     *         результат ({@code null}, если элемент не обработан).
+     */
+    public final T getResult() {
+        return result;
+    }
+
+    /**
+     * Returns the detail message of the failure.
+     * Возвращает подробное сообщение об ошибке.
+     *
+     * @return the detail message ({@code null} if the item succeeded).
+     *         подробное сообщение ({@code null}, если элемент обработан).
+     */
+    public final String getMessage() {
+        return message;
+    }
+}
@@ -1,5 +1,7 @@
 package ru.smirnovv;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 /**
  * The special class that contains error information.
  */
@@ -19,6 +21,11 @@ public class ErrorType {
      */
     private final String message;
 
+    /**
+     * The machine-readable reason of the error.
+     */
+    private final String reason;
+
     /**
      * Constructs an instance with the specified properties.
      *
@@ -27,9 +34,22 @@ public class ErrorType {
      * @param message the detail message.
      */
     public ErrorType(final String url, final int status, final String message) {
+        this(url, status, message, null);
+    }
+
+    /**
+     * Constructs an instance with the specified properties and the reason.
+     *
+     * @param url     the request where the exception was thrown.
+     * @param status  HTTP status code.
+     * @param message the detail message.
+     * @param reason  the machine-readable reason of the error.
+     */
+    public ErrorType(final String url, final int status, final String message, final String reason) {
         this.url = url;
         this.status = status;
         this.message = message;
+        this.reason = reason;
     }
 
     /**
@@ -58,4 +78,14 @@ public class ErrorType {
     public final String getMessage() {
         return message;
     }
+
+    /**
+     * Returns the machine-readable reason of the error.
+     *
+     * @return the reason ({@code null} if the error has none).
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public final String getReason() {
+        return reason;
+    }
 }
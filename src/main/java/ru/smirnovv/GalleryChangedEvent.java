@@ -0,0 +1,54 @@
+package ru.smirnovv;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * This event indicates that registered irises or their owners have changed.
+ * Событие, указывающее на то, что зарегистрированные РОГ или их владельцы изменились.
+ */
+public class GalleryChangedEvent extends ApplicationEvent {
+    /**
+     * The ids of the persons whose irises were removed.
+     * Id людей, чьи РОГ были удалены.
+     */
+    private final Collection<Long> removedPersonIds;
+
+    /**
+     * Constructs an instance with the specified source.
+     * Создает экземпляр с указанным источником.
+     *
+     * @param source the object that changed the gallery.
+     *               объект, изменивший галерею.
+     */
+    public GalleryChangedEvent(final Object source) {
+        this(source, Collections.emptyList());
+    }
+
+    /**
+     * Constructs an instance with the specified properties.
+     * Создает экземпляр с указанными свойствами.
+     *
+     * @param source           the object that changed the gallery.
+     *                         объект, изменивший галерею.
+     * @param removedPersonIds the ids of the persons whose irises were removed.
+     *                         id людей, чьи РОГ были удалены.
+     */
+    public GalleryChangedEvent(final Object source, final Collection<Long> removedPersonIds) {
+        super(source);
+        this.removedPersonIds = removedPersonIds;
+    }
+
+    /**
+     * Returns the ids of the persons whose irises were removed.
+     * Возвращает id людей, чьи РОГ были удалены.
+     *
+     * @return the ids of the persons, empty if none were removed or they are unknown.
+     *         id людей, пусто если никто не удален или они неизвестны.
+     */
+    public final Collection<Long> getRemovedPersonIds() {
+        return removedPersonIds;
+    }
+}
@@ -0,0 +1,102 @@
+package ru.smirnovv;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * A page of a listing that continues after the last id instead of skipping rows.
+ * Страница списка, продолжающаяся после последнего id вместо пропуска строк.
+ *
+ * @param <T> the type of the elements.
+ *            тип элементов.
+ */
+public class KeysetPage<T> {
+    /**
+     * The maximum number of elements in a page.
+     * Максимальное количество элементов на странице.
+     */
+    public static final int MAX_SIZE = 1000;
+
+    /**
+     * The elements of the page.
+     * Элементы страницы.
+     */
+    private final List<T> content;
+
+    /**
+     * The id to request the next page after ({@code null} if this page is the last one).
+     * Id, после которого запрашивается следующая страница ({@code null}, если эта страница последняя).
+     */
+    private final Long next;
+
+    /**
+     * Constructs an instance with the specified properties.
+     * Создает экземпляр с указанными свойствами.
+     *
+     * @param content the elements of the page.
+     *                элементы страницы.
+     * @param next    the id to request the next page after.
+     *                id, после которого запрашивается следующая страница.
+     */
+    public KeysetPage(final List<T> content, final Long next) {
+        this.content = content;
+        this.next = next;
+    }
+
+    /**
+     * Creates the page from the elements read in the order of ids.
+     * Создает страницу из элементов, прочитанных в порядке id.
+     *
+     * @param content the elements of the page.
+     *                элементы страницы.
+     * @param size    the requested size of the page.
+     *                запрошенный размер страницы.
+     * @param id      the function that returns the id of an element.
+     *                функция, возвращающая id элемента.
+     * @param <T>     the type of the elements.
+     *                тип элементов.
+     * @return the page.
+     *         страница.
+     */
+    public static <T> KeysetPage<T> of(final List<T> content, final int size, final ToLongFunction<T> id) {
+        return new KeysetPage<>(content,
+                content.size() < size ? null : id.applyAsLong(content.get(content.size() - 1)));
+    }
+
+    /**
+     * Checks the requested size of the page.
+     * Проверяет запрошенный размер страницы.
+     *
+     * @param size the requested size of the page.
+     *             запрошенный размер страницы.
+     * @throws BadRequestException is thrown when the size is out of range.
+     *                             данное исключение, выбрасывается если размер вне допустимого диапазона.
+     */
+    public static void checkSize(final int size) throws BadRequestException {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new BadRequestException("The page size must be from 1 to " + MAX_SIZE + ".");
+        }
+    }
+
+    /**
+     * Returns the elements of the page.
+     * Возвращает элементы страницы.
+     *
+     * @return the elements of the page.
+     *         элементы страницы.
+     */
+    public final List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * Returns the id to request the next page after.
+     * Возвращает id, после которого запрашивается следующая страница.
+     *
+     * @return the id ({@code null} if this page is the last one).
+     *         id ({@code null}, если эта страница последняя).
+     */
+    public final Long getNext() {
+        return next;
+    }
+}
@@ -0,0 +1,94 @@
+package ru.smirnovv;
+
+import java.util.function.Function;
+
+/**
+ * The result of a search limited by a latency budget.
+ * Результат поиска, ограниченного бюджетом времени.
+ *
+ * @param <T> the type of the result.
+ *            тип результата.
+ */
+public class PartialResult<T> {
+    /**
+     * The best result found within the budget.
+     * Лучший результат, найденный в пределах бюджета.
+     */
+    private final T result;
+
+    /**
+     * The fraction of the gallery the result accounts for, from 0 to 1.
+     * Доля галереи, которую учитывает результат, от 0 до 1.
+     */
+    private final double completeness;
+
+    /**
+     * Constructs an instance with the specified properties.
+     * Создает экземпляр с указанными свойствами.
+     *
+     * @param result       the best result found within the budget.
+     *                     лучший результат, найденный в пределах бюджета.
+     * @param completeness the fraction of the gallery the result accounts for, from 0 to 1.
+     *                     доля галереи, которую учитывает результат, от 0 до 1.
+     */
+    public PartialResult(final T result, final double completeness) {
+        this.result = result;
+        this.completeness = completeness;
+    }
+
+    /**
+     * Creates the result of the scan of the part of the gallery.
+     * Создает результат просмотра части галереи.
+     *
+     * @param result  the best result found within the budget.
+     *                лучший результат, найденный в пределах бюджета.
+     * @param scanned the number of the scanned gallery entries.
+     *                количество просмотренных записей галереи.
+     * @param total   the size of the gallery.
+     *                размер галереи.
+     * @param <T>     the type of the result.
+     *                тип результата.
+     * @return the result.
+     *         результат.
+     */
+    public static <T> PartialResult<T> of(final T result, final long scanned, final long total) {
+        return new PartialResult<>(result, total <= 0 ? 1.0 : Math.min(1.0, (double) scanned / total));
+    }
+
+    /**
+     * Returns the best result found within the budget.
+     * Возвращает лучший результат, найденный в пределах бюджета.
+     *
+     * @return the result.
+     *         результат.
+     */
+    public final T getResult() {
+        return result;
+    }
+
+    /**
+     * Returns the fraction of the gallery the result accounts for.
+     * Возвращает долю галереи, которую учитывает результат.
+     *
+     * @return the fraction from 0 to 1, 1 if the result is final.
+     *         доля от 0 до 1, 1 если результат окончательный.
+     */
+    public final double getCompleteness() {
+        return completeness;
+    }
+
+    /**
+     * Converts the result keeping the completeness.
+     * Преобразует результат, сохраняя полноту.
+     *
+     * @param mapper the conversion.
+     *               преобразование.
+     * @param <R>    the type of the converted result.
+     *               тип преобразованного результата.
+     * @return the converted result.
+     *         преобразованный результат.
+     */
+    public final <R> PartialResult<R> map(final Function<T, R> mapper) {
+        return new PartialResult<>(mapper.apply(result), completeness);
+    }
+}
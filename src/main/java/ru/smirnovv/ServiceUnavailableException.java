@@ -0,0 +1,18 @@
+package ru.smirnovv;
+
+/**
+ * This exception indicates that the server is overloaded and the request is rejected.
+ * Исключение, указывающие на то, что сервер перегружен и запрос отклонен.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+    /**
+     * Constructs an instance with the specified detail message.
+     * Создает экземпляр с указанным подробным сообщением.
+     *
+     * @param message the detail message.
+     *                подробное сообщение.
+     */
+    public ServiceUnavailableException(final String message) {
+        super(message);
+    }
+}
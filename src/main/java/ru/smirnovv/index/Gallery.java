@@ -0,0 +1,283 @@
+package ru.smirnovv.index;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.smirnovv.GalleryChangedEvent;
+import ru.smirnovv.iris.GalleryEntry;
+import ru.smirnovv.iris.IrisRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * A class that scans registered irises in constant memory.
+ * Класс, просматривающий зарегистрированные РОГ в постоянном объеме памяти.
+ */
+@Component
+public class Gallery implements MeterBinder {
+    /**
+     * The number of the prioritized persons streamed by one query.
+     * Количество приоритетных людей, читаемых потоком одним запросом.
+     */
+    private static final int PRIORITY_BLOCK_SIZE = 100;
+
+    /**
+     * A repository that manages registered in the system irises.
+     * Репозиторий, управляющий зарегистрированными РОГ.
+     */
+    private final IrisRepository irisRepository;
+
+    /**
+     * A template of read-only transactions that hold the cursor open.
+     * Шаблон транзакций только для чтения, удерживающих курсор открытым.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * The cached size of the gallery, negative if not counted yet.
+     * Кэшированный размер галереи, отрицательный если еще не подсчитан.
+     */
+    private final AtomicLong size = new AtomicLong(-1);
+
+    /**
+     * Whether the gallery changed since the size was counted.
+     * Изменилась ли галерея с момента подсчета размера.
+     */
+    private final AtomicBoolean sizeStale = new AtomicBoolean(true);
+
+    /**
+     * Constructs an instance with injected dependencies.
+     * Создает экземпляр с внедренными зависимостями.
+     *
+     * @param irisRepository     a repository that manages registered in the system irises.
+     *                           репозиторий, управляющий зарегистрированными РОГ.
+     * @param transactionManager a manager of transactions.
+     *                           менеджер транзакций.
+     */
+    @Autowired
+    public Gallery(final IrisRepository irisRepository, final PlatformTransactionManager transactionManager) {
+        this.irisRepository = irisRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Passes the gallery to the scanner entry by entry.
+     * Передает галерею обработчику запись за записью.
+     *
+     * @param scanner the function that compares templates with the gallery, it may stop early.
+     *                функция, сравнивающая шаблоны с галереей, может остановиться досрочно.
+     * @param <T>     the type of the result.
+     *                тип результата.
+     * @return the result of the scanner.
+     *         результат обработчика.
+     */
+    public <T> T scan(final Function<Iterable<GalleryEntry>, T> scanner) {
+        return scan(Collections.emptyList(), scanner);
+    }
+
+    /**
+     * Passes the gallery to the scanner, the irises of the specified persons go first.
+     * Передает галерею обработчику, РОГ указанных людей идут первыми.
+     *
+     * @param first   the ids of the persons to scan first, in the order of the scan.
+     *                id людей, просматриваемых первыми, в порядке просмотра.
+     * @param scanner the function that compares templates with the gallery, it may stop early.
+     *                функция, сравнивающая шаблоны с галереей, может остановиться досрочно.
+     * @param <T>     the type of the result.
+     *                тип результата.
+     * @return the result of the scanner.
+     *         результат обработчика.
+     */
+    public <T> T scan(final List<Long> first, final Function<Iterable<GalleryEntry>, T> scanner) {
+        return transactionTemplate.execute(status -> read(first, scanner));
+    }
+
+    /**
+     * Passes the gallery and its size to the scanner, the irises of the specified persons go first.
+     * Передает галерею и ее размер обработчику, РОГ указанных людей идут первыми.
+     *
+     * @param first   the ids of the persons to scan first, in the order of the scan.
+     *                id людей, просматриваемых первыми, в порядке просмотра.
+     * @param scanner the function that compares templates with the gallery and the size of the gallery,
+     *                it may stop early.
+     *                функция, сравнивающая шаблоны с галереей и размером галереи, может остановиться досрочно.
+     * @param <T>     the type of the result.
+     *                тип результата.
+     * @return the result of the scanner.
+     *         результат обработчика.
+     */
+    public <T> T scan(final List<Long> first, final BiFunction<Iterable<GalleryEntry>, Long, T> scanner) {
+        long total = size();
+        return transactionTemplate.execute(status -> read(first, irises -> scanner.apply(irises, total)));
+    }
+
+    /**
+     * Returns the size of the gallery, it is counted again only after the gallery changed.
+     * Возвращает размер галереи, он подсчитывается заново только после изменения галереи.
+     *
+     * @return the number of the irises, it may lag behind concurrent changes.
+     *         количество РОГ, может отставать от одновременных изменений.
+     */
+    public long size() {
+        if (sizeStale.getAndSet(false)) {
+            try {
+                size.set(irisRepository.count());
+            } catch (RuntimeException exception) {
+                sizeStale.set(true);
+                throw exception;
+            }
+        }
+
+        long value = size.get();
+        return value < 0 ? irisRepository.count() : value;
+    }
+
+    /**
+     * Marks the size of the gallery for counting again.
+     * Помечает размер галереи для повторного подсчета.
+     *
+     * @param event the event.
+     *              событие.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGalleryChanged(final GalleryChangedEvent event) {
+        sizeStale.set(true);
+    }
+
+    /**
+     * Passes the gallery to the scanner inside the transaction, the irises of the specified persons go first.
+     * Передает галерею обработчику внутри транзакции, РОГ указанных людей идут первыми.
+     *
+     * @param first   the ids of the persons to scan first, in the order of the scan.
+     *                id людей, просматриваемых первыми, в порядке просмотра.
+     * @param scanner the function that compares templates with the gallery, it may stop early.
+     *                функция, сравнивающая шаблоны с галереей, может остановиться досрочно.
+     * @param <T>     the type of the result.
+     *                тип результата.
+     * @return the result of the scanner.
+     *         результат обработчика.
+     */
+    private <T> T read(final List<Long> first, final Function<Iterable<GalleryEntry>, T> scanner) {
+        if (first.isEmpty()) {
+            try (Stream<GalleryEntry> entries = irisRepository.streamGallery()) {
+                return scanner.apply(entries::iterator);
+            }
+        }
+
+        // The prioritized persons are read in blocks, each block is sorted in the order of the scan,
+        // then the database streams the rest of the gallery without them.
+        // Приоритетные люди читаются блоками, каждый блок сортируется в порядке просмотра,
+        // затем база данных передает потоком остальную галерею без них.
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < first.size(); i++) {
+            rank.putIfAbsent(first.get(i), i);
+        }
+        List<Supplier<Stream<GalleryEntry>>> sources = new ArrayList<>();
+        for (int from = 0; from < first.size(); from += PRIORITY_BLOCK_SIZE) {
+            List<Long> block = first.subList(from, Math.min(from + PRIORITY_BLOCK_SIZE, first.size()));
+            sources.add(() -> irisRepository.streamGalleryByPersonIdIn(block)
+                    .sorted(Comparator.comparingInt(entry -> rank.get(entry.getPersonId()))));
+        }
+        sources.add(() -> irisRepository.streamGalleryByPersonIdNotIn(rank.keySet()));
+
+        try (Entries entries = new Entries(sources.iterator())) {
+            return scanner.apply(() -> entries);
+        }
+    }
+
+    /**
+     * The entries of the streams opened one after another, only one stream is open at a time.
+     * Записи потоков, открываемых один за другим, одновременно открыт только один поток.
+     */
+    private static final class Entries implements Iterator<GalleryEntry>, AutoCloseable {
+        /**
+         * The streams not opened yet.
+         * Еще не открытые потоки.
+         */
+        private final Iterator<Supplier<Stream<GalleryEntry>>> sources;
+
+        /**
+         * The open stream.
+         * Открытый поток.
+         */
+        private Stream<GalleryEntry> stream;
+
+        /**
+         * The entries of the open stream.
+         * Записи открытого потока.
+         */
+        private Iterator<GalleryEntry> entries = Collections.emptyIterator();
+
+        /**
+         * Constructs an instance with the streams.
+         * Создает экземпляр с потоками.
+         *
+         * @param sources the suppliers of the streams in the order of the entries.
+         *                поставщики потоков в порядке записей.
+         */
+        private Entries(final Iterator<Supplier<Stream<GalleryEntry>>> sources) {
+            this.sources = sources;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!entries.hasNext() && sources.hasNext()) {
+                close();
+                stream = sources.next().get();
+                entries = stream.iterator();
+            }
+
+            return entries.hasNext();
+        }
+
+        @Override
+        public GalleryEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return entries.next();
+        }
+
+        @Override
+        public void close() {
+            if (stream != null) {
+                stream.close();
+                stream = null;
+            }
+        }
+    }
+
+    /**
+     * Registers the cached size of the gallery, so a scrape counts the irises only after the gallery changed.
+     * Регистрирует кэшированный размер галереи, поэтому сбор метрик подсчитывает РОГ только после изменения галереи.
+     *
+     * @param registry a registry of the metrics.
+     *                 реестр метрик.
+     */
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("iris.gallery.size", this, gallery -> gallery.size())
+                .description("The irises registered in the gallery")
+                .register(registry);
+    }
+}
@@ -0,0 +1,232 @@
+package ru.smirnovv.index;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.smirnovv.GalleryChangedEvent;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The order in which the gallery scans visit the persons, the hot persons go first,
+ * so an identification of a frequent visitor stops after a few comparisons.
+ * Порядок, в котором просмотры галереи посещают людей, часто встречающиеся люди идут первыми,
+ * поэтому идентификация постоянного посетителя останавливается после нескольких сравнений.
+ * <p>
+ * A person is hot if matched recently or often: every match adds 1 to the score of the person
+ * and the score halves every {@code half-life} matches of anybody. The scores are updated by
+ * compare-and-set without a shared lock, since every identification records its match.
+ * Человек часто встречается, если найден недавно или часто: каждое совпадение добавляет 1 к оценке
+ * человека, а оценка уменьшается вдвое каждые {@code half-life} совпадений кого угодно. Оценки
+ * обновляются сравнением с обменом без общей блокировки, так как каждая идентификация записывает совпадение.
+ */
+@Component
+public class GalleryPriority implements MeterBinder {
+    /**
+     * The maximum number of the persons scanned first.
+     * Максимальное количество людей, просматриваемых первыми.
+     */
+    private final int maxSize;
+
+    /**
+     * The number of the matches that halves a score.
+     * Количество совпадений, уменьшающее оценку вдвое.
+     */
+    private final double halfLife;
+
+    /**
+     * The scores of the persons by id.
+     * Оценки людей по id.
+     */
+    private final Map<Long, AtomicReference<Score>> scores = new ConcurrentHashMap<>();
+
+    /**
+     * The logical clock counting the matches.
+     * Логические часы, считающие совпадения.
+     */
+    private final AtomicLong clock = new AtomicLong();
+
+    /**
+     * Whether a thread is removing the coldest persons.
+     * Удаляет ли какой-либо поток наименее встречающихся людей.
+     */
+    private final AtomicBoolean trimming = new AtomicBoolean();
+
+    /**
+     * Constructs an instance with injected properties.
+     * Создает экземпляр с внедренными свойствами.
+     *
+     * @param maxSize  the maximum number of the persons scanned first, {@code 0} keeps the gallery order.
+     *                 максимальное количество людей, просматриваемых первыми, {@code 0} сохраняет порядок галереи.
+     * @param halfLife the number of the matches that halves a score.
+     *                 количество совпадений, уменьшающее оценку вдвое.
+     */
+    @Autowired
+    public GalleryPriority(@Value("${iris.priority.max-size:1000}") final int maxSize,
+                           @Value("${iris.priority.half-life:1000}") final long halfLife) {
+        this.maxSize = maxSize;
+        this.halfLife = Math.max(halfLife, 1);
+    }
+
+    /**
+     * Remembers the matched person.
+     * Запоминает найденного человека.
+     *
+     * @param personId the id of the person, {@code null} is skipped.
+     *                 id человека, {@code null} пропускается.
+     */
+    public final void matched(final Long personId) {
+        if (personId == null || maxSize <= 0) {
+            return;
+        }
+        long now = clock.incrementAndGet();
+        AtomicReference<Score> score = scores.get(personId);
+        if (score == null) {
+            AtomicReference<Score> created = new AtomicReference<>(new Score(0, now));
+            score = scores.putIfAbsent(personId, created);
+            if (score == null) {
+                score = created;
+            }
+        }
+
+        Score current;
+        do {
+            current = score.get();
+        } while (!score.compareAndSet(current, new Score(current.at(now, halfLife) + 1, now)));
+
+        // The cold persons are trimmed in bulk, by one thread at a time.
+        // Наименее встречающиеся люди удаляются пачкой, одним потоком за раз.
+        if (scores.size() > 2 * maxSize && trimming.compareAndSet(false, true)) {
+            try {
+                List<Long> coldest = order(now);
+                for (int i = maxSize; i < coldest.size(); i++) {
+                    scores.remove(coldest.get(i));
+                }
+            } finally {
+                trimming.set(false);
+            }
+        }
+    }
+
+    /**
+     * Returns the persons to scan first.
+     * Возвращает людей, просматриваемых первыми.
+     *
+     * @return the ids of the hottest persons from the hottest one.
+     *         id наиболее часто встречающихся людей, начиная с самого частого.
+     */
+    public final List<Long> first() {
+        List<Long> order = order(clock.get());
+        return order.size() > maxSize ? new ArrayList<>(order.subList(0, maxSize)) : order;
+    }
+
+    /**
+     * Forgets the removed persons.
+     * Забывает удаленных людей.
+     *
+     * @param event the event of the gallery change.
+     *              событие изменения галереи.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGalleryChanged(final GalleryChangedEvent event) {
+        for (Long personId : event.getRemovedPersonIds()) {
+            scores.remove(personId);
+        }
+    }
+
+    /**
+     * Registers the number of the remembered persons.
+     * Регистрирует количество запомненных людей.
+     *
+     * @param registry a registry of the metrics.
+     *                 реестр метрик.
+     */
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("iris.priority.size", scores, map -> map.size())
+                .description("The persons remembered by the hot-first gallery order")
+                .register(registry);
+    }
+
+    /**
+     * Sorts the remembered persons by their score.
+     * Сортирует запомненных людей по их оценке.
+     *
+     * @param now the current time of the logical clock.
+     *            текущее время логических часов.
+     * @return the ids of the persons from the hottest one.
+     *         id людей, начиная с самого частого.
+     */
+    private List<Long> order(final long now) {
+        List<Map.Entry<Long, Double>> snapshot = new ArrayList<>(scores.size());
+        for (Map.Entry<Long, AtomicReference<Score>> entry : scores.entrySet()) {
+            snapshot.add(new AbstractMap.SimpleImmutableEntry<>(
+                    entry.getKey(), entry.getValue().get().at(now, halfLife)));
+        }
+        snapshot.sort((left, right) -> Double.compare(right.getValue(), left.getValue()));
+
+        List<Long> result = new ArrayList<>(snapshot.size());
+        for (Map.Entry<Long, Double> entry : snapshot) {
+            result.add(entry.getKey());
+        }
+        return result;
+    }
+
+    /**
+     * The decaying score of a person.
+     * Затухающая оценка человека.
+     */
+    private static final class Score {
+        /**
+         * The score at the time of the last match.
+         * Оценка на момент последнего совпадения.
+         */
+        private final double value;
+
+        /**
+         * The time of the last match by the logical clock.
+         * Время последнего совпадения по логическим часам.
+         */
+        private final long time;
+
+        /**
+         * Constructs an instance with the specified properties.
+         * Создает экземпляр с указанными свойствами.
+         *
+         * @param value the score at the time of the last match.
+         *              оценка на момент последнего совпадения.
+         * @param time  the time of the last match by the logical clock.
+         *              время последнего совпадения по логическим часам.
+         */
+        private Score(final double value, final long time) {
+            this.value = value;
+            this.time = time;
+        }
+
+        /**
+         * Returns the score decayed to the time.
+         * Возвращает оценку, затухшую к моменту времени.
+         *
+         * @param now      the time by the logical clock.
+         *                 время по логическим часам.
+         * @param halfLife the number of the matches that halves a score.
+         *                 количество совпадений, уменьшающее оценку вдвое.
+         * @return the decayed score.
+         *         затухшая оценка.
+         */
+        private double at(final long now, final double halfLife) {
+            return now <= time ? value : value * Math.pow(0.5, (now - time) / halfLife);
+        }
+    }
+}
@@ -4,14 +4,22 @@ import org.flywaydb.core.internal.util.Pair;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import ru.smirnovv.BatchItem;
+import ru.smirnovv.PartialResult;
 import ru.smirnovv.person.Person;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.springframework.util.Assert.notNull;
 
@@ -53,8 +61,8 @@ public class IrisRecognitionController {
      *                      подтверждение аутентификации пользователя.
      */
     @PutMapping(headers = "personId", consumes = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE})
-    public final Boolean authorize(@RequestHeader final long personId,
-                                   @RequestBody final byte[] irisImage) {
+    public final CompletableFuture<Boolean> authorize(@RequestHeader final long personId,
+                                                      @RequestBody final byte[] irisImage) {
         return irisRecognitionService.authorize(personId, irisImage);
     }
 
@@ -68,10 +76,48 @@ public class IrisRecognitionController {
      *         найденный человек.
      */
     @PutMapping(consumes = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE})
-    public final Person identify(@RequestBody final byte[] irisImage) {
+    public final CompletableFuture<Person> identify(@RequestBody final byte[] irisImage) {
         return irisRecognitionService.identify(irisImage);
     }
 
+    /**
+     * Identify the person within the latency budget.
+     * Производит идентификацию человека в пределах бюджета времени.
+     *
+     * @param budget    the latency budget in milliseconds.
+     *                  бюджет времени в миллисекундах.
+     * @param irisImage the image of the iris.
+     *                  изображение РОГ.
+     * @return the found person and the scanned fraction of the gallery.
+     *         найденный человек и просмотренная доля галереи.
+     */
+    @PutMapping(params = "budget", consumes = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE})
+    public final CompletableFuture<PartialResult<Person>> identify(@RequestParam final long budget,
+                                                                   @RequestBody final byte[] irisImage) {
+        return irisRecognitionService.identify(irisImage, budget);
+    }
+
+    /**
+     * Identify the persons of several irises in one pass over the gallery.
+     * Производит идентификацию людей по нескольким РОГ за один проход по галерее.
+     *
+     * @param irisImages the images of the irises.
+     *                   изображения РОГ.
+     * @return the found persons or the failures in the order of the images.
+     *         найденные люди или ошибки в порядке изображений.
+     * @throws IOException is thrown when an image can not be read.
+     *                     данное исключение, выбрасывается если изображение не читается.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public final CompletableFuture<List<BatchItem<Person>>> identifyAll(
+            @RequestParam("image") final List<MultipartFile> irisImages) throws IOException {
+        List<byte[]> images = new ArrayList<>(irisImages.size());
+        for (MultipartFile irisImage : irisImages) {
+            images.add(irisImage.getBytes());
+        }
+        return irisRecognitionService.identifyAll(images);
+    }
+
     /**
      * Finds people with the most appropriate iris.
      * Находит людей с наиболее схожим РОГ.
@@ -82,7 +128,24 @@ public class IrisRecognitionController {
      *         список найденных людей.
      */
     @GetMapping(consumes = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE})
-    public final List<Pair<Person, Double>> find(@RequestBody final byte[] irisImage) {
+    public final CompletableFuture<List<Pair<Person, Double>>> find(@RequestBody final byte[] irisImage) {
         return irisRecognitionService.find(irisImage);
     }
+
+    /**
+     * Finds people with the most appropriate iris within the latency budget.
+     * Находит людей с наиболее схожим РОГ в пределах бюджета времени.
+     *
+     * @param budget    the latency budget in milliseconds.
+     *                  бюджет времени в миллисекундах.
+     * @param irisImage the image of the iris.
+     *                  изображение РОГ.
+     * @return the persons found so far and the scanned fraction of the gallery.
+     *         найденные к этому моменту люди и просмотренная доля галереи.
+     */
+    @GetMapping(params = "budget", consumes = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE})
+    public final CompletableFuture<PartialResult<List<Pair<Person, Double>>>> find(
+            @RequestParam final long budget, @RequestBody final byte[] irisImage) {
+        return irisRecognitionService.find(irisImage, budget);
+    }
 }
@@ -3,11 +3,30 @@ package ru.smirnovv.index;
 import org.flywaydb.core.internal.util.Pair;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import ru.smirnovv.BadRequestException;
+import ru.smirnovv.BatchItem;
+import ru.smirnovv.PartialResult;
+import ru.smirnovv.index.cache.ProbeCache;
 import ru.smirnovv.index.irisRecognition.IrisRecognition;
+import ru.smirnovv.index.pipeline.MatchBatcher;
+import ru.smirnovv.index.pipeline.RecognitionPipeline;
+import ru.smirnovv.iris.GalleryEntry;
 import ru.smirnovv.iris.IrisRepository;
+import ru.smirnovv.iris.irisDetection.IrisTemplate;
+import ru.smirnovv.monitoring.ServerTiming;
 import ru.smirnovv.person.Person;
+import ru.smirnovv.person.PersonRepository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 /**
  * A service that manages iris recognition.
@@ -21,26 +40,90 @@ public class IrisRecognitionService {
      */
     private final IrisRepository irisRepository;
 
+    /**
+     * A repository that manages registered in the system persons.
+     * Репозиторий, управляющий зарегистрированными людьми.
+     */
+    private final PersonRepository personRepository;
+
+    /**
+     * A class that scans registered irises in constant memory.
+     * Класс, просматривающий зарегистрированные РОГ в постоянном объеме памяти.
+     */
+    private final Gallery gallery;
+
     /**
      * A class that provides iris recognition.
      * Класс, обеспечивающий распознавание радужной оболочки.
      */
     private final IrisRecognition irisRecognition;
 
+    /**
+     * The hot-first order in which the identifications visit the persons.
+     * Порядок, в котором идентификации посещают людей, часто встречающиеся первыми.
+     */
+    private final GalleryPriority galleryPriority;
+
+    /**
+     * A class that caches probe templates and match results.
+     * Класс, кэширующий шаблоны и результаты сравнения.
+     */
+    private final ProbeCache probeCache;
+
+    /**
+     * A class that runs iris recognition in stages.
+     * Класс, выполняющий распознавание РОГ по этапам.
+     */
+    private final RecognitionPipeline pipeline;
+
+    /**
+     * A batcher of concurrent identifications.
+     * Пакетировщик одновременных идентификаций.
+     */
+    private final MatchBatcher<Person> identifyBatcher;
+
+    /**
+     * A batcher of concurrent searches.
+     * Пакетировщик одновременных поисков.
+     */
+    private final MatchBatcher<List<Pair<Person, Double>>> findBatcher;
+
     /**
      * Constructs an instance with injected dependencies.
      * Создает экземпляр с внедренными зависимостями.
      *
-     * @param irisRepository  a repository that manages registered in the system irises.
-     *                        репозиторий, управляющий зарегистрированными РОГ.
-     * @param irisRecognition a class that provides iris recognition.
-     *                        класс, обеспечивающий распознавание радужной оболочки.
+     * @param irisRepository   a repository that manages registered in the system irises.
+     *                         репозиторий, управляющий зарегистрированными РОГ.
+     * @param personRepository a repository that manages registered in the system persons.
+     *                         репозиторий, управляющий зарегистрированными людьми.
+     * @param gallery          a class that scans registered irises in constant memory.
+     *                         класс, просматривающий зарегистрированные РОГ в постоянном объеме памяти.
+     * @param irisRecognition  a class that provides iris recognition.
+     *                         класс, обеспечивающий распознавание радужной оболочки.
+     * @param galleryPriority  the hot-first order in which the identifications visit the persons.
+     *                         порядок, в котором идентификации посещают людей, часто встречающиеся первыми.
+     * @param probeCache       a class that caches probe templates and match results.
+     *                         класс, кэширующий шаблоны и результаты сравнения.
+     * @param pipeline         a class that runs iris recognition in stages.
+     *                         класс, выполняющий распознавание РОГ по этапам.
      */
     @Autowired
     public IrisRecognitionService(IrisRepository irisRepository,
-                                  IrisRecognition irisRecognition) {
+                                  PersonRepository personRepository,
+                                  Gallery gallery,
+                                  IrisRecognition irisRecognition,
+                                  GalleryPriority galleryPriority,
+                                  ProbeCache probeCache,
+                                  RecognitionPipeline pipeline) {
         this.irisRepository = irisRepository;
+        this.personRepository = personRepository;
+        this.gallery = gallery;
         this.irisRecognition = irisRecognition;
+        this.galleryPriority = galleryPriority;
+        this.probeCache = probeCache;
+        this.pipeline = pipeline;
+        this.identifyBatcher = pipeline.batcher((probes, matched) -> identifyInGallery(probes, matched));
+        this.findBatcher = pipeline.batcher((probes, matched) -> findInGallery(probes));
     }
 
     /**
@@ -52,8 +135,92 @@ public class IrisRecognitionService {
      * @return the found person.
      *         найденный человек.
      */
-    public final Person identify(byte[] irisImage) {
-        return irisRecognition.identify(irisRepository.findAll(), irisImage);
+    public final CompletableFuture<Person> identify(byte[] irisImage) {
+        String key = probeCache.key(irisImage);
+        return probeCache.result("identify", key,
+                () -> identifyBatcher.match(template(key, irisImage)));
+    }
+
+    /**
+     * Identify the person within the latency budget, the hot persons are scanned first.
+     * Производит идентификацию человека в пределах бюджета времени, часто встречающиеся люди просматриваются первыми.
+     *
+     * @param irisImage the image of the iris.
+     *                  изображение РОГ.
+     * @param budget    the latency budget in milliseconds, the detection included.
+     *                  бюджет времени в миллисекундах, включая детектирование.
+     * @return the found person and the scanned fraction of the gallery.
+     *         найденный человек и просмотренная доля галереи.
+     * @throws BadRequestException is thrown when the budget is not positive.
+     *                             данное исключение, выбрасывается если бюджет не положительный.
+     */
+    public final CompletableFuture<PartialResult<Person>> identify(final byte[] irisImage, final long budget)
+            throws BadRequestException {
+        long deadline = deadline(budget);
+        return pipeline.match(template(probeCache.key(irisImage), irisImage), iris -> {
+            PartialResult<Long> found = ServerTiming.time(ServerTiming.Metric.SCAN,
+                    () -> gallery.scan(galleryPriority.first(),
+                            (irises, total) -> irisRecognition.identify(irises, total, iris, deadline)));
+            galleryPriority.matched(found.getResult());
+
+            Map<Long, Person> persons = persons(Collections.singleton(found.getResult()));
+            return found.map(personId -> personId == null ? null : persons.get(personId));
+        });
+    }
+
+    /**
+     * Finds people with the most appropriate iris within the latency budget.
+     * Находит людей с наиболее схожим РОГ в пределах бюджета времени.
+     *
+     * @param irisImage the image of the iris.
+     *                  изображение РОГ.
+     * @param budget    the latency budget in milliseconds, the detection included.
+     *                  бюджет времени в миллисекундах, включая детектирование.
+     * @return the persons found so far and the scanned fraction of the gallery.
+     *         найденные к этому моменту люди и просмотренная доля галереи.
+     * @throws BadRequestException is thrown when the budget is not positive.
+     *                             данное исключение, выбрасывается если бюджет не положительный.
+     */
+    public final CompletableFuture<PartialResult<List<Pair<Person, Double>>>> find(final byte[] irisImage,
+                                                                                 final long budget)
+            throws BadRequestException {
+        long deadline = deadline(budget);
+        return pipeline.match(template(probeCache.key(irisImage), irisImage), iris -> {
+            PartialResult<List<Pair<Long, Double>>> found = ServerTiming.time(ServerTiming.Metric.SCAN,
+                    () -> gallery.scan(galleryPriority.first(),
+                            (irises, total) -> irisRecognition.find(irises, total, iris, deadline)));
+
+            List<Long> personIds = new ArrayList<>();
+            for (Pair<Long, Double> pair : found.getResult()) {
+                personIds.add(pair.getLeft());
+            }
+            Map<Long, Person> persons = persons(personIds);
+            return found.map(match -> {
+                List<Pair<Person, Double>> result = new ArrayList<>(match.size());
+                for (Pair<Long, Double> pair : match) {
+                    result.add(Pair.of(persons.get(pair.getLeft()), pair.getRight()));
+                }
+                return result;
+            });
+        });
+    }
+
+    /**
+     * Converts the latency budget to the deadline.
+     * Преобразует бюджет времени в крайний срок.
+     *
+     * @param budget the latency budget in milliseconds.
+     *               бюджет времени в миллисекундах.
+     * @return the deadline by {@link System#nanoTime()}.
+     *         крайний срок по {@link System#nanoTime()}.
+     * @throws BadRequestException is thrown when the budget is not positive.
+     *                             данное исключение, выбрасывается если бюджет не положительный.
+     */
+    private static long deadline(final long budget) throws BadRequestException {
+        if (budget < 1) {
+            throw new BadRequestException("The budget must be positive.");
+        }
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget);
     }
 
     /**
@@ -67,8 +234,16 @@ public class IrisRecognitionService {
      * @return {@code true} if authorization succeeded or not.
      *                      подтверждение аутентификации пользователя.
      */
-    public final Boolean authorize(final long personId, final byte[] irisImage) {
-        return irisRecognition.authorize(irisRepository.findAllByPersonId(personId), irisImage);
+    public final CompletableFuture<Boolean> authorize(final long personId, final byte[] irisImage) {
+        String key = probeCache.key(irisImage);
+        return probeCache.result("authorize/" + personId, key,
+                () -> pipeline.match(template(key, irisImage),
+                        iris -> {
+                            List<GalleryEntry> irises = ServerTiming.time(ServerTiming.Metric.DB,
+                                    () -> irisRepository.findGalleryByPersonId(personId));
+                            return ServerTiming.time(ServerTiming.Metric.SCAN,
+                                    () -> irisRecognition.authorize(irises, iris));
+                        }));
     }
 
     /**
@@ -80,7 +255,170 @@ public class IrisRecognitionService {
      * @return the found persons.
      *         список найденных людей.
      */
-    public final List<Pair<Person, Double>> find(final byte[] irisImage) {
-        return irisRecognition.find(irisRepository.findAll(), irisImage);
+    public final CompletableFuture<List<Pair<Person, Double>>> find(final byte[] irisImage) {
+        String key = probeCache.key(irisImage);
+        return probeCache.result("find", key,
+                () -> findBatcher.match(template(key, irisImage)));
+    }
+
+    /**
+     * Identify the persons of several irises in one pass over the gallery.
+     * Производит идентификацию людей по нескольким РОГ за один проход по галерее.
+     *
+     * @param irisImages the images of the irises.
+     *                   изображения РОГ.
+     * @return the found persons or the failures in the order of the images.
+     *         найденные люди или ошибки в порядке изображений.
+     */
+    public final CompletableFuture<List<BatchItem<Person>>> identifyAll(final List<byte[]> irisImages) {
+        // A failed image does not fail the others.
+        // Ошибка одного изображения не прерывает остальные.
+        List<CompletableFuture<BatchItem<IrisTemplate>>> templates = new ArrayList<>(irisImages.size());
+        for (int i = 0; i < irisImages.size(); i++) {
+            final int index = i;
+            byte[] irisImage = irisImages.get(i);
+            templates.add(template(probeCache.key(irisImage), irisImage).handle((template, exception)
+                    -> exception == null ? BatchItem.success(index, template) : BatchItem.failure(index, exception)));
+        }
+
+        return pipeline.match(CompletableFuture.allOf(templates.toArray(new CompletableFuture<?>[0])), done -> {
+            List<IrisTemplate> probes = new ArrayList<>();
+            for (CompletableFuture<BatchItem<IrisTemplate>> template : templates) {
+                if (template.join().getResult() != null) {
+                    probes.add(template.join().getResult());
+                }
+            }
+
+            List<Person> persons = identifyInGallery(probes);
+
+            List<BatchItem<Person>> items = new ArrayList<>(templates.size());
+            int next = 0;
+            for (CompletableFuture<BatchItem<IrisTemplate>> template : templates) {
+                BatchItem<IrisTemplate> item = template.join();
+                items.add(item.getResult() != null
+                        ? BatchItem.success(item.getIndex(), persons.get(next++))
+                        : new BatchItem<>(item.getIndex(), item.getStatus(), null, item.getMessage()));
+            }
+            return items;
+        });
+    }
+
+    /**
+     * Identify the persons of the templates in one pass over the gallery.
+     * Производит идентификацию людей по шаблонам за один проход по галерее.
+     *
+     * @param probes the templates of the irises.
+     *               шаблоны РОГ.
+     * @return the found persons in the order of the templates, {@code null} if not found.
+     *         найденные люди в порядке шаблонов, {@code null} если не найден.
+     */
+    private List<Person> identifyInGallery(final List<IrisTemplate> probes) {
+        return identifyInGallery(probes, null);
+    }
+
+    /**
+     * Identify the persons of the templates in one pass over the gallery, each found person is published
+     * as soon as its template matches.
+     * Производит идентификацию людей по шаблонам за один проход по галерее, каждый найденный человек
+     * публикуется, как только его шаблон совпал.
+     *
+     * @param probes  the templates of the irises.
+     *                шаблоны РОГ.
+     * @param matched the callback that receives the index of the template and the found person or {@code null}.
+     *                обратный вызов, получающий индекс шаблона и найденного человека, или {@code null}.
+     * @return the found persons in the order of the templates, {@code null} if not found.
+     *         найденные люди в порядке шаблонов, {@code null} если не найден.
+     */
+    private List<Person> identifyInGallery(final List<IrisTemplate> probes, final BiConsumer<Integer, Person> matched) {
+        // The hot persons go first, so the scan for a frequent visitor stops early.
+        // Часто встречающиеся люди идут первыми, поэтому просмотр для постоянного посетителя завершается рано.
+        BiConsumer<Integer, Long> found = (index, personId) -> {
+            if (matched != null) {
+                matched.accept(index, persons(Collections.singleton(personId)).get(personId));
+            }
+        };
+        List<Long> personIds = ServerTiming.time(ServerTiming.Metric.SCAN,
+                () -> gallery.scan(galleryPriority.first(), irises -> irisRecognition.identify(irises, probes, found)));
+
+        for (Long personId : personIds) {
+            galleryPriority.matched(personId);
+        }
+
+        Map<Long, Person> persons = persons(personIds);
+        List<Person> result = new ArrayList<>(personIds.size());
+        for (Long personId : personIds) {
+            result.add(personId == null ? null : persons.get(personId));
+        }
+        return result;
+    }
+
+    /**
+     * Finds people with the most appropriate iris for the templates in one pass over the gallery.
+     * Находит людей с наиболее схожим РОГ для шаблонов за один проход по галерее.
+     *
+     * @param probes the templates of the irises.
+     *               шаблоны РОГ.
+     * @return the found persons in the order of the templates.
+     *         списки найденных людей в порядке шаблонов.
+     */
+    private List<List<Pair<Person, Double>>> findInGallery(final List<IrisTemplate> probes) {
+        List<List<Pair<Long, Double>>> matches = ServerTiming.time(ServerTiming.Metric.SCAN,
+                () -> gallery.scan(irises -> irisRecognition.find(irises, probes)));
+
+        List<Long> personIds = new ArrayList<>();
+        for (List<Pair<Long, Double>> match : matches) {
+            for (Pair<Long, Double> pair : match) {
+                personIds.add(pair.getLeft());
+            }
+        }
+
+        Map<Long, Person> persons = persons(personIds);
+        List<List<Pair<Person, Double>>> result = new ArrayList<>(matches.size());
+        for (List<Pair<Long, Double>> match : matches) {
+            List<Pair<Person, Double>> found = new ArrayList<>(match.size());
+            for (Pair<Long, Double> pair : match) {
+                found.add(Pair.of(persons.get(pair.getLeft()), pair.getRight()));
+            }
+            result.add(found);
+        }
+        return result;
+    }
+
+    /**
+     * Loads only the matched persons, the gallery itself is read without them.
+     * Загружает только найденных людей, сама галерея читается без них.
+     *
+     * @param personIds the ids of the persons, {@code null} is skipped.
+     *                  id людей, {@code null} пропускается.
+     * @return the persons by id.
+     *         люди по id.
+     */
+    private Map<Long, Person> persons(final Collection<Long> personIds) {
+        Collection<Long> ids = new HashSet<>(personIds);
+        ids.remove(null);
+
+        Map<Long, Person> persons = new HashMap<>();
+        if (!ids.isEmpty()) {
+            List<Person> found = ServerTiming.time(ServerTiming.Metric.DB, () -> personRepository.findAllById(ids));
+            for (Person person : found) {
+                persons.put(person.getId(), person);
+            }
+        }
+        return persons;
+    }
+
+    /**
+     * Returns the cached template of the iris or creates it.
+     * Возвращает кэшированный шаблон РОГ или создает его.
+     *
+     * @param key       the key of the image.
+     *                  ключ изображения.
+     * @param irisImage the image of the iris.
+     *                  изображение РОГ.
+     * @return the template of the iris.
+     *         шаблон РОГ.
+     */
+    private CompletableFuture<IrisTemplate> template(final String key, final byte[] irisImage) {
+        return probeCache.template(key, irisImage, pipeline::createIrisTemplate);
     }
 }
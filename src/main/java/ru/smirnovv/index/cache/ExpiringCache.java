@@ -0,0 +1,204 @@
+package ru.smirnovv.index.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache that evicts the least recently used and the expired entries.
+ * Ограниченный кэш, вытесняющий давно неиспользуемые и устаревшие записи.
+ *
+ * @param <K> the type of keys.
+ *            тип ключей.
+ * @param <V> the type of values.
+ *            тип значений.
+ */
+public class ExpiringCache<K, V> {
+    /**
+     * The maximum number of entries.
+     * Максимальное количество записей.
+     */
+    private final int maxSize;
+
+    /**
+     * The time to live of an entry in milliseconds.
+     * Время жизни записи в миллисекундах.
+     */
+    private final long ttl;
+
+    /**
+     * Entries in the access order.
+     * Записи в порядке обращения.
+     */
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    /**
+     * The number of the lookups that found a value.
+     * Количество поисков, нашедших значение.
+     */
+    private long hits;
+
+    /**
+     * The number of the lookups that found nothing.
+     * Количество поисков, не нашедших значения.
+     */
+    private long misses;
+
+    /**
+     * Constructs an instance with the specified properties.
+     * Создает экземпляр с указанными свойствами.
+     *
+     * @param maxSize the maximum number of entries.
+     *                максимальное количество записей.
+     * @param ttl     the time to live of an entry in milliseconds.
+     *                время жизни записи в миллисекундах.
+     */
+    public ExpiringCache(final int maxSize, final long ttl) {
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, Entry<V>> eldest) {
+                return size() > ExpiringCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns {@code true} if the cache stores anything.
+     * Возвращает {@code true}, если кэш что-либо хранит.
+     *
+     * @return {@code true} if the cache is enabled.
+     *         {@code true}, если кэш включен.
+     */
+    public final boolean isEnabled() {
+        return maxSize > 0 && ttl > 0;
+    }
+
+    /**
+     * Returns the value by the key if it is present and not expired.
+     * Возвращает значение по ключу, если оно есть и не устарело.
+     *
+     * @param key the key.
+     *            ключ.
+     * @return the value or {@code null}.
+     *         значение или {@code null}.
+     */
+    public final synchronized V get(final K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.expires < System.currentTimeMillis()) {
+            entries.remove(key);
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Stores the value by the key.
+     * Сохраняет значение по ключу.
+     *
+     * @param key   the key.
+     *              ключ.
+     * @param value the value.
+     *              значение.
+     */
+    public final synchronized void put(final K key, final V value) {
+        if (!isEnabled() || value == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        entries.put(key, new Entry<>(value, now + ttl));
+
+        // The least recently used entries are the most likely to have expired.
+        // Давно неиспользуемые записи скорее всего устарели.
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expires >= now) {
+                break;
+            }
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Removes all entries.
+     * Удаляет все записи.
+     */
+    public final synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the number of the entries.
+     * Возвращает количество записей.
+     *
+     * @return the number of the entries.
+     *         количество записей.
+     */
+    public final synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of the lookups that found a value.
+     * Возвращает количество поисков, нашедших значение.
+     *
+     * @return the number of the hits.
+     *         количество попаданий.
+     */
+    public final synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of the lookups that found nothing.
+     * Возвращает количество поисков, не нашедших значения.
+     *
+     * @return the number of the misses.
+     *         количество промахов.
+     */
+    public final synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * A cached value with its expiration time.
+     * Кэшированное значение со временем устаревания.
+     *
+     * @param <V> the type of the value.
+     *            тип значения.
+     */
+    private static final class Entry<V> {
+        /**
+         * The value.
+         * Значение.
+         */
+        private final V value;
+
+        /**
+         * The expiration time in milliseconds.
+         * Время устаревания в миллисекундах.
+         */
+        private final long expires;
+
+        /**
+         * Constructs an instance with the specified properties.
+         * Создает экземпляр с указанными свойствами.
+         *
+         * @param value   the value.
+         *                значение.
+         * @param expires the expiration time in milliseconds.
+         *                время устаревания в миллисекундах.
+         */
+        private Entry(final V value, final long expires) {
+            this.value = value;
+            this.expires = expires;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package ru.smirnovv.index.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.smirnovv.GalleryChangedEvent;
+import ru.smirnovv.InternalServerException;
+import ru.smirnovv.iris.irisDetection.IrisTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A class that caches probe templates and match results by the content of the probe image.
+ * Класс, кэширующий шаблоны и результаты сравнения по содержимому изображения.
+ */
+@Component
+public class ProbeCache implements MeterBinder {
+    /**
+     * Hexadecimal digits.
+     * Шестнадцатеричные цифры.
+     */
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * The cached {@code null} result, since the cache does not store {@code null}.
+     * Кэшированный результат {@code null}, так как кэш не хранит {@code null}.
+     */
+    private static final Object NONE = new Object();
+
+    /**
+     * Templates by the hash of the image.
+     * Шаблоны по хэшу изображения.
+     */
+    private final ExpiringCache<String, IrisTemplate> templates;
+
+    /**
+     * Match results by the operation and the hash of the image.
+     * Результаты сравнения по операции и хэшу изображения.
+     */
+    private final ExpiringCache<String, Object> results;
+
+    /**
+     * The number of gallery changes, a result computed before a change is not stored.
+     * Количество изменений галереи, результат вычисленный до изменения не сохраняется.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Constructs an instance with injected properties.
+     * Создает экземпляр с внедренными настройками.
+     *
+     * @param maxSize     the maximum number of cached templates and results.
+     *                    максимальное количество кэшированных шаблонов и результатов.
+     * @param templateTtl the time to live of a template in milliseconds, {@code 0} disables the cache.
+     *                    время жизни шаблона в миллисекундах, {@code 0} отключает кэш.
+     * @param resultTtl   the time to live of a result in milliseconds, {@code 0} disables the cache.
+     *                    время жизни результата в миллисекундах, {@code 0} отключает кэш.
+     */
+    @Autowired
+    public ProbeCache(@Value("${iris.cache.max-size:256}") final int maxSize,
+                      @Value("${iris.cache.template-ttl:60000}") final long templateTtl,
+                      @Value("${iris.cache.result-ttl:5000}") final long resultTtl) {
+        this.templates = new ExpiringCache<>(maxSize, templateTtl);
+        this.results = new ExpiringCache<>(maxSize, resultTtl);
+    }
+
+    /**
+     * Returns the key of the image.
+     * Возвращает ключ изображения.
+     *
+     * @param image the image.
+     *              изображение.
+     * @return the hexadecimal SHA-256 of the image.
+     *         шестнадцатеричный SHA-256 изображения.
+     */
+    public String key(final byte[] image) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(image);
+            char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hex[2 * i] = HEX[(digest[i] >> 4) & 0xF];
+                hex[2 * i + 1] = HEX[digest[i] & 0xF];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new InternalServerException(exception.getMessage());
+        }
+    }
+
+    /**
+     * Returns the cached template of the image or creates it.
+     * Возвращает кэшированный шаблон изображения или создает его.
+     *
+     * @param key      the key of the image.
+     *                 ключ изображения.
+     * @param image    the image.
+     *                 изображение.
+     * @param detector the function that creates the template.
+     *                 функция, создающая шаблон.
+     * @return the template.
+     *         шаблон.
+     */
+    public CompletableFuture<IrisTemplate> template(final String key, final byte[] image,
+                                                    final Function<byte[], CompletableFuture<IrisTemplate>> detector) {
+        IrisTemplate template = templates.get(key);
+        if (template != null) {
+            return CompletableFuture.completedFuture(template);
+        }
+        CompletableFuture<IrisTemplate> future = detector.apply(image);
+        future.thenAccept(created -> templates.put(key, created));
+        return future;
+    }
+
+    /**
+     * Returns the cached result of the operation or computes it.
+     * A {@code null} result, such as an unknown iris, is cached as well.
+     * Возвращает кэшированный результат операции или вычисляет его.
+     * Результат {@code null}, например неизвестная РОГ, также кэшируется.
+     *
+     * @param operation the operation, including its parameters.
+     *                  операция, включая ее параметры.
+     * @param key       the key of the image.
+     *                  ключ изображения.
+     * @param matcher   the function that computes the result.
+     *                  функция, вычисляющая результат.
+     * @param <T>       the type of the result.
+     *                  тип результата.
+     * @return the result.
+     *         результат.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> result(final String operation, final String key,
+                                           final Supplier<CompletableFuture<T>> matcher) {
+        if (!results.isEnabled()) {
+            return matcher.get();
+        }
+        String resultKey = operation + ':' + key;
+        Object result = results.get(resultKey);
+        if (result != null) {
+            return CompletableFuture.completedFuture(result == NONE ? null : (T) result);
+        }
+        long before = generation.get();
+        CompletableFuture<T> future = matcher.get();
+        future.thenAccept(computed -> {
+            synchronized (generation) {
+                if (generation.get() == before) {
+                    results.put(resultKey, computed == null ? NONE : computed);
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Registers the hits, misses and sizes of the caches.
+     * Регистрирует попадания, промахи и размеры кэшей.
+     *
+     * @param registry a registry of the metrics.
+     *                 реестр метрик.
+     */
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        bind(registry, "template", templates);
+        bind(registry, "result", results);
+    }
+
+    /**
+     * Registers the hits, misses and size of the cache.
+     * Регистрирует попадания, промахи и размер кэша.
+     *
+     * @param registry a registry of the metrics.
+     *                 реестр метрик.
+     * @param name     the name of the cache.
+     *                 название кэша.
+     * @param cache    the cache.
+     *                 кэш.
+     */
+    private static void bind(final MeterRegistry registry, final String name, final ExpiringCache<?, ?> cache) {
+        FunctionCounter.builder("iris.cache.gets", cache, ExpiringCache::getHits)
+                .description("The lookups in the probe cache")
+                .tags("cache", name, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("iris.cache.gets", cache, ExpiringCache::getMisses)
+                .description("The lookups in the probe cache")
+                .tags("cache", name, "result", "miss")
+                .register(registry);
+        Gauge.builder("iris.cache.size", cache, ExpiringCache::size)
+                .description("The entries in the probe cache")
+                .tag("cache", name)
+                .register(registry);
+    }
+
+    /**
+     * Drops the cached results, since they may refer to removed irises or persons.
+     * Удаляет кэшированные результаты, так как они могут ссылаться на удаленные РОГ или людей.
+     *
+     * @param event the event.
+     *              событие.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGalleryChanged(final GalleryChangedEvent event) {
+        synchronized (generation) {
+            generation.incrementAndGet();
+            results.clear();
+        }
+    }
+}
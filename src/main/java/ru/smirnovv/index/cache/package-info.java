@@ -0,0 +1,5 @@
+/**
+ * The package containing classes that cache results of iris recognition.
+ * Пакет, содержащий классы, кэширующие результаты распознавания РОГ.
+ */
+package ru.smirnovv.index.cache;
@@ -1,5 +1,6 @@
 package ru.smirnovv.index.irisRecognition.GaborRecognition;
 
+import org.opencv.core.Core;
 import org.opencv.core.Mat;
 import org.opencv.imgproc.Imgproc;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,6 +8,7 @@ import org.springframework.stereotype.Component;
 import ru.smirnovv.index.irisRecognition.GaborRecognition.compare.HammingDistanceCompare;
 import ru.smirnovv.index.irisRecognition.GaborRecognition.compare.IrisCodeCompare;
 import ru.smirnovv.index.irisRecognition.IrisCompare;
+import ru.smirnovv.iris.irisDetection.IrisTemplate;
 
 /**
  * A class that provides iris comparison.
@@ -60,6 +62,18 @@ public class GaborCompare extends IrisCompare {
         this.threshold = threshold;
     }
 
+    /**
+     * Returns the identification threshold.
+     * Возвращает порог идентификации.
+     *
+     * @return the identification threshold.
+     *         порог идентификации.
+     */
+    @Override
+    public double getThreshold() {
+        return threshold;
+    }
+
     /**
      * Creates a parameterized image of iris.
      * Создает параметризованное изображение РОГ.
@@ -89,6 +103,48 @@ public class GaborCompare extends IrisCompare {
      *         процент совпадения РОГ.
      */
     public double compare(final Mat irisImage, final Mat irisTemplate) {
+        return compare(irisImage, null, irisTemplate, null);
+    }
+
+    /**
+     * Compares the iris, occluded pixels are skipped.
+     * Производит сравнение РОГ, перекрытые пиксели пропускаются.
+     *
+     * @param iris     the normalized iris with the occlusion mask.
+     *                 нормализованный РОГ с маской перекрытий.
+     * @param template the normalized iris with the occlusion mask.
+     *                 нормализованный РОГ с маской перекрытий.
+     * @return the percent of coincidence of the iris.
+     *         процент совпадения РОГ.
+     */
+    @Override
+    public double compare(final IrisTemplate iris, final IrisTemplate template) {
+        // The masks are skipped if all pixels are valid.
+        // Маски пропускаются, если все пиксели корректны.
+        if (!iris.isMasked() && !template.isMasked()) {
+            return compare(iris.getImage(), null, template.getImage(), null);
+        }
+
+        return compare(iris.getImage(), iris.getMaskImage(), template.getImage(), template.getMaskImage());
+    }
+
+    /**
+     * Compares the iris with the masks.
+     * Производит сравнение РОГ с масками.
+     *
+     * @param irisImage    the image of the iris.
+     *                     изображение РОГ.
+     * @param irisMask     the mask of the iris or {@code null} if all pixels are valid.
+     *                     маска РОГ или {@code null}, если все пиксели корректны.
+     * @param irisTemplate the image of the iris.
+     *                     изображение РОГ.
+     * @param templateMask the mask of the template or {@code null} if all pixels are valid.
+     *                     маска шаблона или {@code null}, если все пиксели корректны.
+     * @return the percent of coincidence of the iris.
+     *         процент совпадения РОГ.
+     */
+    private double compare(final Mat irisImage, final Mat irisMask,
+                           final Mat irisTemplate, final Mat templateMask) {
         // Applies Gabor filters.
         // Применение фильтров Габора.
         Mat realPartOfIrisImage = parameterize(irisImage, gaborParameters.getRealKernel());
@@ -102,11 +158,14 @@ public class GaborCompare extends IrisCompare {
         Mat imShiftLeft = imPartOfIrisImage.clone();
         Mat realShiftRight = realPartOfIrisImage.clone();
         Mat imShiftRight = imPartOfIrisImage.clone();
+        Mat maskShiftLeft = irisMask;
+        Mat maskShiftRight = irisMask;
 
         // Searches matches.
         // Поиск совпадений.
-        double min = (irisCodeCompare.compare(realPartOfIrisImage, realPartOfIrisTemplate)
-                + irisCodeCompare.compare(imPartOfIrisImage, imPartOfIrisTemplate)) / 2;
+        Mat mask = combine(irisMask, templateMask);
+        double min = (irisCodeCompare.compare(realPartOfIrisImage, realPartOfIrisTemplate, mask)
+                + irisCodeCompare.compare(imPartOfIrisImage, imPartOfIrisTemplate, mask)) / 2;
 
         for (int i = 0; i < 2; ++i) {
             // Rotations iris.
@@ -115,17 +174,23 @@ public class GaborCompare extends IrisCompare {
             imShiftLeft = irisCodeCompare.shiftLeft(imShiftLeft);
             realShiftRight = irisCodeCompare.shiftRight(realShiftRight);
             imShiftRight = irisCodeCompare.shiftRight(imShiftRight);
+            if (irisMask != null) {
+                maskShiftLeft = irisCodeCompare.shiftLeft(maskShiftLeft);
+                maskShiftRight = irisCodeCompare.shiftRight(maskShiftRight);
+            }
 
             // Searches matches.
             // Поиск совпадений.
-            double result = (irisCodeCompare.compare(realShiftLeft, realPartOfIrisTemplate)
-                    + irisCodeCompare.compare(imShiftLeft, imPartOfIrisTemplate)) / 2;
+            mask = combine(maskShiftLeft, templateMask);
+            double result = (irisCodeCompare.compare(realShiftLeft, realPartOfIrisTemplate, mask)
+                    + irisCodeCompare.compare(imShiftLeft, imPartOfIrisTemplate, mask)) / 2;
             if (result < min) {
                 min = result;
             }
 
-            result = (irisCodeCompare.compare(realShiftRight, realPartOfIrisTemplate)
-                    + irisCodeCompare.compare(imShiftRight, imPartOfIrisTemplate)) / 2;
+            mask = combine(maskShiftRight, templateMask);
+            result = (irisCodeCompare.compare(realShiftRight, realPartOfIrisTemplate, mask)
+                    + irisCodeCompare.compare(imShiftRight, imPartOfIrisTemplate, mask)) / 2;
             if (result < min) {
                 min = result;
             }
@@ -134,6 +199,27 @@ public class GaborCompare extends IrisCompare {
         return min;
     }
 
+    /**
+     * Combines the masks of both irises.
+     * Объединяет маски обоих РОГ.
+     *
+     * @param irisMask     the mask of the iris or {@code null}.
+     *                     маска РОГ или {@code null}.
+     * @param templateMask the mask of the template or {@code null}.
+     *                     маска шаблона или {@code null}.
+     * @return the pixels valid in both masks or {@code null} if all pixels are valid.
+     *         пиксели, корректные в обеих масках, или {@code null}, если все пиксели корректны.
+     */
+    private Mat combine(final Mat irisMask, final Mat templateMask) {
+        if (irisMask == null || templateMask == null) {
+            return irisMask == null ? templateMask : irisMask;
+        }
+
+        Mat result = new Mat();
+        Core.bitwise_and(irisMask, templateMask, result);
+        return result;
+    }
+
     /**
      * Compares the iris to authorize a person.
      * Производит сравнение РОГ для авторизации человека.
@@ -148,4 +234,20 @@ public class GaborCompare extends IrisCompare {
     public boolean authorize(final Mat irisImage, final Mat irisTemplate) {
         return compare(irisImage, irisTemplate) < threshold;
     }
+
+    /**
+     * Compares the iris to authorize a person, occluded pixels are skipped.
+     * Производит сравнение РОГ для авторизации человека, перекрытые пиксели пропускаются.
+     *
+     * @param iris     the normalized iris with the occlusion mask.
+     *                 нормализованный РОГ с маской перекрытий.
+     * @param template the normalized iris with the occlusion mask.
+     *                 нормализованный РОГ с маской перекрытий.
+     * @return {@code true} if the iris coincided.
+     *                      подтверждение совпадения РОГ.
+     */
+    @Override
+    public boolean authorize(final IrisTemplate iris, final IrisTemplate template) {
+        return compare(iris, template) < threshold;
+    }
 }
@@ -33,4 +33,33 @@ public class CorrelationCompare extends IrisCodeCompare {
 
         return -1.0 * result.get(0, 0)[0];
     }
+
+    /**
+     * Compares the irisCode only where the mask is set.
+     * Производит сравнение irisCode только там, где установлена маска.
+     *
+     * @param iris     the irisCode.
+     *                 irisCode.
+     * @param template the irisCode.
+     *                 irisCode
+     * @param mask     the mask of valid pixels or {@code null} if all pixels are valid.
+     *                 маска корректных пикселей или {@code null}, если все пиксели корректны.
+     * @return the percent of coincidence of the iris.
+     * процент совпадения РОГ.
+     */
+    @Override
+    public double compare(final Mat iris, final Mat template, final Mat mask) {
+        if (mask == null) {
+            return compare(iris, template);
+        }
+
+        // Occluded pixels are zeroed in both images.
+        // Перекрытые пиксели обнуляются в обоих изображениях.
+        Mat maskedIris = Mat.zeros(iris.size(), iris.type());
+        Mat maskedTemplate = Mat.zeros(template.size(), template.type());
+        iris.copyTo(maskedIris, mask);
+        template.copyTo(maskedTemplate, mask);
+
+        return compare(maskedIris, maskedTemplate);
+    }
 }
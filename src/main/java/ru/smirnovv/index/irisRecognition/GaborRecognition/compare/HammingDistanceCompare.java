@@ -36,4 +36,60 @@ public class HammingDistanceCompare extends IrisCodeCompare {
 
         return -1.0 * result;
     }
+
+    /**
+     * Compares the irisCode only where the mask is set.
+     * The result is scaled so that it equals the unmasked one when all pixels are valid.
+     * Производит сравнение irisCode только там, где установлена маска.
+     * Результат масштабируется так, что при всех корректных пикселях он равен результату без маски.
+     *
+     * @param iris     the irisCode.
+     *                 irisCode.
+     * @param template the irisCode.
+     *                 irisCode
+     * @param mask     the mask of valid pixels or {@code null} if all pixels are valid.
+     *                 маска корректных пикселей или {@code null}, если все пиксели корректны.
+     * @return the percent of coincidence of the iris.
+     *         процент совпадения РОГ.
+     */
+    @Override
+    public double compare(final Mat iris, final Mat template, final Mat mask) {
+        if (mask == null) {
+            return compare(iris, template);
+        }
+
+        int rows = iris.rows();
+        int cols = iris.cols();
+        byte[] irisPixels = new byte[rows * cols];
+        byte[] templatePixels = new byte[rows * cols];
+        byte[] maskPixels = new byte[rows * cols];
+        iris.get(0, 0, irisPixels);
+        template.get(0, 0, templatePixels);
+        mask.get(0, 0, maskPixels);
+
+        int sampled = 0;
+        int valid = 0;
+        int result = 0;
+
+        // Counts masked Hamming distance.
+        // Подсчет расстояния Хэмминга с маской.
+        for (int x = 0; x < rows; x = x + 8) {
+            for (int y = 0; y < cols; y = y + 4) {
+                int i = x * cols + y;
+                ++sampled;
+                if (maskPixels[i] != 0) {
+                    ++valid;
+                    if (((irisPixels[i] & 0xFF) <= 128) == ((templatePixels[i] & 0xFF) <= 128)) {
+                        ++result;
+                    }
+                }
+            }
+        }
+
+        if (valid == 0) {
+            return 0;
+        }
+
+        return -1.0 * result * sampled / valid / (rows * cols);
+    }
 }
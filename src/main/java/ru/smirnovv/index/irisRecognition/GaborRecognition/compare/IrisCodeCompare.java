@@ -20,6 +20,23 @@ public abstract class IrisCodeCompare {
      */
     public abstract double compare(final Mat iris, final Mat template);
 
+    /**
+     * Compares the irisCode only where the mask is set.
+     * Производит сравнение irisCode только там, где установлена маска.
+     *
+     * @param iris     the irisCode.
+     *                 irisCode.
+     * @param template the irisCode.
+     *                 irisCode
+     * @param mask     the mask of valid pixels or {@code null} if all pixels are valid.
+     *                 маска корректных пикселей или {@code null}, если все пиксели корректны.
+     * @return the percent of coincidence of the iris.
+     *         процент совпадения РОГ.
+     */
+    public double compare(final Mat iris, final Mat template, final Mat mask) {
+        return compare(iris, template);
+    }
+
     /**
      * Rotates  iris image to the left.
      * Вращает РОГ влево.
@@ -1,6 +1,7 @@
 package ru.smirnovv.index.irisRecognition;
 
 import org.opencv.core.Mat;
+import ru.smirnovv.iris.irisDetection.IrisTemplate;
 
 /**
  * An abstract class that provides iris comparison.
@@ -32,4 +33,43 @@ public abstract class IrisCompare {
      *                      подтверждение совпадения РОГ.
      */
     public abstract boolean authorize(final Mat irisImage, final Mat irisTemplate);
+
+    /**
+     * Returns the identification threshold, the irises coincide when the score is below it.
+     * Возвращает порог идентификации, РОГ совпадают, когда оценка ниже него.
+     *
+     * @return the identification threshold.
+     *         порог идентификации.
+     */
+    public abstract double getThreshold();
+
+    /**
+     * Compares the iris, occluded pixels are skipped.
+     * Производит сравнение РОГ, перекрытые пиксели пропускаются.
+     *
+     * @param iris     the normalized iris with the occlusion mask.
+     *                 нормализованный РОГ с маской перекрытий.
+     * @param template the normalized iris with the occlusion mask.
+     *                 нормализованный РОГ с маской перекрытий.
+     * @return the percent of coincidence of the iris.
+     *         процент совпадения РОГ.
+     */
+    public double compare(final IrisTemplate iris, final IrisTemplate template) {
+        return compare(iris.getImage(), template.getImage());
+    }
+
+    /**
+     * Compares the iris to authorize a person, occluded pixels are skipped.
+     * Производит сравнение РОГ для авторизации человека, перекрытые пиксели пропускаются.
+     *
+     * @param iris     the normalized iris with the occlusion mask.
+     *                 нормализованный РОГ с маской перекрытий.
+     * @param template the normalized iris with the occlusion mask.
+     *                 нормализованный РОГ с маской перекрытий.
+     * @return {@code true} if the iris coincided.
+     *                      подтверждение совпадения РОГ.
+     */
+    public boolean authorize(final IrisTemplate iris, final IrisTemplate template) {
+        return authorize(iris.getImage(), template.getImage());
+    }
 }
@@ -1,18 +1,25 @@
 package ru.smirnovv.index.irisRecognition;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.flywaydb.core.internal.util.Pair;
-import org.opencv.core.CvType;
-import org.opencv.core.Mat;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
+import ru.smirnovv.PartialResult;
 import ru.smirnovv.iris.Cryptographer;
-import ru.smirnovv.iris.Iris;
-import ru.smirnovv.iris.irisDetection.IrisDetector;
-import ru.smirnovv.person.Person;
+import ru.smirnovv.iris.GalleryEntry;
+import ru.smirnovv.iris.irisDetection.IrisTemplate;
+import ru.smirnovv.monitoring.GalleryScanEvent;
+import ru.smirnovv.monitoring.ServerTiming;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 /**
  * A class that provides iris recognition.
@@ -20,12 +27,6 @@ import java.util.List;
  */
 @Component
 public class IrisRecognition {
-    /**
-     * A class that detects iris.
-     * Класс, детектирующий РОГ.
-     */
-    private final IrisDetector irisDetector;
-
     /**
      * A class that provides iris comparison.
      * Класс, обеспечивающий сравнение РОГ.
@@ -38,144 +39,467 @@ public class IrisRecognition {
      */
     private final Cryptographer cryptographer;
 
+    /**
+     * The time of the decryption of gallery irises, recorded once per scan.
+     * Время дешифрования РОГ галереи, записывается один раз за просмотр.
+     */
+    private final Timer decryptTimer;
+
+    /**
+     * The time of the comparisons, recorded once per scan.
+     * Время сравнений, записывается один раз за просмотр.
+     */
+    private final Timer compareTimer;
+
+    /**
+     * The number of the decrypted gallery irises.
+     * Количество дешифрованных РОГ галереи.
+     */
+    private final Counter decryptCounter;
+
+    /**
+     * The number of the comparisons.
+     * Количество сравнений.
+     */
+    private final Counter compareCounter;
+
     /**
      * Constructs an instance with injected dependencies.
      * Создает экземпляр с внедренными зависимостями.
      *
-     * @param irisDetector  a class that detects iris.
-     *                      класс, детектирующий РОГ.
      * @param irisCompare   A class that provides iris comparison.
      *                      класс, обеспечивающий сравнение РОГ.
      * @param cryptographer a class that manages encode data.
      *                      класс, обеспечивающий шифрование данных.
+     * @param meterRegistry a registry of the metrics.
+     *                      реестр метрик.
      */
     @Autowired
-    public IrisRecognition(final IrisDetector irisDetector,
-                           @Qualifier("SURFRecognition") final IrisCompare irisCompare,
-                           final Cryptographer cryptographer) {
-        this.irisDetector = irisDetector;
+    public IrisRecognition(@Qualifier("SURFRecognition") final IrisCompare irisCompare,
+                           final Cryptographer cryptographer,
+                           final MeterRegistry meterRegistry) {
         this.irisCompare = irisCompare;
         this.cryptographer = cryptographer;
+        this.decryptTimer = Timer.builder("iris.decrypt.duration")
+                .description("The time of the decryption of gallery irises per scan")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.compareTimer = Timer.builder("iris.compare.duration")
+                .description("The time of the iris comparisons per scan")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.decryptCounter = Counter.builder("iris.decrypt.entries")
+                .description("The decrypted gallery irises")
+                .register(meterRegistry);
+        this.compareCounter = Counter.builder("iris.compare.comparisons")
+                .description("The iris comparisons")
+                .register(meterRegistry);
     }
 
     /**
      * Authorizes person by the iris.
      * Производит авторизацию человека с использованием РОГ.
      *
-     * @param irises    the irises from the database.
-     *                  РОГ из базы данных.
-     * @param irisImage the image of the iris.
-     *                  изображение РОГ.
+     * @param irises    the gallery entries from the database.
+     *                  записи галереи из базы данных.
+     * @param iris      the template of the iris.
+     *                  шаблон РОГ.
      * @return {@code true} if match found or not.
      * подтверждение нахождения совпадения.
      */
-    public final Boolean authorize(final List<Iris> irises, final byte[] irisImage) {
-        // Detects iris and create a normalized image.
-        // Детектирование РОГ и создание нормализованного изображения.
-        Mat iris = new Mat(128, 256, CvType.CV_8U);
-        iris.put(0, 0, irisDetector.createIrisCode(irisImage));
-
-        // Searches match of the iris until a match is found.
-        // Поиск совпадения РОГ, до тех пор пока не найдется совпадение.
-        for (Iris temp : irises) {
-            // Decrypt iris.
-            // Дешифровка РОГ.
-            Mat irisTemplate = new Mat(128, 256, CvType.CV_8U);
-            irisTemplate.put(0, 0, cryptographer.decrypt(temp.getIrisCode()));
-
-            // Compares irises.
-            // Сравнение РОГ.
-            if (irisCompare.authorize(iris, irisTemplate)) {
-                return true;
+    public final Boolean authorize(final Iterable<GalleryEntry> irises, final IrisTemplate iris) {
+        GalleryScanEvent scan = new GalleryScanEvent("authorize", 1);
+        try {
+            byte[] buffer = new byte[IrisTemplate.MAX_CODE_SIZE];
+
+            // Searches match of the iris until a match is found.
+            // Поиск совпадения РОГ, до тех пор пока не найдется совпадение.
+            for (GalleryEntry temp : irises) {
+                // Decrypt iris.
+                // Дешифровка РОГ.
+                IrisTemplate irisTemplate = decrypt(scan, temp, buffer);
+
+                // Compares irises.
+                // Сравнение РОГ.
+                if (authorize(scan, iris, irisTemplate)) {
+                    return true;
+                }
             }
-        }
 
-        // Returns {@code false} if matches not found.
-        // Вернуть {@code false} если совпадении не обнаружено.
-        return false;
+            // Returns {@code false} if matches not found.
+            // Вернуть {@code false} если совпадении не обнаружено.
+            return false;
+        } finally {
+            finish(scan);
+        }
     }
 
     /**
      * Identify the person.
      * Производит идентификацию человека с использованием РОГ.
      *
-     * @param irises    the irises from the database.
-     *                  РОГ из базы данных.
-     * @param irisImage the image of the iris.
-     *                  изображение РОГ.
-     * @return the found person.
-     * найденный человек.
-     */
-    public final Person identify(final List<Iris> irises, final byte[] irisImage) {
-        // Detects iris and create a normalized image.
-        // Детектирование РОГ и создание нормализованного изображения.
-        Mat iris = new Mat(128, 256, CvType.CV_8U);
-        iris.put(0, 0, irisDetector.createIrisCode(irisImage));
-
-        // Searches match of the iris until a match is found.
-        // Поиск совпадения РОГ, до тех пор пока не найдется совпадение.
-        for (Iris temp : irises) {
-            // Decrypt iris.
-            // Дешифровка РОГ.
-            Mat irisTemplate = new Mat(128, 256, CvType.CV_8U);
-            irisTemplate.put(0, 0, cryptographer.decrypt(temp.getIrisCode()));
-
-            // Compares irises.
-            // Сравнение РОГ.
-            if (irisCompare.authorize(iris, irisTemplate)) {
-                return temp.getPerson();
+     * @param irises    the gallery entries from the database.
+     *                  записи галереи из базы данных.
+     * @param iris      the template of the iris.
+     *                  шаблон РОГ.
+     * @return the id of the found person.
+     * id найденного человека.
+     */
+    public final Long identify(final Iterable<GalleryEntry> irises, final IrisTemplate iris) {
+        GalleryScanEvent scan = new GalleryScanEvent("identify", 1);
+        try {
+            byte[] buffer = new byte[IrisTemplate.MAX_CODE_SIZE];
+
+            // Searches match of the iris until a match is found.
+            // Поиск совпадения РОГ, до тех пор пока не найдется совпадение.
+            for (GalleryEntry temp : irises) {
+                // Decrypt iris.
+                // Дешифровка РОГ.
+                IrisTemplate irisTemplate = decrypt(scan, temp, buffer);
+
+                // Compares irises.
+                // Сравнение РОГ.
+                if (authorize(scan, iris, irisTemplate)) {
+                    return temp.getPersonId();
+                }
             }
-        }
 
-        // Returns null if matches not found.
-        // Вернуть "null" если совпадении не обнаружено.
-        return null;
+            // Returns null if matches not found.
+            // Вернуть "null" если совпадении не обнаружено.
+            return null;
+        } finally {
+            finish(scan);
+        }
     }
 
     /**
      * Finds people with the most appropriate iris.
      * Находит людей с наиболее схожим РОГ.
      *
-     * @param irises    the irises from the database.
-     *                  РОГ из базы данных.
-     * @param irisImage the image of the iris.
-     *                  изображение РОГ.
-     * @return the found persons.
-     * список найденных людей.
-     */
-    public final List<Pair<Person, Double>> find(final List<Iris> irises, final byte[] irisImage) {
-        // Detects iris and creates a normalized image.
-        // Детектирование РОГ и создание нормализованного изображения.
-        Mat iris = new Mat(128, 256, CvType.CV_8U);
-        iris.put(0, 0, irisDetector.createIrisCode(irisImage));
-
-        // A list to store found persons.
-        // Список для хранения найденных людей.
-        List<Pair<Person, Double>> result = new ArrayList<>();
-
-        // Searches match of the irises.
-        for (Iris temp : irises) {
-            // Decrypt iris.
-            // Дешифровка РОГ.
-            Mat irisTemplate = new Mat(128, 256, CvType.CV_8U);
-            irisTemplate.put(0, 0, cryptographer.decrypt(temp.getIrisCode()));
-
-            // Compares irises.
-            // Сравнение РОГ.
-            result.add(Pair.of(temp.getPerson(),
-                    irisCompare.compare(iris, irisTemplate)));
-
-
-            // Sorts results by a percentage of matches.
-            // Сортирует результат по проценту совпадения.
-            if (result.size() == 4) {
-                result.sort((pairLeft, pairRight)
-                        -> (int) (100000 * pairLeft.getRight() - 100000 * pairRight.getRight()));
-
-                result.remove(3);
+     * @param irises    the gallery entries from the database.
+     *                  записи галереи из базы данных.
+     * @param iris      the template of the iris.
+     *                  шаблон РОГ.
+     * @return the ids of the found persons with the scores.
+     * id найденных людей с оценками.
+     */
+    public final List<Pair<Long, Double>> find(final Iterable<GalleryEntry> irises, final IrisTemplate iris) {
+        GalleryScanEvent scan = new GalleryScanEvent("find", 1);
+        try {
+            // A list to store found persons.
+            // Список для хранения найденных людей.
+            List<Pair<Long, Double>> result = new ArrayList<>();
+
+            byte[] buffer = new byte[IrisTemplate.MAX_CODE_SIZE];
+
+            // Searches match of the irises.
+            for (GalleryEntry temp : irises) {
+                // Decrypt iris.
+                // Дешифровка РОГ.
+                IrisTemplate irisTemplate = decrypt(scan, temp, buffer);
+
+                // Compares irises.
+                // Сравнение РОГ.
+                addMatch(result, Pair.of(temp.getPersonId(),
+                        compare(scan, iris, irisTemplate)));
+            }
+
+            return result;
+        } finally {
+            finish(scan);
+        }
+    }
+
+    /**
+     * Identify the persons of several irises in one pass over the gallery.
+     * Производит идентификацию людей по нескольким РОГ за один проход по галерее.
+     *
+     * @param irises the gallery entries from the database.
+     *               записи галереи из базы данных.
+     * @param probes the templates of the irises.
+     *               шаблоны РОГ.
+     * @return the ids of the found persons in the order of the templates, {@code null} if not found.
+     * id найденных людей в порядке шаблонов, {@code null} если не найден.
+     */
+    public final List<Long> identify(final Iterable<GalleryEntry> irises, final List<IrisTemplate> probes) {
+        return identify(irises, probes, (index, personId) -> { });
+    }
+
+    /**
+     * Identify the persons of several irises in one pass over the gallery, each match is published as it is found.
+     * Производит идентификацию людей по нескольким РОГ за один проход по галерее, каждое совпадение
+     * публикуется сразу, как только найдено.
+     *
+     * @param irises  the gallery entries from the database.
+     *                записи галереи из базы данных.
+     * @param probes  the templates of the irises.
+     *                шаблоны РОГ.
+     * @param matched the callback that receives the index of the template and the id of the found person,
+     *                it is called on the scanning thread and should not block.
+     *                обратный вызов, получающий индекс шаблона и id найденного человека,
+     *                вызывается в потоке просмотра и не должен блокироваться.
+     * @return the ids of the found persons in the order of the templates, {@code null} if not found.
+     * id найденных людей в порядке шаблонов, {@code null} если не найден.
+     */
+    public final List<Long> identify(final Iterable<GalleryEntry> irises, final List<IrisTemplate> probes,
+                                     final BiConsumer<Integer, Long> matched) {
+        GalleryScanEvent scan = new GalleryScanEvent("identify", probes.size());
+        try {
+            List<Long> result = new ArrayList<>(Collections.nCopies(probes.size(), (Long) null));
+            int unmatched = probes.size();
+
+            byte[] buffer = new byte[IrisTemplate.MAX_CODE_SIZE];
+
+            // Each gallery iris is decrypted once for all templates.
+            // Каждый РОГ галереи дешифруется один раз для всех шаблонов.
+            for (GalleryEntry temp : irises) {
+                if (unmatched == 0) {
+                    break;
+                }
+                IrisTemplate irisTemplate = decrypt(scan, temp, buffer);
+
+                // The first match in the gallery order, as for a single template.
+                // Первое совпадение в порядке галереи, как и для одного шаблона.
+                for (int i = 0; i < probes.size(); i++) {
+                    if (result.get(i) == null && authorize(scan, probes.get(i), irisTemplate)) {
+                        result.set(i, temp.getPersonId());
+                        unmatched--;
+                        matched.accept(i, temp.getPersonId());
+                    }
+                }
+            }
+
+            return result;
+        } finally {
+            finish(scan);
+        }
+    }
+
+    /**
+     * Finds people with the most appropriate iris for several irises in one pass over the gallery.
+     * Находит людей с наиболее схожим РОГ для нескольких РОГ за один проход по галерее.
+     *
+     * @param irises the gallery entries from the database.
+     *               записи галереи из базы данных.
+     * @param probes the templates of the irises.
+     *               шаблоны РОГ.
+     * @return the ids of the found persons with the scores in the order of the templates.
+     * списки id найденных людей с оценками в порядке шаблонов.
+     */
+    public final List<List<Pair<Long, Double>>> find(final Iterable<GalleryEntry> irises,
+                                                     final List<IrisTemplate> probes) {
+        GalleryScanEvent scan = new GalleryScanEvent("find", probes.size());
+        try {
+            List<List<Pair<Long, Double>>> result = new ArrayList<>(probes.size());
+            for (int i = 0; i < probes.size(); i++) {
+                result.add(new ArrayList<>());
+            }
+
+            byte[] buffer = new byte[IrisTemplate.MAX_CODE_SIZE];
+
+            // Each gallery iris is decrypted once for all templates.
+            // Каждый РОГ галереи дешифруется один раз для всех шаблонов.
+            for (GalleryEntry temp : irises) {
+                IrisTemplate irisTemplate = decrypt(scan, temp, buffer);
+
+                for (int i = 0; i < probes.size(); i++) {
+                    addMatch(result.get(i), Pair.of(temp.getPersonId(),
+                            compare(scan, probes.get(i), irisTemplate)));
+                }
+            }
+
+            return result;
+        } finally {
+            finish(scan);
+        }
+    }
+
+    /**
+     * Identify the person within the deadline.
+     * Производит идентификацию человека до крайнего срока.
+     *
+     * @param irises   the gallery entries in the order of the priority.
+     *                 записи галереи в порядке приоритета.
+     * @param total    the size of the gallery.
+     *                 размер галереи.
+     * @param iris     the template of the iris.
+     *                 шаблон РОГ.
+     * @param deadline the deadline by {@link System#nanoTime()}.
+     *                 крайний срок по {@link System#nanoTime()}.
+     * @return the id of the found person, {@code null} if not found in the scanned part of the gallery.
+     * id найденного человека, {@code null} если не найден в просмотренной части галереи.
+     */
+    public final PartialResult<Long> identify(final Iterable<GalleryEntry> irises, final long total,
+                                              final IrisTemplate iris, final long deadline) {
+        GalleryScanEvent scan = new GalleryScanEvent("identify", 1);
+        try {
+            byte[] buffer = new byte[IrisTemplate.MAX_CODE_SIZE];
+
+            // The deadline is checked before the next entry is fetched, so an expired scan does not query.
+            // Крайний срок проверяется до чтения следующей записи, поэтому просроченный просмотр не выполняет запрос.
+            Iterator<GalleryEntry> entries = irises.iterator();
+            while (System.nanoTime() - deadline < 0) {
+                if (!entries.hasNext()) {
+                    return new PartialResult<>(null, 1.0);
+                }
+                GalleryEntry temp = entries.next();
+                IrisTemplate irisTemplate = decrypt(scan, temp, buffer);
+
+                // The first match is final, the rest of the gallery would not change it.
+                // Первое совпадение окончательно, остальная галерея его не изменит.
+                if (authorize(scan, iris, irisTemplate)) {
+                    return new PartialResult<>(temp.getPersonId(), 1.0);
+                }
             }
+
+            return PartialResult.of(null, scan.getEntries(), total);
+        } finally {
+            finish(scan);
+        }
+    }
+
+    /**
+     * Finds people with the most appropriate iris within the deadline.
+     * Находит людей с наиболее схожим РОГ до крайнего срока.
+     *
+     * @param irises   the gallery entries in the order of the priority.
+     *                 записи галереи в порядке приоритета.
+     * @param total    the size of the gallery.
+     *                 размер галереи.
+     * @param iris     the template of the iris.
+     *                 шаблон РОГ.
+     * @param deadline the deadline by {@link System#nanoTime()}.
+     *                 крайний срок по {@link System#nanoTime()}.
+     * @return the ids of the persons found in the scanned part of the gallery with the scores.
+     * id людей, найденных в просмотренной части галереи, с оценками.
+     */
+    public final PartialResult<List<Pair<Long, Double>>> find(final Iterable<GalleryEntry> irises, final long total,
+                                                              final IrisTemplate iris, final long deadline) {
+        GalleryScanEvent scan = new GalleryScanEvent("find", 1);
+        try {
+            List<Pair<Long, Double>> result = new ArrayList<>();
+
+            byte[] buffer = new byte[IrisTemplate.MAX_CODE_SIZE];
+
+            Iterator<GalleryEntry> entries = irises.iterator();
+            while (System.nanoTime() - deadline < 0) {
+                if (!entries.hasNext()) {
+                    return new PartialResult<>(result, 1.0);
+                }
+                GalleryEntry temp = entries.next();
+                IrisTemplate irisTemplate = decrypt(scan, temp, buffer);
+
+                addMatch(result, Pair.of(temp.getPersonId(), compare(scan, iris, irisTemplate)));
+            }
+
+            return PartialResult.of(result, scan.getEntries(), total);
+        } finally {
+            finish(scan);
+        }
+    }
+
+    /**
+     * Decrypts the gallery iris into the buffer of the scan.
+     * Дешифрует РОГ галереи в буфер просмотра.
+     *
+     * @param scan   the event of the scan.
+     *               событие просмотра.
+     * @param entry  the gallery entry.
+     *               запись галереи.
+     * @param buffer the buffer reused for the whole scan.
+     *               буфер, используемый повторно для всего просмотра.
+     * @return the template of the gallery iris.
+     * шаблон РОГ галереи.
+     */
+    private IrisTemplate decrypt(final GalleryScanEvent scan, final GalleryEntry entry, final byte[] buffer) {
+        long start = System.nanoTime();
+        int length = cryptographer.decrypt(entry.getKeyId(), entry.getIrisCode(), buffer);
+        scan.entry(System.nanoTime() - start);
+        return IrisTemplate.fromBytes(buffer, length);
+    }
+
+    /**
+     * Checks whether the irises match.
+     * Проверяет, совпадают ли РОГ.
+     *
+     * @param scan    the event of the scan.
+     *                событие просмотра.
+     * @param probe   the template of the iris.
+     *                шаблон РОГ.
+     * @param gallery the template of the gallery iris.
+     *                шаблон РОГ галереи.
+     * @return {@code true} if the irises match.
+     * {@code true}, если РОГ совпадают.
+     */
+    private boolean authorize(final GalleryScanEvent scan, final IrisTemplate probe, final IrisTemplate gallery) {
+        long start = System.nanoTime();
+        boolean matched = irisCompare.authorize(probe, gallery);
+        scan.comparison(System.nanoTime() - start);
+        if (matched) {
+            scan.match();
         }
+        return matched;
+    }
+
+    /**
+     * Compares the irises.
+     * Сравнивает РОГ.
+     *
+     * @param scan    the event of the scan.
+     *                событие просмотра.
+     * @param probe   the template of the iris.
+     *                шаблон РОГ.
+     * @param gallery the template of the gallery iris.
+     *                шаблон РОГ галереи.
+     * @return the score of the comparison.
+     * оценка сравнения.
+     */
+    private double compare(final GalleryScanEvent scan, final IrisTemplate probe, final IrisTemplate gallery) {
+        long start = System.nanoTime();
+        double score = irisCompare.compare(probe, gallery);
+        scan.comparison(System.nanoTime() - start);
+        return score;
+    }
 
-        return result;
+    /**
+     * Commits the event of the scan and records its totals, so the meters are not touched per gallery entry.
+     * Фиксирует событие просмотра и записывает его итоги, поэтому метрики не обновляются для каждой записи галереи.
+     *
+     * @param scan the event of the scan.
+     *             событие просмотра.
+     */
+    private void finish(final GalleryScanEvent scan) {
+        scan.commit();
+        ServerTiming.compared(scan.getComparisons());
+        if (scan.getEntries() > 0) {
+            decryptTimer.record(scan.getDecryptTime(), TimeUnit.NANOSECONDS);
+            decryptCounter.increment(scan.getEntries());
+        }
+        if (scan.getComparisons() > 0) {
+            compareTimer.record(scan.getCompareTime(), TimeUnit.NANOSECONDS);
+            compareCounter.increment(scan.getComparisons());
+        }
+    }
+
+    /**
+     * Adds the match and keeps the three best ones.
+     * Добавляет совпадение и оставляет три лучших.
+     *
+     * @param result the best matches.
+     *               лучшие совпадения.
+     * @param match  the match.
+     *               совпадение.
+     */
+    private static void addMatch(final List<Pair<Long, Double>> result, final Pair<Long, Double> match) {
+        result.add(match);
+
+        // Sorts results by a percentage of matches.
+        // Сортирует результат по проценту совпадения.
+        if (result.size() == 4) {
+            result.sort((pairLeft, pairRight)
+                    -> (int) (100000 * pairLeft.getRight() - 100000 * pairRight.getRight()));
+
+            result.remove(3);
+        }
     }
 }
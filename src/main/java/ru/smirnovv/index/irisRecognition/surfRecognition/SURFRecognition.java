@@ -9,6 +9,7 @@ import org.opencv.xfeatures2d.SURF;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import ru.smirnovv.index.irisRecognition.IrisCompare;
+import ru.smirnovv.iris.irisDetection.IrisTemplate;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -55,6 +56,18 @@ public class SURFRecognition extends IrisCompare {
         this.threshold = threshold;
     }
 
+    /**
+     * Returns the identification threshold.
+     * Возвращает порог идентификации.
+     *
+     * @return the identification threshold.
+     *         порог идентификации.
+     */
+    @Override
+    public double getThreshold() {
+        return threshold;
+    }
+
 
     /**
      * Compares the iris to authorize a person.
@@ -85,6 +98,59 @@ public class SURFRecognition extends IrisCompare {
      */
     @Override
     public final double compare(final Mat irisImage, final Mat irisTemplate) {
+        return compare(irisImage, new Mat(), irisTemplate, new Mat());
+    }
+
+    /**
+     * Compares the iris to authorize a person, occluded pixels are skipped.
+     * Производит сравнение РОГ для авторизации человека, перекрытые пиксели пропускаются.
+     *
+     * @param iris     the normalized iris with the occlusion mask.
+     *                 нормализованный РОГ с маской перекрытий.
+     * @param template the normalized iris with the occlusion mask.
+     *                 нормализованный РОГ с маской перекрытий.
+     * @return {@code true} if the iris coincided.
+     *                      подтверждение совпадения РОГ.
+     */
+    @Override
+    public boolean authorize(final IrisTemplate iris, final IrisTemplate template) {
+        return compare(iris, template) < threshold;
+    }
+
+    /**
+     * Compares the iris, key points are not searched in occluded pixels.
+     * Производит сравнение РОГ, особые точки не ищутся в перекрытых пикселях.
+     *
+     * @param iris     the normalized iris with the occlusion mask.
+     *                 нормализованный РОГ с маской перекрытий.
+     * @param template the normalized iris with the occlusion mask.
+     *                 нормализованный РОГ с маской перекрытий.
+     * @return the percent of coincidence of the iris.
+     *         процент совпадения РОГ.
+     */
+    @Override
+    public final double compare(final IrisTemplate iris, final IrisTemplate template) {
+        return compare(iris.getImage(), iris.isMasked() ? iris.getMaskImage() : new Mat(),
+                template.getImage(), template.isMasked() ? template.getMaskImage() : new Mat());
+    }
+
+    /**
+     * Compares the iris with the masks.
+     * Производит сравнение РОГ с масками.
+     *
+     * @param irisImage    the image of the iris.
+     *                     изображение РОГ.
+     * @param irisMask     the mask of the iris, empty if all pixels are valid.
+     *                     маска РОГ, пустая если все пиксели корректны.
+     * @param irisTemplate the image of the iris.
+     *                     изображение РОГ.
+     * @param templateMask the mask of the template, empty if all pixels are valid.
+     *                     маска шаблона, пустая если все пиксели корректны.
+     * @return the percent of coincidence of the iris.
+     *         процент совпадения РОГ.
+     */
+    private double compare(final Mat irisImage, final Mat irisMask,
+                           final Mat irisTemplate, final Mat templateMask) {
         // Key points and descriptors.
         // Особые точки и описательные элементы.
         MatOfKeyPoint keyPointImage = new MatOfKeyPoint();
@@ -94,8 +160,8 @@ public class SURFRecognition extends IrisCompare {
 
         // Searches key points and creates descriptors.
         // Поиск особых точек и построение описательного элемента.
-        surf.detectAndCompute(irisImage, new Mat(), keyPointImage, descriptorImage);
-        surf.detectAndCompute(irisTemplate, new Mat(), keyPointTempl, descriptorTempl);
+        surf.detectAndCompute(irisImage, irisMask, keyPointImage, descriptorImage);
+        surf.detectAndCompute(irisTemplate, templateMask, keyPointTempl, descriptorTempl);
 
         // Searches matches.
         // Поиск совпадений.
@@ -0,0 +1,268 @@
+package ru.smirnovv.index.pipeline;
+
+import ru.smirnovv.iris.irisDetection.IrisTemplate;
+import ru.smirnovv.monitoring.ServerTiming;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * A class that collects templates arriving within a short window and compares them
+ * with the gallery in one pass.
+ * Класс, собирающий шаблоны, поступившие в течение короткого окна, и сравнивающий
+ * их с галереей за один проход.
+ *
+ * <p>A template waits no longer than the window before its batch is started. A request completes
+ * as soon as the matcher publishes its result, the rest complete when the batch is done.
+ * Шаблон ожидает не дольше окна перед запуском его пакета. Запрос завершается, как только
+ * функция сравнения публикует его результат, остальные завершаются по окончании пакета.
+ *
+ * @param <R> the type of the result for one template.
+ *            тип результата для одного шаблона.
+ */
+public class MatchBatcher<R> {
+    /**
+     * The stage that compares batches with the gallery.
+     * Этап сравнения пакетов с галереей.
+     */
+    private final Stage stage;
+
+    /**
+     * A timer that starts incomplete batches.
+     * Таймер, запускающий неполные пакеты.
+     */
+    private final ScheduledExecutorService timer;
+
+    /**
+     * The function that compares a batch with the gallery, results are in the order of templates.
+     * It may publish the result of a template by its index as soon as the result is final.
+     * Функция, сравнивающая пакет с галереей, результаты в порядке шаблонов.
+     * Она может опубликовать результат шаблона по его индексу, как только результат окончателен.
+     */
+    private final BiFunction<List<IrisTemplate>, BiConsumer<Integer, R>, List<R>> matcher;
+
+    /**
+     * The time a template may wait for other ones in milliseconds.
+     * Время, которое шаблон может ждать другие, в миллисекундах.
+     */
+    private final long window;
+
+    /**
+     * The maximum number of templates in a batch.
+     * Максимальное количество шаблонов в пакете.
+     */
+    private final int maxSize;
+
+    /**
+     * The requests of the batch being collected.
+     * Запросы собираемого пакета.
+     */
+    private List<Request<R>> pending = new ArrayList<>();
+
+    /**
+     * Constructs an instance with the specified properties.
+     * Создает экземпляр с указанными свойствами.
+     *
+     * @param stage   the stage that compares batches with the gallery.
+     *                этап сравнения пакетов с галереей.
+     * @param timer   a timer that starts incomplete batches.
+     *                таймер, запускающий неполные пакеты.
+     * @param matcher the function that compares a batch with the gallery and may publish early results.
+     *                функция, сравнивающая пакет с галереей и способная публиковать результаты досрочно.
+     * @param window  the time a template may wait for other ones in milliseconds, {@code 0} disables batching.
+     *                время, которое шаблон может ждать другие, в миллисекундах, {@code 0} отключает пакеты.
+     * @param maxSize the maximum number of templates in a batch.
+     *                максимальное количество шаблонов в пакете.
+     */
+    MatchBatcher(final Stage stage, final ScheduledExecutorService timer,
+                 final BiFunction<List<IrisTemplate>, BiConsumer<Integer, R>, List<R>> matcher,
+                 final long window, final int maxSize) {
+        this.stage = stage;
+        this.timer = timer;
+        this.matcher = matcher;
+        this.window = window;
+        this.maxSize = window > 0 ? Math.max(maxSize, 1) : 1;
+    }
+
+    /**
+     * Compares the template with the gallery as a part of a batch.
+     * Сравнивает шаблон с галереей в составе пакета.
+     *
+     * @param template the template of the iris.
+     *                 шаблон РОГ.
+     * @return the result of the comparison.
+     *         результат сравнения.
+     */
+    public CompletableFuture<R> match(final CompletableFuture<IrisTemplate> template) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        ServerTiming timing = ServerTiming.current();
+        template.whenComplete((probe, exception) -> {
+            if (exception != null) {
+                result.completeExceptionally(Stage.unwrap(exception));
+            } else {
+                add(new Request<>(probe, result, timing));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Adds the request to the batch and starts the batch when it is full.
+     * Добавляет запрос в пакет и запускает пакет, когда он заполнен.
+     *
+     * @param request the request.
+     *                запрос.
+     */
+    private void add(final Request<R> request) {
+        List<Request<R>> full = null;
+        synchronized (this) {
+            pending.add(request);
+            if (pending.size() >= maxSize) {
+                full = pending;
+                pending = new ArrayList<>();
+            } else if (pending.size() == 1) {
+                timer.schedule(this::flush, window, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full != null) {
+            run(full);
+        }
+    }
+
+    /**
+     * Starts the collected batch when its window is over.
+     * Запускает собранный пакет по окончании его окна.
+     */
+    private void flush() {
+        List<Request<R>> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+        if (!batch.isEmpty()) {
+            run(batch);
+        }
+    }
+
+    /**
+     * Compares the batch with the gallery and completes its requests.
+     * Сравнивает пакет с галереей и завершает его запросы.
+     *
+     * @param batch the requests.
+     *              запросы.
+     */
+    private void run(final List<Request<R>> batch) {
+        List<IrisTemplate> probes = new ArrayList<>(batch.size());
+        for (Request<R> request : batch) {
+            probes.add(request.probe);
+        }
+
+        // The batch is timed once and its breakdown is added to each of its requests.
+        // Пакет замеряется один раз, и его разбивка добавляется к каждому его запросу.
+        ServerTiming shared = new ServerTiming();
+        ServerTiming previous = ServerTiming.bind(shared);
+        try {
+            stage.supply(() -> matcher.apply(probes, (index, result) -> publish(batch.get(index), result, shared)))
+                    .whenComplete((results, exception) -> complete(batch, results, exception, shared));
+        } finally {
+            ServerTiming.bind(previous);
+        }
+    }
+
+    /**
+     * Completes the request before the end of the batch, its breakdown covers the batch so far.
+     * Завершает запрос до окончания пакета, его разбивка охватывает пакет на текущий момент.
+     *
+     * @param request the request.
+     *                запрос.
+     * @param result  the final result of the request.
+     *                окончательный результат запроса.
+     * @param shared  the breakdown of the batch.
+     *                разбивка пакета.
+     */
+    private void publish(final Request<R> request, final R result, final ServerTiming shared) {
+        if (request.timing != null) {
+            request.timing.add(shared);
+        }
+        request.result.complete(result);
+    }
+
+    /**
+     * Completes the requests of the batch that are not published yet.
+     * Завершает запросы пакета.
+     *
+     * @param batch     the requests.
+     *                  запросы.
+     * @param results   the results in the order of the requests.
+     *                  результаты в порядке запросов.
+     * @param exception the failure of the batch or {@code null}.
+     *                  ошибка пакета или {@code null}.
+     * @param shared    the breakdown of the batch.
+     *                  разбивка пакета.
+     */
+    private void complete(final List<Request<R>> batch, final List<R> results, final Throwable exception,
+                          final ServerTiming shared) {
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.get(i).result.isDone()) {
+                continue;
+            }
+            if (batch.get(i).timing != null) {
+                batch.get(i).timing.add(shared);
+            }
+            if (exception != null) {
+                batch.get(i).result.completeExceptionally(exception);
+            } else {
+                batch.get(i).result.complete(results.get(i));
+            }
+        }
+    }
+
+    /**
+     * A template waiting for its result.
+     * Шаблон, ожидающий своего результата.
+     *
+     * @param <R> the type of the result.
+     *            тип результата.
+     */
+    private static final class Request<R> {
+        /**
+         * The template of the iris.
+         * Шаблон РОГ.
+         */
+        private final IrisTemplate probe;
+
+        /**
+         * The result of the comparison.
+         * Результат сравнения.
+         */
+        private final CompletableFuture<R> result;
+
+        /**
+         * The breakdown of the request or {@code null}.
+         * Разбивка запроса или {@code null}.
+         */
+        private final ServerTiming timing;
+
+        /**
+         * Constructs an instance with the specified properties.
+         * Создает экземпляр с указанными свойствами.
+         *
+         * @param probe  the template of the iris.
+         *               шаблон РОГ.
+         * @param result the result of the comparison.
+         *               результат сравнения.
+         * @param timing the breakdown of the request or {@code null}.
+         *               разбивка запроса или {@code null}.
+         */
+        private Request(final IrisTemplate probe, final CompletableFuture<R> result, final ServerTiming timing) {
+            this.probe = probe;
+            this.result = result;
+            this.timing = timing;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package ru.smirnovv.index.pipeline;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CustomizableThreadFactory;
+import ru.smirnovv.ServiceUnavailableException;
+import ru.smirnovv.iris.irisDetection.IrisDetector;
+import ru.smirnovv.iris.irisDetection.IrisTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A class that runs iris recognition in stages, each on its own bounded executor.
+ * Класс, выполняющий распознавание РОГ по этапам, каждый на своем ограниченном исполнителе.
+ *
+ * <p>A request is rejected with {@link ServiceUnavailableException} as soon as
+ * the queue of any stage is full, so the load never piles up on request threads.
+ * Запрос отклоняется с {@link ServiceUnavailableException}, как только очередь
+ * любого этапа заполнена, поэтому нагрузка не накапливается на потоках запросов.
+ */
+@Component
+public class RecognitionPipeline implements DisposableBean {
+    /**
+     * A class that detects iris.
+     * Класс, детектирующий РОГ.
+     */
+    private final IrisDetector irisDetector;
+
+    /**
+     * The stage that decodes images.
+     * Этап декодирования изображений.
+     */
+    private final Stage decode;
+
+    /**
+     * The stage that localizes iris.
+     * Этап локализации РОГ.
+     */
+    private final Stage localize;
+
+    /**
+     * The stage that normalizes iris.
+     * Этап нормализации РОГ.
+     */
+    private final Stage normalize;
+
+    /**
+     * The stage that compares iris with the gallery.
+     * Этап сравнения РОГ с галереей.
+     */
+    private final Stage match;
+
+    /**
+     * A timer that starts incomplete batches.
+     * Таймер, запускающий неполные пакеты.
+     */
+    private final ScheduledExecutorService batchTimer;
+
+    /**
+     * The time a template may wait for other ones in milliseconds.
+     * Время, которое шаблон может ждать другие, в миллисекундах.
+     */
+    private final long batchWindow;
+
+    /**
+     * The maximum number of templates in a batch.
+     * Максимальное количество шаблонов в пакете.
+     */
+    private final int batchSize;
+
+    /**
+     * Constructs an instance with injected dependencies.
+     * Создает экземпляр с внедренными зависимостями.
+     *
+     * @param irisDetector     a class that detects iris.
+     *                         класс, детектирующий РОГ.
+     * @param decodeThreads    the number of threads decoding images.
+     *                         количество потоков декодирования изображений.
+     * @param decodeQueue      the number of images waiting for decoding.
+     *                         количество изображений, ожидающих декодирования.
+     * @param localizeThreads  the number of threads localizing iris.
+     *                         количество потоков локализации РОГ.
+     * @param localizeQueue    the number of images waiting for localization.
+     *                         количество изображений, ожидающих локализации.
+     * @param normalizeThreads the number of threads normalizing iris.
+     *                         количество потоков нормализации РОГ.
+     * @param normalizeQueue   the number of images waiting for normalization.
+     *                         количество изображений, ожидающих нормализации.
+     * @param matchThreads     the number of threads comparing iris with the gallery.
+     *                         количество потоков сравнения РОГ с галереей.
+     * @param matchQueue       the number of templates waiting for comparison.
+     *                         количество шаблонов, ожидающих сравнения.
+     * @param batchWindow      the time a template may wait for other ones in milliseconds, {@code 0} disables batching.
+     *                         время, которое шаблон может ждать другие, в миллисекундах, {@code 0} отключает пакеты.
+     * @param batchSize        the maximum number of templates in a batch.
+     *                         максимальное количество шаблонов в пакете.
+     * @param meterRegistry    a registry of the metrics.
+     *                         реестр метрик.
+     */
+    @Autowired
+    public RecognitionPipeline(final IrisDetector irisDetector,
+                               @Value("${iris.pipeline.decode.threads:2}") final int decodeThreads,
+                               @Value("${iris.pipeline.decode.queue:32}") final int decodeQueue,
+                               @Value("${iris.pipeline.localize.threads:4}") final int localizeThreads,
+                               @Value("${iris.pipeline.localize.queue:16}") final int localizeQueue,
+                               @Value("${iris.pipeline.normalize.threads:2}") final int normalizeThreads,
+                               @Value("${iris.pipeline.normalize.queue:16}") final int normalizeQueue,
+                               @Value("${iris.pipeline.match.threads:2}") final int matchThreads,
+                               @Value("${iris.pipeline.match.queue:16}") final int matchQueue,
+                               @Value("${iris.pipeline.batch.window:5}") final long batchWindow,
+                               @Value("${iris.pipeline.batch.max-size:16}") final int batchSize,
+                               final MeterRegistry meterRegistry) {
+        this.irisDetector = irisDetector;
+        this.decode = new Stage("decode", decodeThreads, decodeQueue, meterRegistry);
+        this.localize = new Stage("localize", localizeThreads, localizeQueue, meterRegistry);
+        this.normalize = new Stage("normalize", normalizeThreads, normalizeQueue, meterRegistry);
+        this.match = new Stage("match", matchThreads, matchQueue, meterRegistry);
+        this.batchTimer = Executors.newSingleThreadScheduledExecutor(
+                new CustomizableThreadFactory("iris-batch-"));
+        this.batchWindow = batchWindow;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Detects iris and creates its template.
+     * Детектирует РОГ и создает его шаблон.
+     *
+     * @param irisImage the image of the iris.
+     *                  изображение РОГ.
+     * @return the template of the iris.
+     *         шаблон РОГ.
+     */
+    public CompletableFuture<IrisTemplate> createIrisTemplate(final byte[] irisImage) {
+        return normalize.then(
+                localize.then(
+                        decode.supply(() -> irisDetector.decode(irisImage)),
+                        irisDetector::localize),
+                irisDetector::normalize);
+    }
+
+    /**
+     * Compares the templates with the gallery.
+     * Сравнивает шаблоны с галереей.
+     *
+     * @param templates the template of the iris or several ones.
+     *                  шаблон РОГ или несколько шаблонов.
+     * @param matcher   the function that compares the templates with the gallery.
+     *                  функция, сравнивающая шаблоны с галереей.
+     * @param <T>       the type of the templates.
+     *                  тип шаблонов.
+     * @param <R>       the type of the result.
+     *                  тип результата.
+     * @return the result of the comparison.
+     *         результат сравнения.
+     */
+    public <T, R> CompletableFuture<R> match(final CompletableFuture<T> templates,
+                                             final Function<T, R> matcher) {
+        return match.then(templates, matcher);
+    }
+
+    /**
+     * Creates a batcher that compares concurrent templates with the gallery in one pass.
+     * Создает пакетировщик, сравнивающий одновременные шаблоны с галереей за один проход.
+     *
+     * @param matcher the function that compares a batch with the gallery, results are in the order of templates,
+     *                it may publish the result of a template by its index as soon as the result is final.
+     *                функция, сравнивающая пакет с галереей, результаты в порядке шаблонов, она может
+     *                опубликовать результат шаблона по его индексу, как только результат окончателен.
+     * @param <R>     the type of the result for one template.
+     *                тип результата для одного шаблона.
+     * @return the batcher.
+     *         пакетировщик.
+     */
+    public <R> MatchBatcher<R> batcher(final BiFunction<List<IrisTemplate>, BiConsumer<Integer, R>, List<R>> matcher) {
+        return new MatchBatcher<>(match, batchTimer, matcher, batchWindow, batchSize);
+    }
+
+    /**
+     * Stops the stages.
+     * Останавливает этапы.
+     */
+    @Override
+    public void destroy() {
+        decode.shutdown();
+        localize.shutdown();
+        normalize.shutdown();
+        match.shutdown();
+        batchTimer.shutdown();
+    }
+}
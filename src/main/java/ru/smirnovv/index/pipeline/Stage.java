@@ -0,0 +1,198 @@
+package ru.smirnovv.index.pipeline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.util.CustomizableThreadFactory;
+import ru.smirnovv.ServiceUnavailableException;
+import ru.smirnovv.monitoring.ServerTiming;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A stage of the pipeline with its own threads and queue.
+ * Этап конвейера со своими потоками и очередью.
+ */
+final class Stage {
+    /**
+     * The name of the stage.
+     * Название этапа.
+     */
+    private final String name;
+
+    /**
+     * The executor of the stage.
+     * Исполнитель этапа.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * The time the tasks wait in the queue.
+     * Время ожидания задач в очереди.
+     */
+    private final Timer waitTimer;
+
+    /**
+     * The time the tasks run.
+     * Время выполнения задач.
+     */
+    private final Timer runTimer;
+
+    /**
+     * The number of the tasks rejected by the full queue.
+     * Количество задач, отклоненных заполненной очередью.
+     */
+    private final Counter rejected;
+
+    /**
+     * Constructs an instance with the specified properties.
+     * Создает экземпляр с указанными свойствами.
+     *
+     * @param name          the name of the stage.
+     *                      название этапа.
+     * @param threads       the number of threads.
+     *                      количество потоков.
+     * @param queue         the capacity of the queue.
+     *                      вместимость очереди.
+     * @param meterRegistry a registry of the metrics.
+     *                      реестр метрик.
+     */
+    Stage(final String name, final int threads, final int queue, final MeterRegistry meterRegistry) {
+        this.name = name;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queue), new CustomizableThreadFactory("iris-" + name + "-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.waitTimer = Timer.builder("iris.stage.wait")
+                .description("The time the tasks wait in the queue of the pipeline stage")
+                .tag("stage", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("iris.stage.duration")
+                .description("The time the tasks run on the pipeline stage")
+                .tag("stage", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("iris.stage.rejected")
+                .description("The tasks rejected by the full queue of the pipeline stage")
+                .tag("stage", name)
+                .register(meterRegistry);
+        Gauge.builder("iris.stage.queue", executor, pool -> pool.getQueue().size())
+                .description("The tasks waiting in the queue of the pipeline stage")
+                .tag("stage", name)
+                .register(meterRegistry);
+        Gauge.builder("iris.stage.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("The threads running tasks of the pipeline stage")
+                .tag("stage", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the task on the stage.
+     * Выполняет задачу на этапе.
+     *
+     * @param task the task.
+     *             задача.
+     * @param <R>  the type of the result.
+     *             тип результата.
+     * @return the result of the task.
+     *         результат задачи.
+     */
+    <R> CompletableFuture<R> supply(final Supplier<R> task) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        long queued = System.nanoTime();
+        // The breakdown of the request follows the task to the thread of the stage.
+        // Разбивка запроса следует за задачей в поток этапа.
+        ServerTiming timing = ServerTiming.current();
+        try {
+            executor.execute(() -> {
+                long started = System.nanoTime();
+                waitTimer.record(started - queued, TimeUnit.NANOSECONDS);
+                ServerTiming previous = ServerTiming.bind(timing);
+                try {
+                    ServerTiming.record(ServerTiming.Metric.QUEUE, started - queued);
+                    result.complete(task.get());
+                } catch (Throwable exception) {
+                    result.completeExceptionally(exception);
+                } finally {
+                    ServerTiming.bind(previous);
+                    runTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException exception) {
+            rejected.increment();
+            result.completeExceptionally(
+                    new ServiceUnavailableException("The " + name + " stage is overloaded, try again later."));
+        }
+        return result;
+    }
+
+    /**
+     * Runs the task on the stage when the previous stage completes.
+     * Выполняет задачу на этапе, когда предыдущий этап завершится.
+     *
+     * <p>The failures of the previous stage and of the task are passed on as is, not wrapped
+     * into {@link CompletionException}, so the exception handlers see them.
+     * Ошибки предыдущего этапа и задачи передаются как есть, без обертки
+     * в {@link CompletionException}, чтобы их увидели обработчики исключений.
+     *
+     * @param previous the result of the previous stage.
+     *                 результат предыдущего этапа.
+     * @param task     the task.
+     *                 задача.
+     * @param <T>      the type of the argument.
+     *                 тип аргумента.
+     * @param <R>      the type of the result.
+     *                 тип результата.
+     * @return the result of the task.
+     *         результат задачи.
+     */
+    <T, R> CompletableFuture<R> then(final CompletableFuture<T> previous,
+                                     final Function<T, R> task) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        previous.whenComplete((value, exception) -> {
+            if (exception != null) {
+                result.completeExceptionally(unwrap(exception));
+            } else {
+                supply(() -> task.apply(value)).whenComplete((next, failure) -> {
+                    if (failure != null) {
+                        result.completeExceptionally(unwrap(failure));
+                    } else {
+                        result.complete(next);
+                    }
+                });
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Stops the stage.
+     * Останавливает этап.
+     */
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Returns the cause of {@link CompletionException}.
+     * Возвращает причину {@link CompletionException}.
+     *
+     * @param exception the exception.
+     *                  исключение.
+     * @return the unwrapped exception.
+     *         исключение без обертки.
+     */
+    static Throwable unwrap(final Throwable exception) {
+        return exception instanceof CompletionException && exception.getCause() != null
+                ? exception.getCause() : exception;
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * The package containing classes that run iris recognition in stages.
+ * Пакет, содержащий классы, выполняющие распознавание РОГ по этапам.
+ */
+package ru.smirnovv.index.pipeline;
@@ -3,50 +3,91 @@ package ru.smirnovv.iris;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import ru.smirnovv.InternalServerException;
+import ru.smirnovv.monitoring.CryptoEvent;
 
 import javax.crypto.Cipher;
-import javax.crypto.KeyGenerator;
-import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.security.SecureRandom;
 
 /**
- * A class that manages encode data.
- * Класс, обеспечивающий шифрование данных.
+ * A class that manages encode data with AES-GCM.
+ * Класс, обеспечивающий шифрование данных с помощью AES-GCM.
+ * <p>
+ * {@link Cipher} is not thread-safe, so every thread uses its own instances.
+ * The encrypted data is the random IV followed by the ciphertext with the authentication tag.
+ * {@link Cipher} не потокобезопасен, поэтому каждый поток использует свои экземпляры.
+ * Зашифрованные данные - это случайный IV, за которым следует шифротекст с тегом аутентификации.
  */
 @Component
 public class Cryptographer {
     /**
-     * A class that manages encode data.
-     * Класс, обеспечивающий шифрование данных.
+     * The transformation of the ciphers.
+     * Преобразование шифров.
      */
-    private final Cipher ecipher;
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
 
     /**
-     * A class that manages decode data.
-     * Класс, обеспечивающий дешифрование данных.
+     * The length of the IV in bytes.
+     * Длина IV в байтах.
      */
-    private final Cipher dcipher;
+    private static final int IV_LENGTH = 12;
 
     /**
-     * Constructs an instance.
-     * Конструктор без параметров.
+     * The length of the authentication tag in bits.
+     * Длина тега аутентификации в битах.
+     */
+    private static final int TAG_LENGTH = 128;
+
+    /**
+     * The keys of the iris codes.
+     * Ключи iris code.
+     */
+    private final KeyRing keyRing;
+
+    /**
+     * The encryption ciphers of the threads.
+     * Шифры для шифрования потоков.
+     */
+    private final ThreadLocal<Cipher> ecipher = ThreadLocal.withInitial(Cryptographer::newCipher);
+
+    /**
+     * The decryption ciphers of the threads.
+     * Шифры для дешифрования потоков.
+     */
+    private final ThreadLocal<Cipher> dcipher = ThreadLocal.withInitial(Cryptographer::newCipher);
+
+    /**
+     * The source of the IVs.
+     * Источник IV.
+     */
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Constructs an instance with injected dependencies.
+     * Создает экземпляр с внедренными зависимостями.
+     *
+     * @param keyRing the keys of the iris codes.
+     *                ключи iris code.
      */
     @Autowired
-    public Cryptographer() {
-        try {
-            SecretKey key = KeyGenerator.getInstance("DES").generateKey();
+    public Cryptographer(final KeyRing keyRing) {
+        this.keyRing = keyRing;
+    }
 
-            ecipher = Cipher.getInstance("DES");
-            dcipher = Cipher.getInstance("DES");
-            ecipher.init(Cipher.ENCRYPT_MODE, key);
-            dcipher.init(Cipher.DECRYPT_MODE, key);
-        } catch (Exception exception) {
-            throw new InternalServerException(exception.getMessage());
-        }
+    /**
+     * Returns the id of the key that encrypts new data.
+     * Возвращает id ключа, которым шифруются новые данные.
+     *
+     * @return the id of the key.
+     * id ключа.
+     */
+    public String getKeyId() {
+        return keyRing.getActiveKeyId();
     }
 
     /**
-     * Encodes data.
-     * Шифрует данные.
+     * Encodes data with the active key.
+     * Шифрует данные активным ключом.
      *
      * @param array byte array.
      *              массив байт.
@@ -54,10 +95,22 @@ public class Cryptographer {
      * Кодированные данные.
      */
     public byte[] encrypt(byte[] array) {
+        CryptoEvent event = new CryptoEvent(true, keyRing.getActiveKeyId(), array.length);
         try {
-            return ecipher.doFinal(array);
+            byte[] iv = new byte[IV_LENGTH];
+            random.nextBytes(iv);
+
+            Cipher cipher = ecipher.get();
+            cipher.init(Cipher.ENCRYPT_MODE, keyRing.get(keyRing.getActiveKeyId()), new GCMParameterSpec(TAG_LENGTH, iv));
+
+            byte[] result = new byte[IV_LENGTH + cipher.getOutputSize(array.length)];
+            System.arraycopy(iv, 0, result, 0, IV_LENGTH);
+            cipher.doFinal(array, 0, array.length, result, IV_LENGTH);
+            return result;
         } catch (Exception exception) {
             throw new InternalServerException(exception.getMessage());
+        } finally {
+            event.commit();
         }
     }
 
@@ -65,14 +118,55 @@ public class Cryptographer {
      * Decodes data.
      * Дешифрует данные.
      *
+     * @param keyId the id of the key that encoded data.
+     *              id ключа, которым зашифрованы данные.
      * @param array byte array.
      *              массив байт.
      * @return decoded data.
      * Декодированные данные.
      */
-    public byte[] decrypt(byte[] array) {
+    public byte[] decrypt(String keyId, byte[] array) {
+        byte[] result = new byte[array.length - IV_LENGTH - TAG_LENGTH / 8];
+        decrypt(keyId, array, result);
+        return result;
+    }
+
+    /**
+     * Decodes data into the buffer to avoid the allocation.
+     * Дешифрует данные в буфер, чтобы избежать выделения памяти.
+     *
+     * @param keyId  the id of the key that encoded data.
+     *               id ключа, которым зашифрованы данные.
+     * @param array  byte array.
+     *               массив байт.
+     * @param output the buffer for the decoded data.
+     *               буфер для декодированных данных.
+     * @return the length of the decoded data.
+     * Длина декодированных данных.
+     */
+    public int decrypt(String keyId, byte[] array, byte[] output) {
+        CryptoEvent event = new CryptoEvent(false, keyId, array.length);
+        try {
+            Cipher cipher = dcipher.get();
+            cipher.init(Cipher.DECRYPT_MODE, keyRing.get(keyId), new GCMParameterSpec(TAG_LENGTH, array, 0, IV_LENGTH));
+            return cipher.doFinal(array, IV_LENGTH, array.length - IV_LENGTH, output, 0);
+        } catch (Exception exception) {
+            throw new InternalServerException(exception.getMessage());
+        } finally {
+            event.commit();
+        }
+    }
+
+    /**
+     * Creates a cipher.
+     * Создает шифр.
+     *
+     * @return the cipher.
+     * Шифр.
+     */
+    private static Cipher newCipher() {
         try {
-            return dcipher.doFinal(array);
+            return Cipher.getInstance(TRANSFORMATION);
         } catch (Exception exception) {
             throw new InternalServerException(exception.getMessage());
         }
@@ -0,0 +1,212 @@
+package ru.smirnovv.iris;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * An asynchronous enrollment of an iris.
+ * Асинхронная регистрация РОГ.
+ */
+public class EnrollmentJob {
+    /**
+     * The state of the job.
+     * Состояние задания.
+     */
+    public enum State {
+        /**
+         * The job waits for a worker.
+         * Задание ожидает исполнителя.
+         */
+        PENDING,
+
+        /**
+         * The iris is being detected.
+         * РОГ детектируется.
+         */
+        RUNNING,
+
+        /**
+         * The iris is added.
+         * РОГ добавлен.
+         */
+        DONE,
+
+        /**
+         * The iris is not added.
+         * РОГ не добавлен.
+         */
+        FAILED
+    }
+
+    /**
+     * The id of the job.
+     * Id задания.
+     */
+    private final String id;
+
+    /**
+     * The id of the person.
+     * Id человека.
+     */
+    private final long personId;
+
+    /**
+     * The state of the job.
+     * Состояние задания.
+     */
+    private volatile State state = State.PENDING;
+
+    /**
+     * The id of the added iris.
+     * Id добавленного РОГ.
+     */
+    private volatile Long irisId;
+
+    /**
+     * HTTP status code the synchronous request would get.
+     * HTTP код состояния, который получил бы синхронный запрос.
+     */
+    private volatile Integer status;
+
+    /**
+     * The detail message of the failure.
+     * Подробное сообщение об ошибке.
+     */
+    private volatile String message;
+
+    /**
+     * The time the job finished in milliseconds.
+     * Время завершения задания в миллисекундах.
+     */
+    private volatile long finished;
+
+    /**
+     * Constructs an instance with the specified properties.
+     * Создает экземпляр с указанными свойствами.
+     *
+     * @param id       the id of the job.
+     *                 id задания.
+     * @param personId the id of the person.
+     *                 id человека.
+     */
+    public EnrollmentJob(final String id, final long personId) {
+        this.id = id;
+        this.personId = personId;
+    }
+
+    /**
+     * Marks the job as running.
+     * Отмечает задание выполняющимся.
+     */
+    final void start() {
+        state = State.RUNNING;
+    }
+
+    /**
+     * Marks the job as done.
+     * Отмечает задание выполненным.
+     *
+     * @param addedIrisId the id of the added iris.
+     *                    id добавленного РОГ.
+     */
+    final void complete(final long addedIrisId) {
+        irisId = addedIrisId;
+        status = HttpStatus.CREATED.value();
+        finished = System.currentTimeMillis();
+        state = State.DONE;
+    }
+
+    /**
+     * Marks the job as failed.
+     * Отмечает задание невыполненным.
+     *
+     * @param failureStatus  HTTP status code the synchronous request would get.
+     *                       HTTP код состояния, который получил бы синхронный запрос.
+     * @param failureMessage the detail message of the failure.
+     *                       подробное сообщение об ошибке.
+     */
+    final void fail(final int failureStatus, final String failureMessage) {
+        status = failureStatus;
+        message = failureMessage;
+        finished = System.currentTimeMillis();
+        state = State.FAILED;
+    }
+
+    /**
+     * Returns {@code true} if the job finished before the specified time.
+     * Возвращает {@code true}, если задание завершилось до указанного времени.
+     *
+     * @param time the time in milliseconds.
+     *             время в миллисекундах.
+     * @return {@code true} if the job finished before the time.
+     *         {@code true}, если задание завершилось до этого времени.
+     */
+    final boolean finishedBefore(final long time) {
+        return (state == State.DONE || state == State.FAILED) && finished < time;
+    }
+
+    /**
+     * Returns the id of the job.
+     * Возвращает id задания.
+     *
+     * @return the id of the job.
+     *         id задания.
+     */
+    public final String getId() {
+        return id;
+    }
+
+    /**
+     * Returns the id of the person.
+     * Возвращает id человека.
+     *
+     * @return the id of the person.
+     *         id человека.
+     */
+    public final long getPersonId() {
+        return personId;
+    }
+
+    /**
+     * Returns the state of the job.
+     * Возвращает состояние задания.
+     *
+     * @return the state of the job.
+     *         состояние задания.
+     */
+    public final State getState() {
+        return state;
+    }
+
+    /**
+     * Returns the id of the added iris.
+     * Возвращает id добавленного РОГ.
+     *
+     * @return the id of the iris ({@code null} unless the job is done).
+     *         id РОГ ({@code null}, если задание не выполнено).
+     */
+    public final Long getIrisId() {
+        return irisId;
+    }
+
+    /**
+     * Returns HTTP status code the synchronous request would get.
+     * Возвращает HTTP код состояния, который получил бы синхронный запрос.
+     *
+     * @return HTTP status code ({@code null} until the job finishes).
+     *         HTTP код состояния ({@code null}, пока задание не завершено).
+     */
+    public final Integer getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the detail message of the failure.
+     * Возвращает подробное сообщение об ошибке.
+     *
+     * @return the detail message ({@code null} unless the job failed).
+     *         подробное сообщение ({@code null}, если задание не провалено).
+     */
+    public final String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,20 @@
+package ru.smirnovv.iris;
+
+import ru.smirnovv.NotFoundException;
+
+/**
+ * This exception indicates that the enrollment job is not found or has expired.
+ * Исключение, указывающие на то, что задание регистрации не найдено или устарело.
+ */
+public class EnrollmentJobNotFoundException extends NotFoundException {
+    /**
+     * Constructs an instance with the specified detail message.
+     * Создает экземпляр с указанным подробным сообщением.
+     *
+     * @param message the detail message.
+     *                подробное сообщение.
+     */
+    public EnrollmentJobNotFoundException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,192 @@
+package ru.smirnovv.iris;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.CustomizableThreadFactory;
+import ru.smirnovv.BatchItem;
+import ru.smirnovv.ServiceUnavailableException;
+import ru.smirnovv.person.PersonNotFoundException;
+import ru.smirnovv.person.PersonRepository;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A service that enrolls irises in the background.
+ * Сервис, регистрирующий РОГ в фоновом режиме.
+ */
+@Service
+public class EnrollmentService implements DisposableBean, MeterBinder {
+    /**
+     * A service that manages registered in the system irises.
+     * Сервис, управляющий зарегистрированным РОГ.
+     */
+    private final IrisService irisService;
+
+    /**
+     * A repository that manages registered in the system persons.
+     * Репозиторий, управляющий зарегистрированными людьми.
+     */
+    private final PersonRepository personRepository;
+
+    /**
+     * The workers that detect irises.
+     * Исполнители, детектирующие РОГ.
+     */
+    private final ThreadPoolExecutor workers;
+
+    /**
+     * The time a finished job is kept in milliseconds.
+     * Время хранения завершенного задания в миллисекундах.
+     */
+    private final long jobTtl;
+
+    /**
+     * The jobs by id.
+     * Задания по id.
+     */
+    private final Map<String, EnrollmentJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an instance with injected dependencies.
+     * Создает экземпляр с внедренными зависимостями.
+     *
+     * @param irisService      a service that manages registered in the system irises.
+     *                         сервис, управляющий зарегистрированным РОГ.
+     * @param personRepository a repository that manages registered in the system persons.
+     *                         репозиторий, управляющий зарегистрированными людьми.
+     * @param threads          the number of workers.
+     *                         количество исполнителей.
+     * @param queue            the number of jobs waiting for a worker.
+     *                         количество заданий, ожидающих исполнителя.
+     * @param jobTtl           the time a finished job is kept in milliseconds.
+     *                         время хранения завершенного задания в миллисекундах.
+     */
+    @Autowired
+    public EnrollmentService(final IrisService irisService,
+                             final PersonRepository personRepository,
+                             @Value("${iris.enrollment.threads:2}") final int threads,
+                             @Value("${iris.enrollment.queue:256}") final int queue,
+                             @Value("${iris.enrollment.job-ttl:3600000}") final long jobTtl) {
+        this.irisService = irisService;
+        this.personRepository = personRepository;
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queue), new CustomizableThreadFactory("iris-enrollment-"));
+        this.jobTtl = jobTtl;
+    }
+
+    /**
+     * Queues a new iris for the enrollment.
+     * Ставит новый РОГ в очередь на регистрацию.
+     *
+     * @param personId  the id of the person.
+     *                  id человека.
+     * @param irisImage the image of the iris.
+     *                  изображение РОГ.
+     * @return the queued job.
+     *         поставленное в очередь задание.
+     * @throws PersonNotFoundException     is thrown when a person with such id does not exist.
+     *                                     данное исключение, выбрасывается если человек с данным id не найден.
+     * @throws ServiceUnavailableException is thrown when the queue is full.
+     *                                     данное исключение, выбрасывается если очередь заполнена.
+     */
+    public EnrollmentJob submit(final long personId, final byte[] irisImage) throws PersonNotFoundException,
+            ServiceUnavailableException {
+        if (!personRepository.existsById(personId)) {
+            throw new PersonNotFoundException("Person " + personId + " not found.");
+        }
+        removeExpired();
+
+        EnrollmentJob job = new EnrollmentJob(UUID.randomUUID().toString(), personId);
+        jobs.put(job.getId(), job);
+        try {
+            workers.execute(() -> run(job, irisImage));
+        } catch (RejectedExecutionException exception) {
+            jobs.remove(job.getId());
+            throw new ServiceUnavailableException("The enrollment queue is full, try again later.");
+        }
+        return job;
+    }
+
+    /**
+     * Returns the job by id.
+     * Возвращает задание по id.
+     *
+     * @param id the id of the job.
+     *           id задания.
+     * @return the job.
+     *         задание.
+     * @throws EnrollmentJobNotFoundException is thrown when a job with such id does not exist or has expired.
+     *                                        данное исключение, выбрасывается если задание не найдено или устарело.
+     */
+    public EnrollmentJob getJob(final String id) throws EnrollmentJobNotFoundException {
+        EnrollmentJob job = jobs.get(id);
+        if (job == null || job.finishedBefore(System.currentTimeMillis() - jobTtl)) {
+            throw new EnrollmentJobNotFoundException("Job " + id + " not found.");
+        }
+        return job;
+    }
+
+    /**
+     * Registers the depth of the queue and the number of the kept jobs.
+     * Регистрирует глубину очереди и количество хранимых заданий.
+     *
+     * @param registry a registry of the metrics.
+     *                 реестр метрик.
+     */
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("iris.enrollment.queue", workers, pool -> pool.getQueue().size())
+                .description("The enrollment jobs waiting for a worker")
+                .register(registry);
+        Gauge.builder("iris.enrollment.jobs", jobs, Map::size)
+                .description("The enrollment jobs kept for the status requests")
+                .register(registry);
+    }
+
+    /**
+     * Stops the workers.
+     * Останавливает исполнителей.
+     */
+    @Override
+    public void destroy() {
+        workers.shutdown();
+    }
+
+    /**
+     * Detects and stores the iris of the job.
+     * Детектирует и сохраняет РОГ задания.
+     *
+     * @param job       the job.
+     *                  задание.
+     * @param irisImage the image of the iris.
+     *                  изображение РОГ.
+     */
+    private void run(final EnrollmentJob job, final byte[] irisImage) {
+        job.start();
+        try {
+            job.complete(irisService.add(job.getPersonId(), irisImage).getId());
+        } catch (RuntimeException exception) {
+            job.fail(BatchItem.statusOf(exception), exception.getMessage());
+        }
+    }
+
+    /**
+     * Removes the jobs finished longer ago than their time to live.
+     * Удаляет задания, завершенные раньше их времени жизни.
+     */
+    private void removeExpired() {
+        long expired = System.currentTimeMillis() - jobTtl;
+        jobs.values().removeIf(job -> job.finishedBefore(expired));
+    }
+}
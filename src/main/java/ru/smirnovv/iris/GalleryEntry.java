@@ -0,0 +1,95 @@
+package ru.smirnovv.iris;
+
+/**
+ * A read-only view of a registered iris that holds only what the comparison needs.
+ * Представление зарегистрированного РОГ только для чтения, содержащее лишь нужное для сравнения.
+ */
+public class GalleryEntry {
+    /**
+     * The id of the iris.
+     * Id РОГ.
+     */
+    private final long id;
+
+    /**
+     * The id of the person who owns the iris.
+     * Id человека, которому принадлежит РОГ.
+     */
+    private final long personId;
+
+    /**
+     * The id of the key that encrypted the iris code.
+     * Id ключа, которым зашифрован iris code.
+     */
+    private final String keyId;
+
+    /**
+     * The encrypted iris code.
+     * Зашифрованный iris code.
+     */
+    private final byte[] irisCode;
+
+    /**
+     * Constructs an instance with the specified properties.
+     * Создает экземпляр с указанными свойствами.
+     *
+     * @param id       the id of the iris.
+     *                 id РОГ.
+     * @param personId the id of the person who owns the iris.
+     *                 id человека, которому принадлежит РОГ.
+     * @param keyId    the id of the key that encrypted the iris code.
+     *                 id ключа, которым зашифрован iris code.
+     * @param irisCode the encrypted iris code.
+     *                 зашифрованный iris code.
+     */
+    public GalleryEntry(final long id, final long personId, final String keyId, final byte[] irisCode) {
+        this.id = id;
+        this.personId = personId;
+        this.keyId = keyId;
+        this.irisCode = irisCode;
+    }
+
+    /**
+     * Returns the id of the iris.
+     * Возвращает id РОГ.
+     *
+     * @return the id of the iris.
+     * id РОГ.
+     */
+    public final long getId() {
+        return id;
+    }
+
+    /**
+     * Returns the id of the person who owns the iris.
+     * Возвращает id человека, которому принадлежит РОГ.
+     *
+     * @return the id of the person.
+     * id человека.
+     */
+    public final long getPersonId() {
+        return personId;
+    }
+
+    /**
+     * Returns the id of the key that encrypted the iris code.
+     * Возвращает id ключа, которым зашифрован iris code.
+     *
+     * @return the id of the key.
+     * id ключа.
+     */
+    public final String getKeyId() {
+        return keyId;
+    }
+
+    /**
+     * Returns the encrypted iris code.
+     * Возвращает зашифрованный iris code.
+     *
+     * @return the encrypted iris code.
+     * зашифрованный iris code.
+     */
+    public final byte[] getIrisCode() {
+        return irisCode;
+    }
+}
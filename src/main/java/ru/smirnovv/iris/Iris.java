@@ -42,6 +42,12 @@ public class Iris {
             foreignKey = @ForeignKey(name = "Person_id"))
     private Person person;
 
+    /**
+     * The id of the key that encrypted the iris code.
+     * Id ключа, которым зашифрован iris code.
+     */
+    private String keyId;
+
     /**
      * The iris code.
      */
@@ -65,7 +71,23 @@ public class Iris {
      *                 iris сode.
      */
     public Iris(@NotNull Person person, @NotEmpty byte[] irisCode) {
+        this(person, null, irisCode);
+    }
+
+    /**
+     * Constructs an instance with the specified properties.
+     * Создает экземпляр с внедренными зависимостями.
+     *
+     * @param person   the person who owns the iris.
+     *                 человек, которому принадлежит РОГ.
+     * @param keyId    the id of the key that encrypted the iris code.
+     *                 id ключа, которым зашифрован iris code.
+     * @param irisCode the iris code.
+     *                 iris сode.
+     */
+    public Iris(@NotNull Person person, String keyId, @NotEmpty byte[] irisCode) {
         this.person = person;
+        this.keyId = keyId;
         this.irisCode = irisCode;
     }
 
@@ -103,6 +125,17 @@ public class Iris {
     }
 
 
+    /**
+     * Returns the id of the key that encrypted the iris code.
+     * Возвращает id ключа, которым зашифрован iris code.
+     *
+     * @return the id of the key.
+     * id ключа.
+     */
+    public final String getKeyId() {
+        return keyId;
+    }
+
     /**
      * Returns the iris code.
      * Возвращает iris code.
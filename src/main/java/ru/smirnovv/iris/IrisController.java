@@ -4,7 +4,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -14,8 +16,16 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import ru.smirnovv.BatchItem;
+import ru.smirnovv.KeysetPage;
 import ru.smirnovv.person.Person;
 
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.springframework.util.Assert.notNull;
 
 /**
@@ -31,17 +41,27 @@ public class IrisController {
      */
     private final IrisService irisService;
 
+    /**
+     * A service that enrolls irises in the background.
+     * Сервис, регистрирующий РОГ в фоновом режиме.
+     */
+    private final EnrollmentService enrollmentService;
+
     /**
      * Constructs an instance with injected dependencies.
      * Создает экземпляр с внедренными зависимостями.
      *
-     * @param irisService a service that manages registered in the system irises.
-     *                    сервис, управляющий зарегистрированным РОГ.
+     * @param irisService       a service that manages registered in the system irises.
+     *                          сервис, управляющий зарегистрированным РОГ.
+     * @param enrollmentService a service that enrolls irises in the background.
+     *                          сервис, регистрирующий РОГ в фоновом режиме.
      */
     @Autowired
-    public IrisController(final IrisService irisService) {
+    public IrisController(final IrisService irisService, final EnrollmentService enrollmentService) {
         notNull(irisService, "Argument 'irisService' can not be null");
+        notNull(enrollmentService, "Argument 'enrollmentService' can not be null");
         this.irisService = irisService;
+        this.enrollmentService = enrollmentService;
     }
 
     /**
@@ -58,6 +78,27 @@ public class IrisController {
         return irisService.list(pageable);
     }
 
+    /**
+     * Lists irises registered in the system after the id.
+     * Вернуть список зарегистрированных РОГ после id.
+     *
+     * @param after     the id to continue after, {@code 0} for the first page.
+     *                  id, после которого продолжить, {@code 0} для первой страницы.
+     * @param size      the size of the page.
+     *                  размер страницы.
+     * @param withCodes whether to include the iris codes.
+     *                  включать ли iris code.
+     * @return the page of retrieved irises.
+     * Найденные РОГ.
+     */
+    @GetMapping(params = "after")
+    public final KeysetPage<IrisSummary> listAfter(@RequestParam final long after,
+                                                   @RequestParam(defaultValue = "20") final int size,
+                                                   @RequestParam(name = "codes", defaultValue = "false")
+                                                   final boolean withCodes) {
+        return irisService.listAfter(after, size, withCodes);
+    }
+
     /**
      * Lists all irises of the person in the system.
      * Вернуть список все зарегистрированных РОГ человека.
@@ -105,6 +146,65 @@ public class IrisController {
         return irisService.add(personId, irisImage);
     }
 
+    /**
+     * Queues a new iris for the enrollment if the client prefers an asynchronous response.
+     * Ставит новый РОГ в очередь на регистрацию, если клиент предпочитает асинхронный ответ.
+     *
+     * @param personId  the id of the person.
+     *                  id человека.
+     * @param irisImage the image of the iris.
+     *                  изображение РОГ.
+     * @return the queued job with the status 202 and its location.
+     * Поставленное в очередь задание с кодом 202 и его адресом.
+     */
+    @PostMapping(headers = {"personId", "Prefer=respond-async"},
+            consumes = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE})
+    public final ResponseEntity<EnrollmentJob> submit(@RequestHeader final long personId,
+                                                      @RequestBody final byte[] irisImage) {
+        EnrollmentJob job = enrollmentService.submit(personId, irisImage);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/iris/jobs/" + job.getId()))
+                .body(job);
+    }
+
+    /**
+     * Returns the enrollment job by id.
+     * Возвращает задание регистрации по id.
+     *
+     * @param id the id of the job.
+     *           id задания.
+     * @return the found job.
+     * Найденное задание.
+     */
+    @GetMapping("/jobs/{id}")
+    public final EnrollmentJob getJob(@PathVariable final String id) {
+        return enrollmentService.getJob(id);
+    }
+
+    /**
+     * Adds new irises of one or several persons in one transaction.
+     * Добавить новые РОГ одного или нескольких людей в одной транзакции.
+     *
+     * @param personIds  the ids of the persons, one for all images or one per image.
+     *                   id людей, один для всех изображений или по одному на изображение.
+     * @param irisImages the images of the irises.
+     *                   изображения РОГ.
+     * @return the added irises or the failures in the order of the images.
+     * добавленные РОГ или ошибки в порядке изображений.
+     * @throws IOException is thrown when an image can not be read.
+     *                     данное исключение, выбрасывается если изображение не читается.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public final List<BatchItem<Iris>> addAll(@RequestParam("personId") final List<Long> personIds,
+                                              @RequestParam("image") final List<MultipartFile> irisImages)
+            throws IOException {
+        List<byte[]> images = new ArrayList<>(irisImages.size());
+        for (MultipartFile irisImage : irisImages) {
+            images.add(irisImage.getBytes());
+        }
+        return irisService.addAll(personIds, images);
+    }
+
     /**
      * Removes the iris by id if it exists.
      * Удалить РОГ по id, если найден
@@ -3,8 +3,19 @@ package ru.smirnovv.iris;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.annotations.QueryHints.FETCH_SIZE;
+import static org.hibernate.annotations.QueryHints.READ_ONLY;
 
 /**
  * A repository that manages registered in the system irises.
@@ -36,11 +47,170 @@ public interface IrisRepository extends JpaRepository<Iris, Long> {
     List<Iris> findAllByPersonId(Long personId);
 
     /**
-     * Removes all irises of the person in the system.
-     * Удалить все РОГ человека из системы.
+     * Finds the irises after the id, without the iris codes.
+     * Найти РОГ после id, без iris code.
+     *
+     * @param after    the id to continue after.
+     *                 id, после которого продолжить.
+     * @param pageable the size of the page.
+     *                 размер страницы.
+     * @return the irises in the order of ids.
+     * Найденные РОГ в порядке id.
+     */
+    @Query("select new ru.smirnovv.iris.IrisSummary(i.id, p.id, p.name) from Iris i join i.person p "
+            + "where i.id > :after order by i.id")
+    List<IrisSummary> findSummariesAfter(@Param("after") Long after, Pageable pageable);
+
+    /**
+     * Finds the irises after the id, with the iris codes.
+     * Найти РОГ после id, с iris code.
+     *
+     * @param after    the id to continue after.
+     *                 id, после которого продолжить.
+     * @param pageable the size of the page.
+     *                 размер страницы.
+     * @return the irises in the order of ids.
+     * Найденные РОГ в порядке id.
+     */
+    @Query("select new ru.smirnovv.iris.IrisSummary(i.id, p.id, p.name, i.irisCode) from Iris i join i.person p "
+            + "where i.id > :after order by i.id")
+    List<IrisSummary> findSummariesWithCodesAfter(@Param("after") Long after, Pageable pageable);
+
+    /**
+     * Removes the iris by id with one statement, without loading it.
+     * Удалить РОГ по id одним запросом, без его загрузки.
+     *
+     * @param id the id of the iris.
+     *           id РОГ.
+     * @return the number of removed irises.
+     * Количество удаленных РОГ.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Iris i where i.id = :id")
+    int deleteIrisById(@Param("id") Long id);
+
+    /**
+     * Removes all irises of the person in the system with one statement, without loading them.
+     * Удалить все РОГ человека из системы одним запросом, без их загрузки.
+     *
+     * @param personId the id of the person.
+     *                 id человека.
+     * @return the number of removed irises.
+     * Количество удаленных РОГ.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Iris i where i.person.id = :personId")
+    int deleteIrisesByPersonId(@Param("personId") Long personId);
+
+    /**
+     * Streams the gallery, only the columns the comparison needs and without the persons.
+     * Rows are fetched from the cursor in blocks, so the whole gallery is never in memory.
+     * The stream must be consumed inside a transaction and closed.
+     * Передает галерею потоком, только нужные для сравнения столбцы и без людей.
+     * Строки читаются из курсора блоками, поэтому галерея целиком не находится в памяти.
+     * Поток должен читаться внутри транзакции и быть закрыт.
+     *
+     * @return the gallery entries.
+     * Записи галереи.
+     */
+    @QueryHints({@QueryHint(name = READ_ONLY, value = "true"),
+            @QueryHint(name = FETCH_SIZE, value = "256")})
+    @Query("select new ru.smirnovv.iris.GalleryEntry(i.id, i.person.id, i.keyId, i.irisCode) from Iris i order by i.id")
+    Stream<GalleryEntry> streamGallery();
+
+    /**
+     * Loads the gallery of the person, only the columns the comparison needs and without the person.
+     * Загружает галерею человека, только нужные для сравнения столбцы и без человека.
      *
      * @param personId the id of the person.
      *                 id человека.
+     * @return the gallery entries.
+     * Записи галереи.
+     */
+    @QueryHints(@QueryHint(name = READ_ONLY, value = "true"))
+    @Query("select new ru.smirnovv.iris.GalleryEntry(i.id, i.person.id, i.keyId, i.irisCode) from Iris i "
+            + "where i.person.id = :personId order by i.id")
+    List<GalleryEntry> findGalleryByPersonId(@Param("personId") Long personId);
+
+    /**
+     * Streams the gallery of the persons, only the columns the comparison needs and without the persons.
+     * The stream must be consumed inside a transaction and closed.
+     * Передает галерею людей потоком, только нужные для сравнения столбцы и без людей.
+     * Поток должен читаться внутри транзакции и быть закрыт.
+     *
+     * @param personIds the ids of the persons.
+     *                  id людей.
+     * @return the gallery entries.
+     * Записи галереи.
+     */
+    @QueryHints({@QueryHint(name = READ_ONLY, value = "true"),
+            @QueryHint(name = FETCH_SIZE, value = "256")})
+    @Query("select new ru.smirnovv.iris.GalleryEntry(i.id, i.person.id, i.keyId, i.irisCode) from Iris i "
+            + "where i.person.id in :personIds order by i.id")
+    Stream<GalleryEntry> streamGalleryByPersonIdIn(@Param("personIds") Collection<Long> personIds);
+
+    /**
+     * Streams the gallery without the persons, only the columns the comparison needs and without the persons.
+     * The stream must be consumed inside a transaction and closed.
+     * Передает потоком галерею без указанных людей, только нужные для сравнения столбцы и без людей.
+     * Поток должен читаться внутри транзакции и быть закрыт.
+     *
+     * @param personIds the ids of the excluded persons, not empty.
+     *                  id исключаемых людей, не пустой.
+     * @return the gallery entries.
+     * Записи галереи.
+     */
+    @QueryHints({@QueryHint(name = READ_ONLY, value = "true"),
+            @QueryHint(name = FETCH_SIZE, value = "256")})
+    @Query("select new ru.smirnovv.iris.GalleryEntry(i.id, i.person.id, i.keyId, i.irisCode) from Iris i "
+            + "where i.person.id not in :personIds order by i.id")
+    Stream<GalleryEntry> streamGalleryByPersonIdNotIn(@Param("personIds") Collection<Long> personIds);
+
+    /**
+     * Finds the ids of the keys that encrypted the stored iris codes, null for the codes without a key.
+     * Найти id ключей, которыми зашифрованы сохраненные iris code, null для кодов без ключа.
+     *
+     * @return the distinct ids of the keys.
+     * Различные id ключей.
+     */
+    @Query("select distinct i.keyId from Iris i")
+    List<String> findDistinctKeyIds();
+
+    /**
+     * Finds the irises encrypted with another key than the specified one after the id.
+     * Найти РОГ, зашифрованные ключом, отличным от указанного, после id.
+     *
+     * @param keyId    the id of the key.
+     *                 id ключа.
+     * @param after    the id to continue after.
+     *                 id, после которого продолжить.
+     * @param pageable the size of the page.
+     *                 размер страницы.
+     * @return the gallery entries in the order of ids.
+     * Записи галереи в порядке id.
+     */
+    @Query("select new ru.smirnovv.iris.GalleryEntry(i.id, i.person.id, i.keyId, i.irisCode) from Iris i "
+            + "where i.keyId <> :keyId and i.id > :after order by i.id")
+    List<GalleryEntry> findGalleryByKeyIdNot(@Param("keyId") String keyId, @Param("after") Long after,
+                                             Pageable pageable);
+
+    /**
+     * Replaces the iris code if it is still encrypted with the old key.
+     * Заменить iris code, если он все еще зашифрован старым ключом.
+     *
+     * @param id       the id of the iris.
+     *                 id РОГ.
+     * @param oldKeyId the id of the old key.
+     *                 id старого ключа.
+     * @param keyId    the id of the new key.
+     *                 id нового ключа.
+     * @param irisCode the iris code encrypted with the new key.
+     *                 iris code, зашифрованный новым ключом.
+     * @return the number of updated irises.
+     * Количество обновленных РОГ.
      */
-    void deleteIrisesByPersonId(Long personId);
+    @Modifying
+    @Query("update Iris i set i.keyId = :keyId, i.irisCode = :irisCode where i.id = :id and i.keyId = :oldKeyId")
+    int updateIrisCode(@Param("id") Long id, @Param("oldKeyId") String oldKeyId, @Param("keyId") String keyId,
+                       @Param("irisCode") byte[] irisCode);
 }
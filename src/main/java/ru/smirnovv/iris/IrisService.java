@@ -1,16 +1,32 @@
 package ru.smirnovv.iris;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.smirnovv.BadRequestException;
+import ru.smirnovv.BatchItem;
+import ru.smirnovv.GalleryChangedEvent;
+import ru.smirnovv.KeysetPage;
 import ru.smirnovv.iris.irisDetection.IrisDetector;
 import ru.smirnovv.iris.irisDetection.IrisNotFoundException;
+import ru.smirnovv.iris.irisDetection.IrisTemplate;
+import ru.smirnovv.monitoring.ServerTiming;
 import ru.smirnovv.person.Person;
 import ru.smirnovv.person.PersonNotFoundException;
 import ru.smirnovv.person.PersonRepository;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * A service that manages registered in the system irises.
  * Сервис, управляющий зарегистрированным РОГ.
@@ -42,25 +58,44 @@ public class IrisService {
      */
     private final Cryptographer cryptographer;
 
+    /**
+     * A publisher of the gallery changes.
+     * Издатель изменений галереи.
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * A template of transactions that store detected irises.
+     * Шаблон транзакций, сохраняющих детектированные РОГ.
+     */
+    private final TransactionTemplate transactionTemplate;
+
     /**
      * Constructs an instance with injected dependencies.
      * Создает экземпляр с внедренными зависимостями.
      *
-     * @param irisRepository   a repository that manages registered in the system irises.
-     *                         репозиторий, управляющий зарегистрированными РОГ.
-     * @param personRepository a repository that manages registered in the system persons.
-     *                         репозиторий, управляющий зарегистрированными людьми.
-     * @param irisDetector     a class that provides iris detection.
-     *                         класс, обеспечивающий детектирование РОГ.
-     * @param cryptographer    a class that manages encode data.
-     *                         класс, обеспечивающий шифрование данных.
+     * @param irisRepository     a repository that manages registered in the system irises.
+     *                           репозиторий, управляющий зарегистрированными РОГ.
+     * @param personRepository   a repository that manages registered in the system persons.
+     *                           репозиторий, управляющий зарегистрированными людьми.
+     * @param irisDetector       a class that provides iris detection.
+     *                           класс, обеспечивающий детектирование РОГ.
+     * @param cryptographer      a class that manages encode data.
+     *                           класс, обеспечивающий шифрование данных.
+     * @param eventPublisher     a publisher of the gallery changes.
+     *                           издатель изменений галереи.
+     * @param transactionManager a manager of transactions.
+     *                           менеджер транзакций.
      */
     @Autowired
-    public IrisService(IrisRepository irisRepository, PersonRepository personRepository, IrisDetector irisDetector, Cryptographer cryptographer) {
+    public IrisService(IrisRepository irisRepository, PersonRepository personRepository, IrisDetector irisDetector, Cryptographer cryptographer,
+                       ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager) {
         this.irisRepository = irisRepository;
         this.personRepository = personRepository;
         this.irisDetector = irisDetector;
         this.cryptographer = cryptographer;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -77,6 +112,30 @@ public class IrisService {
         return irisRepository.findAll(pageable);
     }
 
+    /**
+     * Lists irises registered in the system after the id.
+     * Возвращает список зарегистрированных РОГ после id.
+     *
+     * @param after     the id to continue after, {@code 0} for the first page.
+     *                  id, после которого продолжить, {@code 0} для первой страницы.
+     * @param size      the size of the page.
+     *                  размер страницы.
+     * @param withCodes whether to include the iris codes.
+     *                  включать ли iris code.
+     * @return the page of retrieved irises.
+     * страница зарегистрированных РОГ.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<IrisSummary> listAfter(final long after, final int size, final boolean withCodes) {
+        KeysetPage.checkSize(size);
+
+        PageRequest limit = PageRequest.of(0, size);
+        List<IrisSummary> irises = withCodes
+                ? irisRepository.findSummariesWithCodesAfter(after, limit)
+                : irisRepository.findSummariesAfter(after, limit);
+        return KeysetPage.of(irises, size, IrisSummary::getId);
+    }
+
     /**
      * Lists all irises of the person in the system.
      * Возвращает список все зарегистрированных РОГ человека.
@@ -127,13 +186,111 @@ public class IrisService {
      * @throws IrisNotFoundException     is thrown when a iris not found or the eye is not fully visible..
      *                                   данное исключение, выбрасывается если РОГ не обнаружено.
      */
-    @Transactional
     public Iris add(final long personId, final byte[] irisImage) throws PersonNotFoundException,
             InvalidIrisImageException, IrisNotFoundException {
-        return irisRepository.save(new Iris(
-                personRepository.findById(personId).orElseThrow(
-                        () -> new PersonNotFoundException("Person " + personId + " not found.")),
-                cryptographer.encrypt(irisDetector.createIrisCode(irisImage))));
+        if (!personRepository.existsById(personId)) {
+            throw new PersonNotFoundException("Person " + personId + " not found.");
+        }
+
+        // Detects iris outside of the transaction, so the connection is held only for the insert.
+        // Детектирование РОГ вне транзакции, соединение удерживается только на время вставки.
+        byte[] irisCode = encode(irisImage);
+        String keyId = cryptographer.getKeyId();
+
+        Iris iris = ServerTiming.time(ServerTiming.Metric.DB, () -> transactionTemplate.execute(
+                status -> irisRepository.save(new Iris(
+                        personRepository.findById(personId).orElseThrow(
+                                () -> new PersonNotFoundException("Person " + personId + " not found.")),
+                        keyId, irisCode))));
+        eventPublisher.publishEvent(new GalleryChangedEvent(this));
+        return iris;
+    }
+
+    /**
+     * Adds new irises of one or several persons in one transaction.
+     * Добавить новые РОГ одного или нескольких людей в одной транзакции.
+     *
+     * @param personIds  the ids of the persons, one for all images or one per image.
+     *                   id людей, один для всех изображений или по одному на изображение.
+     * @param irisImages the images of the irises.
+     *                   изображения РОГ.
+     * @return the added irises or the failures in the order of the images.
+     * добавленные РОГ или ошибки в порядке изображений.
+     * @throws BadRequestException is thrown when the number of ids does not match the number of images.
+     *                             данное исключение, выбрасывается если количество id не соответствует количеству изображений.
+     */
+    public List<BatchItem<Iris>> addAll(final List<Long> personIds, final List<byte[]> irisImages)
+            throws BadRequestException {
+        if (personIds.size() != 1 && personIds.size() != irisImages.size()) {
+            throw new BadRequestException("Expected one 'personId' or one per image, got "
+                    + personIds.size() + " for " + irisImages.size() + " images.");
+        }
+
+        // Detects irises outside of the transaction.
+        // Детектирование РОГ вне транзакции.
+        List<BatchItem<Iris>> items = new ArrayList<>(irisImages.size());
+        List<byte[]> irisCodes = new ArrayList<>(irisImages.size());
+        String keyId = cryptographer.getKeyId();
+        for (int i = 0; i < irisImages.size(); i++) {
+            try {
+                irisCodes.add(encode(irisImages.get(i)));
+                items.add(null);
+            } catch (RuntimeException exception) {
+                irisCodes.add(null);
+                items.add(BatchItem.failure(i, exception));
+            }
+        }
+
+        // Saves all detected irises in one transaction, the inserts are sent in JDBC batches.
+        // Сохранение всех РОГ в одной транзакции, вставки отправляются JDBC пакетами.
+        int added = ServerTiming.time(ServerTiming.Metric.DB, () -> transactionTemplate.execute(status -> {
+            Map<Long, Person> persons = new HashMap<>();
+            for (Person person : personRepository.findAllById(personIds)) {
+                persons.put(person.getId(), person);
+            }
+
+            List<Iris> irises = new ArrayList<>();
+            List<Integer> indexes = new ArrayList<>();
+            for (int i = 0; i < irisCodes.size(); i++) {
+                if (irisCodes.get(i) == null) {
+                    continue;
+                }
+                long personId = personIds.get(personIds.size() == 1 ? 0 : i);
+                Person person = persons.get(personId);
+                if (person == null) {
+                    items.set(i, BatchItem.failure(i,
+                            new PersonNotFoundException("Person " + personId + " not found.")));
+                } else {
+                    irises.add(new Iris(person, keyId, irisCodes.get(i)));
+                    indexes.add(i);
+                }
+            }
+
+            List<Iris> saved = irisRepository.saveAll(irises);
+            for (int j = 0; j < saved.size(); j++) {
+                items.set(indexes.get(j), BatchItem.success(indexes.get(j), saved.get(j)));
+            }
+            return saved.size();
+        }));
+
+        if (added > 0) {
+            eventPublisher.publishEvent(new GalleryChangedEvent(this));
+        }
+        return items;
+    }
+
+    /**
+     * Detects iris and creates the encrypted iris code.
+     * Детектирует РОГ и создает зашифрованный iris code.
+     *
+     * @param irisImage the image of the iris.
+     *                  изображение РОГ.
+     * @return the encrypted iris code.
+     * зашифрованный iris code.
+     */
+    private byte[] encode(final byte[] irisImage) {
+        IrisTemplate template = irisDetector.createIrisTemplate(irisImage);
+        return ServerTiming.time(ServerTiming.Metric.ENCODE, () -> cryptographer.encrypt(template.toBytes()));
     }
 
     /**
@@ -145,7 +302,9 @@ public class IrisService {
      */
     @Transactional
     public void remove(final long id) {
-        irisRepository.deleteById(id);
+        if (irisRepository.deleteIrisById(id) > 0) {
+            eventPublisher.publishEvent(new GalleryChangedEvent(this));
+        }
     }
 
     /**
@@ -157,6 +316,8 @@ public class IrisService {
      */
     @Transactional
     public void removeIrisesByPersonId(final long personId) {
-        irisRepository.deleteIrisesByPersonId(personId);
+        if (irisRepository.deleteIrisesByPersonId(personId) > 0) {
+            eventPublisher.publishEvent(new GalleryChangedEvent(this, Collections.singleton(personId)));
+        }
     }
 }
@@ -0,0 +1,113 @@
+package ru.smirnovv.iris;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A listing view of a registered iris, the iris code is left out unless requested.
+ * Представление зарегистрированного РОГ для списков, iris code не включается без запроса.
+ */
+public class IrisSummary {
+    /**
+     * The id of the iris.
+     * Id РОГ.
+     */
+    private final long id;
+
+    /**
+     * The id of the person who owns the iris.
+     * Id человека, которому принадлежит РОГ.
+     */
+    private final long personId;
+
+    /**
+     * The name of the person who owns the iris.
+     * Имя человека, которому принадлежит РОГ.
+     */
+    private final String personName;
+
+    /**
+     * The encrypted iris code ({@code null} if left out).
+     * Зашифрованный iris code ({@code null}, если не включен).
+     */
+    private final byte[] irisCode;
+
+    /**
+     * Constructs an instance without the iris code.
+     * Создает экземпляр без iris code.
+     *
+     * @param id         the id of the iris.
+     *                   id РОГ.
+     * @param personId   the id of the person who owns the iris.
+     *                   id человека, которому принадлежит РОГ.
+     * @param personName the name of the person who owns the iris.
+     *                   имя человека, которому принадлежит РОГ.
+     */
+    public IrisSummary(final long id, final long personId, final String personName) {
+        this(id, personId, personName, null);
+    }
+
+    /**
+     * Constructs an instance with the specified properties.
+     * Создает экземпляр с указанными свойствами.
+     *
+     * @param id         the id of the iris.
+     *                   id РОГ.
+     * @param personId   the id of the person who owns the iris.
+     *                   id человека, которому принадлежит РОГ.
+     * @param personName the name of the person who owns the iris.
+     *                   имя человека, которому принадлежит РОГ.
+     * @param irisCode   the encrypted iris code.
+     *                   зашифрованный iris code.
+     */
+    public IrisSummary(final long id, final long personId, final String personName, final byte[] irisCode) {
+        this.id = id;
+        this.personId = personId;
+        this.personName = personName;
+        this.irisCode = irisCode;
+    }
+
+    /**
+     * Returns the id of the iris.
+     * Возвращает id РОГ.
+     *
+     * @return the id of the iris.
+     * id РОГ.
+     */
+    public final long getId() {
+        return id;
+    }
+
+    /**
+     * Returns the id of the person who owns the iris.
+     * Возвращает id человека, которому принадлежит РОГ.
+     *
+     * @return the id of the person.
+     * id человека.
+     */
+    public final long getPersonId() {
+        return personId;
+    }
+
+    /**
+     * Returns the name of the person who owns the iris.
+     * Возвращает имя человека, которому принадлежит РОГ.
+     *
+     * @return the name of the person.
+     * имя человека.
+     */
+    public final String getPersonName() {
+        return personName;
+    }
+
+    /**
+     * Returns the encrypted iris code.
+     * Возвращает зашифрованный iris code.
+     *
+     * @return the encrypted iris code ({@code null} if left out).
+     * зашифрованный iris code ({@code null}, если не включен).
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public final byte[] getIrisCode() {
+        return irisCode;
+    }
+}
@@ -0,0 +1,196 @@
+package ru.smirnovv.iris;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.smirnovv.InternalServerException;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.KeyStore;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The keys of the iris codes loaded from a local keystore file.
+ * Ключи iris code, загруженные из локального файла хранилища ключей.
+ * <p>
+ * The active key encrypts new codes, the other keys only decrypt the codes that are not re-encrypted yet.
+ * A missing active key is generated and saved to the keystore only when the generation is enabled,
+ * so a new alias of the active key starts the rotation. The startup fails if the active key
+ * or a key of a stored iris code is not in the keystore.
+ * Активный ключ шифрует новые коды, остальные ключи только дешифруют еще не перешифрованные коды.
+ * Отсутствующий активный ключ генерируется и сохраняется в хранилище, только если генерация включена,
+ * поэтому новый псевдоним активного ключа запускает ротацию. Запуск завершается ошибкой, если активного ключа
+ * или ключа сохраненного iris code нет в хранилище.
+ */
+@Component
+public class KeyRing {
+    /**
+     * The type of the keystore.
+     * Тип хранилища ключей.
+     */
+    private static final String KEYSTORE_TYPE = "JCEKS";
+
+    /**
+     * The keys by ids.
+     * Ключи по id.
+     */
+    private final Map<String, SecretKey> keys;
+
+    /**
+     * The id of the key that encrypts new codes.
+     * Id ключа, шифрующего новые коды.
+     */
+    private final String activeKeyId;
+
+    /**
+     * Constructs an instance with the configured keystore and checks the keys of the stored iris codes.
+     * Создает экземпляр с настроенным хранилищем ключей и проверяет ключи сохраненных iris code.
+     *
+     * @param path        the path of the keystore file.
+     *                    путь к файлу хранилища ключей.
+     * @param password    the password of the keystore and its keys, has no default and comes from
+     *                    the IRIS_CRYPTO_KEYSTORE_PASSWORD environment variable or an external configuration.
+     *                    пароль хранилища ключей и его ключей, не имеет значения по умолчанию и задается
+     *                    переменной окружения IRIS_CRYPTO_KEYSTORE_PASSWORD или внешней конфигурацией.
+     * @param activeKeyId the alias of the key that encrypts new codes, the aliases are case-insensitive.
+     *                    псевдоним ключа, шифрующего новые коды, псевдонимы нечувствительны к регистру.
+     * @param generateKey whether the missing active key and keystore file are generated.
+     *                    генерируются ли отсутствующие активный ключ и файл хранилища.
+     * @param repository  the repository of the irises, whose keys are checked.
+     *                    репозиторий РОГ, ключи которых проверяются.
+     * @throws InternalServerException is thrown when the keystore cannot be loaded or a required key is missing.
+     *                                 данное исключение, выбрасывается если хранилище не загружается
+     *                                 или нужного ключа нет.
+     */
+    @Autowired
+    public KeyRing(@Value("${iris.crypto.keystore:iris-keys.jceks}") final String path,
+                   @Value("${iris.crypto.keystore-password}") final String password,
+                   @Value("${iris.crypto.active-key:iris-1}") final String activeKeyId,
+                   @Value("${iris.crypto.generate-key:false}") final boolean generateKey,
+                   final IrisRepository repository) throws InternalServerException {
+        this(path, password, activeKeyId, generateKey);
+
+        List<String> keyIds = repository.findDistinctKeyIds();
+        if (keyIds.contains(null)) {
+            // The codes saved before the keystore have no key id and can not be decrypted by any key.
+            // Коды, сохраненные до хранилища ключей, не имеют id ключа и не расшифровываются ни одним ключом.
+            throw new InternalServerException("Some stored iris codes have no key id,"
+                    + " delete them or enroll these irises again.");
+        }
+        List<String> missing = keyIds.stream()
+                .filter(keyId -> !keys.containsKey(keyId))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new InternalServerException("Keys " + missing
+                    + " of the stored iris codes not found in the keystore.");
+        }
+    }
+
+    /**
+     * Constructs an instance with the keystore.
+     * Создает экземпляр с хранилищем ключей.
+     *
+     * @param path        the path of the keystore file.
+     *                    путь к файлу хранилища ключей.
+     * @param password    the password of the keystore and its keys.
+     *                    пароль хранилища ключей и его ключей.
+     * @param activeKeyId the alias of the key that encrypts new codes, the aliases are case-insensitive.
+     *                    псевдоним ключа, шифрующего новые коды, псевдонимы нечувствительны к регистру.
+     * @param generateKey whether the missing active key and keystore file are generated.
+     *                    генерируются ли отсутствующие активный ключ и файл хранилища.
+     * @throws InternalServerException is thrown when the keystore cannot be loaded or the active key is missing.
+     *                                 данное исключение, выбрасывается если хранилище не загружается
+     *                                 или активного ключа нет.
+     */
+    public KeyRing(final String path, final String password, final String activeKeyId, final boolean generateKey)
+            throws InternalServerException {
+        this.activeKeyId = activeKeyId.toLowerCase(Locale.ROOT);
+
+        try {
+            Path file = Paths.get(path);
+            KeyStore.PasswordProtection protection = new KeyStore.PasswordProtection(password.toCharArray());
+            KeyStore keyStore = KeyStore.getInstance(KEYSTORE_TYPE);
+            if (Files.exists(file)) {
+                try (InputStream input = Files.newInputStream(file)) {
+                    keyStore.load(input, password.toCharArray());
+                }
+            } else if (generateKey) {
+                keyStore.load(null, null);
+            } else {
+                throw new InternalServerException("Keystore " + file.toAbsolutePath() + " not found, "
+                        + "set iris.crypto.generate-key to create it.");
+            }
+
+            if (!keyStore.containsAlias(this.activeKeyId)) {
+                if (!generateKey) {
+                    throw new InternalServerException("Active key " + this.activeKeyId + " not found in the keystore, "
+                            + "set iris.crypto.generate-key to create it.");
+                }
+                KeyGenerator generator = KeyGenerator.getInstance("AES");
+                generator.init(256);
+                keyStore.setEntry(this.activeKeyId, new KeyStore.SecretKeyEntry(generator.generateKey()), protection);
+
+                if (file.toAbsolutePath().getParent() != null) {
+                    Files.createDirectories(file.toAbsolutePath().getParent());
+                }
+                try (OutputStream output = Files.newOutputStream(file)) {
+                    keyStore.store(output, password.toCharArray());
+                }
+            }
+
+            Map<String, SecretKey> loaded = new HashMap<>();
+            for (String alias : Collections.list(keyStore.aliases())) {
+                if (keyStore.entryInstanceOf(alias, KeyStore.SecretKeyEntry.class)) {
+                    loaded.put(alias, ((KeyStore.SecretKeyEntry) keyStore.getEntry(alias, protection)).getSecretKey());
+                }
+            }
+            keys = Collections.unmodifiableMap(loaded);
+        } catch (InternalServerException exception) {
+            throw exception;
+        } catch (Exception exception) {
+            throw new InternalServerException(exception.getMessage());
+        }
+    }
+
+    /**
+     * Returns the id of the key that encrypts new codes.
+     * Возвращает id ключа, шифрующего новые коды.
+     *
+     * @return the id of the active key.
+     * id активного ключа.
+     */
+    public final String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    /**
+     * Returns the key by id.
+     * Возвращает ключ по id.
+     *
+     * @param keyId the id of the key.
+     *              id ключа.
+     * @return the key.
+     * ключ.
+     * @throws InternalServerException is thrown when the key is not in the keystore.
+     *                                 данное исключение, выбрасывается если ключа нет в хранилище.
+     */
+    public final SecretKey get(final String keyId) throws InternalServerException {
+        SecretKey key = keyId == null ? null : keys.get(keyId);
+        if (key == null) {
+            throw new InternalServerException("Key " + keyId + " not found in the keystore.");
+        }
+
+        return key;
+    }
+}
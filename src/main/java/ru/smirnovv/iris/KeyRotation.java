@@ -0,0 +1,146 @@
+package ru.smirnovv.iris;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A background job that re-encrypts the iris codes with the active key.
+ * Фоновая задача, перешифровывающая iris code активным ключом.
+ * <p>
+ * Every run re-encrypts one small batch in its own short transaction, so the gallery stays online
+ * and the rate is limited by the batch size and the delay between the runs.
+ * The codes that can not be decrypted are skipped until the next pass over the gallery.
+ * Каждый запуск перешифровывает один небольшой пакет в собственной короткой транзакции, поэтому галерея
+ * остается доступной, а скорость ограничена размером пакета и задержкой между запусками.
+ * Коды, которые не удается дешифровать, пропускаются до следующего прохода по галерее.
+ */
+@Component
+public class KeyRotation {
+    /**
+     * A repository of irises.
+     * Репозиторий РОГ.
+     */
+    private final IrisRepository irisRepository;
+
+    /**
+     * A class that manages encode data.
+     * Класс, обеспечивающий шифрование данных.
+     */
+    private final Cryptographer cryptographer;
+
+    /**
+     * A template that wraps the updates of a batch in a transaction.
+     * Шаблон, оборачивающий обновления пакета в транзакцию.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Whether the job is enabled.
+     * Включена ли задача.
+     */
+    private final boolean enabled;
+
+    /**
+     * The number of irises re-encrypted in a run.
+     * Количество РОГ, перешифровываемых за запуск.
+     */
+    private final int batchSize;
+
+    /**
+     * The id of the last processed iris, the next run continues after it.
+     * Id последнего обработанного РОГ, следующий запуск продолжает после него.
+     */
+    private long after;
+
+    /**
+     * Constructs an instance with injected dependencies.
+     * Создает экземпляр с внедренными зависимостями.
+     *
+     * @param irisRepository     a repository of irises.
+     *                           репозиторий РОГ.
+     * @param cryptographer      a class that manages encode data.
+     *                           класс, обеспечивающий шифрование данных.
+     * @param transactionManager a transaction manager.
+     *                           менеджер транзакций.
+     * @param enabled            whether the job is enabled.
+     *                           включена ли задача.
+     * @param batchSize          the number of irises re-encrypted in a run.
+     *                           количество РОГ, перешифровываемых за запуск.
+     */
+    @Autowired
+    public KeyRotation(final IrisRepository irisRepository,
+                       final Cryptographer cryptographer,
+                       final PlatformTransactionManager transactionManager,
+                       @Value("${iris.crypto.rotation.enabled:true}") final boolean enabled,
+                       @Value("${iris.crypto.rotation.batch-size:100}") final int batchSize) {
+        this.irisRepository = irisRepository;
+        this.cryptographer = cryptographer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Re-encrypts the next batch of the iris codes.
+     * Перешифровывает следующий пакет iris code.
+     */
+    @Scheduled(fixedDelayString = "${iris.crypto.rotation.delay:1000}")
+    public void rotate() {
+        if (enabled) {
+            rotateBatch();
+        }
+    }
+
+    /**
+     * Re-encrypts the next batch of the iris codes.
+     * Перешифровывает следующий пакет iris code.
+     *
+     * @return the number of re-encrypted irises.
+     * количество перешифрованных РОГ.
+     */
+    public synchronized int rotateBatch() {
+        String keyId = cryptographer.getKeyId();
+        List<GalleryEntry> entries = irisRepository.findGalleryByKeyIdNot(keyId, after,
+                PageRequest.of(0, batchSize));
+        if (entries.isEmpty()) {
+            // Starts the next pass over the gallery from the beginning.
+            // Начинает следующий проход по галерее с начала.
+            after = 0;
+            return 0;
+        }
+        after = entries.get(entries.size() - 1).getId();
+
+        // Re-encrypts outside of the transaction.
+        // Перешифровка вне транзакции.
+        List<GalleryEntry> rotated = new ArrayList<>(entries.size());
+        List<byte[]> irisCodes = new ArrayList<>(entries.size());
+        for (GalleryEntry entry : entries) {
+            try {
+                irisCodes.add(cryptographer.encrypt(cryptographer.decrypt(entry.getKeyId(), entry.getIrisCode())));
+                rotated.add(entry);
+            } catch (RuntimeException exception) {
+                // Skips the code until the next pass, e.g. its key is not in the keystore.
+                // Пропускает код до следующего прохода, например если его ключа нет в хранилище.
+            }
+        }
+
+        // The update is skipped if the iris was deleted or re-encrypted in the meantime.
+        // Обновление пропускается, если РОГ был удален или перешифрован за это время.
+        return transactionTemplate.execute(status -> {
+            int updated = 0;
+            for (int i = 0; i < rotated.size(); i++) {
+                updated += irisRepository.updateIrisCode(rotated.get(i).getId(), rotated.get(i).getKeyId(),
+                        keyId, irisCodes.get(i));
+            }
+            return updated;
+        });
+    }
+}
@@ -0,0 +1,78 @@
+package ru.smirnovv.iris.irisDetection;
+
+import org.opencv.core.Mat;
+import ru.smirnovv.iris.irisDetection.localization.IrisBorders;
+
+/**
+ * An eye image passed between the detection stages.
+ * Изображение глаза, передаваемое между этапами детектирования.
+ */
+public class EyeImage {
+    /**
+     * The encoded image.
+     * Закодированное изображение.
+     */
+    private final byte[] image;
+
+    /**
+     * The grayscale image decoded for the localization.
+     * Изображение в оттенках серого, декодированное для локализации.
+     */
+    private final Mat irisImage;
+
+    /**
+     * The borders of iris ({@code null} before the localization).
+     * Границы РОГ ({@code null} до локализации).
+     */
+    private final IrisBorders borders;
+
+    /**
+     * Constructs an instance with the specified properties.
+     * Создает экземпляр с указанными свойствами.
+     *
+     * @param image     the encoded image.
+     *                  закодированное изображение.
+     * @param irisImage the grayscale image decoded for the localization.
+     *                  изображение в оттенках серого, декодированное для локализации.
+     * @param borders   the borders of iris ({@code null} before the localization).
+     *                  границы РОГ ({@code null} до локализации).
+     */
+    public EyeImage(final byte[] image, final Mat irisImage, final IrisBorders borders) {
+        this.image = image;
+        this.irisImage = irisImage;
+        this.borders = borders;
+    }
+
+    /**
+     * Returns the encoded image.
+     * Возвращает закодированное изображение.
+     *
+     * @return the encoded image.
+     *         закодированное изображение.
+     */
+    public final byte[] getImage() {
+        return image;
+    }
+
+    /**
+     * Returns the grayscale image decoded for the localization.
+     * Возвращает изображение в оттенках серого, декодированное для локализации.
+     *
+     * @return the grayscale image.
+     *         изображение в оттенках серого.
+     */
+    public final Mat getIrisImage() {
+        return irisImage;
+    }
+
+    /**
+     * Returns the borders of iris.
+     * Возвращает границы РОГ.
+     *
+     * @return the borders of iris ({@code null} before the localization).
+     *         границы РОГ ({@code null} до локализации).
+     */
+    public final IrisBorders getBorders() {
+        return borders;
+    }
+}
@@ -1,16 +1,35 @@
 package ru.smirnovv.iris.irisDetection;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.opencv.core.Core;
 import org.opencv.core.Mat;
 import org.opencv.core.MatOfByte;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import ru.smirnovv.iris.InvalidIrisImageException;
 import ru.smirnovv.iris.irisDetection.localization.IrisBorders;
+import ru.smirnovv.iris.irisDetection.localization.IrisBorders.Border;
 import ru.smirnovv.iris.irisDetection.localization.Localization;
+import ru.smirnovv.iris.irisDetection.localization.PupilDetector;
 import ru.smirnovv.iris.irisDetection.normalization.Normalization;
+import ru.smirnovv.iris.irisDetection.quality.LowQualityImageException;
+import ru.smirnovv.iris.irisDetection.quality.QualityAssessment;
+import ru.smirnovv.iris.irisDetection.quality.QualityParameters;
+import ru.smirnovv.monitoring.DecodeEvent;
+import ru.smirnovv.monitoring.LocalizeEvent;
+import ru.smirnovv.monitoring.NormalizeEvent;
+import ru.smirnovv.monitoring.ServerTiming;
 
-import static org.opencv.imgcodecs.Imgcodecs.IMREAD_COLOR;
+import java.util.concurrent.TimeUnit;
+
+import static org.opencv.imgcodecs.Imgcodecs.IMREAD_GRAYSCALE;
+import static org.opencv.imgcodecs.Imgcodecs.IMREAD_REDUCED_GRAYSCALE_2;
+import static org.opencv.imgcodecs.Imgcodecs.IMREAD_REDUCED_GRAYSCALE_4;
+import static org.opencv.imgcodecs.Imgcodecs.IMREAD_REDUCED_GRAYSCALE_8;
 import static org.opencv.imgcodecs.Imgcodecs.imdecode;
-import static org.opencv.imgproc.Imgproc.COLOR_BGR2GRAY;
-import static org.opencv.imgproc.Imgproc.cvtColor;
 
 /**
  * A class that provides iris detection.
@@ -24,12 +43,48 @@ public class IrisDetector {
      */
     final private Localization localization;
 
+    /**
+     * A class that quickly finds the pupil candidate to narrow the localization search.
+     * Класс, быстро находящий кандидата зрачка для сужения области поиска локализации.
+     */
+    final private PupilDetector pupilDetector;
+
     /**
      * A class that provides normalization of iris.
      * Класс, обеспечивающий нормализацию РОГ.
      */
     final private Normalization normalization;
 
+    /**
+     * A class that rejects images which are not good enough for the recognition.
+     * Класс, отклоняющий изображения, непригодные для распознавания.
+     */
+    final private QualityAssessment qualityAssessment;
+
+    /**
+     * The scale at which the image is decoded for the localization (1, 2, 4 or 8).
+     * Масштаб, с которым изображение декодируется для локализации (1, 2, 4 или 8).
+     */
+    final private int reducedScale;
+
+    /**
+     * The latency of the decoding.
+     * Время декодирования.
+     */
+    final private Timer decodeTimer;
+
+    /**
+     * The latency of the localization.
+     * Время локализации.
+     */
+    final private Timer localizeTimer;
+
+    /**
+     * The latency of the normalization.
+     * Время нормализации.
+     */
+    final private Timer normalizeTimer;
+
     /**
      * Constructs an instance with injected dependencies.
      * Создает экземпляр с внедренными зависимостями.
@@ -40,29 +95,110 @@ public class IrisDetector {
      *                      класс, обеспечивающий нормализацию РОГ.
      */
     public IrisDetector(Localization localization, Normalization normalization) {
+        this(localization, new PupilDetector(4, 60), normalization,
+                new QualityAssessment(new QualityParameters(0, 0, 255, 0, 0)), 1, Metrics.globalRegistry);
+    }
+
+    /**
+     * Constructs an instance with injected dependencies.
+     * Создает экземпляр с внедренными зависимостями.
+     *
+     * @param localization      a class that provides localization of iris.
+     *                          класс, обеспечивающий локализацию РОГ.
+     * @param pupilDetector     a class that quickly finds the pupil candidate to narrow the localization search.
+     *                          класс, быстро находящий кандидата зрачка для сужения области поиска локализации.
+     * @param normalization     a class that provides normalization of iris.
+     *                          класс, обеспечивающий нормализацию РОГ.
+     * @param qualityAssessment a class that rejects images which are not good enough for the recognition.
+     *                          класс, отклоняющий изображения, непригодные для распознавания.
+     * @param reducedScale      the scale at which the image is decoded for the localization (1, 2, 4 or 8).
+     *                          масштаб, с которым изображение декодируется для локализации (1, 2, 4 или 8).
+     * @param meterRegistry     a registry of the metrics.
+     *                          реестр метрик.
+     */
+    @Autowired
+    public IrisDetector(Localization localization,
+                        PupilDetector pupilDetector,
+                        Normalization normalization,
+                        QualityAssessment qualityAssessment,
+                        @Value("${iris.detection.reduced-scale:1}") int reducedScale,
+                        MeterRegistry meterRegistry) {
+        if (reducedScale != 1 && reducedScale != 2 && reducedScale != 4 && reducedScale != 8) {
+            throw new IllegalArgumentException("Argument 'reducedScale' must be 1, 2, 4 or 8");
+        }
         this.localization = localization;
+        this.pupilDetector = pupilDetector;
         this.normalization = normalization;
+        this.qualityAssessment = qualityAssessment;
+        this.reducedScale = reducedScale;
+        this.decodeTimer = timer(meterRegistry, "decode");
+        this.localizeTimer = timer(meterRegistry, "localize");
+        this.normalizeTimer = timer(meterRegistry, "normalize");
+    }
+
+    /**
+     * Creates the latency histogram of the detection step.
+     * Создает гистограмму времени этапа детектирования.
+     *
+     * @param meterRegistry a registry of the metrics.
+     *                      реестр метрик.
+     * @param step          the step of the detection.
+     *                      этап детектирования.
+     * @return the timer.
+     * таймер.
+     */
+    private static Timer timer(MeterRegistry meterRegistry, String step) {
+        return Timer.builder("iris.detection.duration")
+                .description("The latency of the iris detection steps")
+                .tag("step", step)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     /**
-     * Converts byte array to the mat.
-     * Конвертирует массив байт в матрицу.
+     * Converts byte array to the grayscale mat.
+     * Конвертирует массив байт в матрицу в оттенках серого.
      *
      * @param image the iris image.
      *              изображение РОГ.
+     * @param scale the scale at which the image is decoded (1, 2, 4 or 8).
+     *              масштаб, с которым декодируется изображение (1, 2, 4 или 8).
      * @return the iris image.
      * изображение РОГ.
      */
-    private Mat createIrisImage(byte[] image) {
-        // Converts byte array to the mat.
-        // Конвертирует массив байт в матрицу.
-        Mat irisImage = imdecode(new MatOfByte(image), IMREAD_COLOR);
+    private Mat createIrisImage(byte[] image, int scale) {
+        // Decodes the image straight to GrayScale, JPEG is downscaled by the decoder itself.
+        // Декодирует изображение сразу в GrayScale, JPEG уменьшается самим декодером.
+        switch (scale) {
+            case 2:
+                return imdecode(new MatOfByte(image), IMREAD_REDUCED_GRAYSCALE_2);
+            case 4:
+                return imdecode(new MatOfByte(image), IMREAD_REDUCED_GRAYSCALE_4);
+            case 8:
+                return imdecode(new MatOfByte(image), IMREAD_REDUCED_GRAYSCALE_8);
+            default:
+                return imdecode(new MatOfByte(image), IMREAD_GRAYSCALE);
+        }
+    }
 
-        // Converts RGB to GrayScale.
-        // Конвертирует RGB в GrayScale.
-        cvtColor(irisImage, irisImage, COLOR_BGR2GRAY);
+    /**
+     * Converts the borders found on the reduced image to the full resolution.
+     * Переводит границы, найденные на уменьшенном изображении, в полное разрешение.
+     *
+     * @param borders the borders of iris.
+     *                границы РОГ.
+     * @param scale   the scale of the reduced image.
+     *                масштаб уменьшенного изображения.
+     * @return the borders of iris.
+     * границы РОГ.
+     */
+    private IrisBorders scaleBorders(IrisBorders borders, int scale) {
+        Border inside = borders.getInsideBorder();
+        Border outside = borders.getOutsideBorder();
 
-        return irisImage;
+        return new IrisBorders(
+                new Border(inside.getX() * scale, inside.getY() * scale, inside.getR() * scale),
+                new Border(outside.getX() * scale, outside.getY() * scale, outside.getR() * scale));
     }
 
     /**
@@ -71,28 +207,175 @@ public class IrisDetector {
      * @param image the iris image.
      *              изображение РОГ.
      * @return irisCode.
+     * @throws InvalidIrisImageException is thrown when the image can not be decoded.
+     *                                   данное исключение, выбрасывается если изображение не декодируется.
+     * @throws LowQualityImageException  is thrown when the image is not good enough for the recognition.
+     *                                   данное исключение, выбрасывается если изображение непригодно для распознавания.
+     * @throws IrisNotFoundException     is thrown when a iris not found or the eye is not fully visible.
+     *                                   данное исключение, выбрасывается если РОГ не обнаружено.
+     */
+    public byte[] createIrisCode(byte[] image) throws InvalidIrisImageException,
+            LowQualityImageException, IrisNotFoundException {
+        return createIrisTemplate(image).toBytes();
+    }
+
+    /**
+     * Detects iris and creates the normalized iris with the occlusion mask.
+     * Детектирует РОГ и создает нормализованный РОГ с маской перекрытий.
+     *
+     * @param image the iris image.
+     *              изображение РОГ.
+     * @return the iris template.
+     * шаблон РОГ.
+     * @throws InvalidIrisImageException is thrown when the image can not be decoded.
+     *                                   данное исключение, выбрасывается если изображение не декодируется.
+     * @throws LowQualityImageException  is thrown when the image is not good enough for the recognition.
+     *                                   данное исключение, выбрасывается если изображение непригодно для распознавания.
+     * @throws IrisNotFoundException     is thrown when a iris not found or the eye is not fully visible.
+     *                                   данное исключение, выбрасывается если РОГ не обнаружено.
+     */
+    public IrisTemplate createIrisTemplate(byte[] image) throws InvalidIrisImageException,
+            LowQualityImageException, IrisNotFoundException {
+        return normalize(localize(decode(image)));
+    }
+
+    /**
+     * Decodes the image and checks its quality, the first stage of the detection.
+     * Декодирует изображение и проверяет его качество, первый этап детектирования.
+     *
+     * @param image the iris image.
+     *              изображение РОГ.
+     * @return the decoded eye image.
+     * декодированное изображение глаза.
+     * @throws InvalidIrisImageException is thrown when the image can not be decoded.
+     *                                   данное исключение, выбрасывается если изображение не декодируется.
+     * @throws LowQualityImageException  is thrown when the image is not good enough for the recognition.
+     *                                   данное исключение, выбрасывается если изображение непригодно для распознавания.
+     */
+    public EyeImage decode(byte[] image) throws InvalidIrisImageException, LowQualityImageException {
+        DecodeEvent event = new DecodeEvent(image.length, reducedScale);
+        long start = System.nanoTime();
+        try {
+            EyeImage eye = decodeImage(image);
+            event.decoded(eye.getIrisImage().cols(), eye.getIrisImage().rows());
+            return eye;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            decodeTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            ServerTiming.record(ServerTiming.Metric.DECODE, elapsed);
+            event.commit();
+        }
+    }
+
+    /**
+     * Decodes the image and checks its quality.
+     * Декодирует изображение и проверяет его качество.
+     *
+     * @param image the iris image.
+     *              изображение РОГ.
+     * @return the decoded eye image.
+     * декодированное изображение глаза.
+     * @throws InvalidIrisImageException is thrown when the image can not be decoded.
+     *                                   данное исключение, выбрасывается если изображение не декодируется.
+     * @throws LowQualityImageException  is thrown when the image is not good enough for the recognition.
+     *                                   данное исключение, выбрасывается если изображение непригодно для распознавания.
      */
-    public byte[] createIrisCode(byte[] image) {
+    private EyeImage decodeImage(byte[] image) throws InvalidIrisImageException, LowQualityImageException {
+        Mat irisImage = createIrisImage(image, reducedScale);
+        if (irisImage.empty()) {
+            throw new InvalidIrisImageException("The image can not be decoded.");
+        }
+
+        // Rejects bad captures before the localization, the thresholds are scaled to the reduced image.
+        // Отклонение непригодных изображений до локализации, пороги приводятся к уменьшенному изображению.
+        qualityAssessment.assess(irisImage, reducedScale);
+
+        return new EyeImage(image, irisImage, null);
+    }
+
+    /**
+     * Finds the borders of iris, the second stage of the detection.
+     * Находит границы РОГ, второй этап детектирования.
+     *
+     * @param eye the decoded eye image.
+     *            декодированное изображение глаза.
+     * @return the eye image with the borders of iris.
+     * изображение глаза с границами РОГ.
+     * @throws IrisNotFoundException is thrown when a iris not found or the eye is not fully visible.
+     *                               данное исключение, выбрасывается если РОГ не обнаружено.
+     */
+    public EyeImage localize(EyeImage eye) throws IrisNotFoundException {
+        Mat irisImage = eye.getIrisImage();
+        LocalizeEvent event = new LocalizeEvent(localization.getClass(), irisImage.cols(), irisImage.rows());
+        IrisBorders borders = null;
+        long start = System.nanoTime();
+        try {
+            // Локализация РОГ около кандидата зрачка.
+            Border pupil = pupilDetector.detect(irisImage);
+            event.pupilHint(pupil != null);
+            borders = localization.localize(irisImage, pupil);
+            event.found(borders.getInsideBorder().getX(), borders.getInsideBorder().getY(),
+                    borders.getInsideBorder().getR(), borders.getOutsideBorder().getX(),
+                    borders.getOutsideBorder().getY(), borders.getOutsideBorder().getR());
+            return new EyeImage(eye.getImage(), irisImage, borders);
+        } catch (Exception exception) {
+            // If iris not found throw exception.
+            // Если РОГ не обнаружен выбросить исключение.
+            throw new IrisNotFoundException("Iris not found or the eye is not fully visible.");
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            localizeTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            ServerTiming.record(ServerTiming.Metric.LOCALIZE, elapsed);
+            ServerTiming.localized(eye.getImage(), localization.getClass(), borders, elapsed);
+            event.commit();
+        }
+    }
+
+    /**
+     * Normalizes iris and finds its occlusions, the last stage of the detection.
+     * Нормализует РОГ и находит его перекрытия, последний этап детектирования.
+     *
+     * @param eye the eye image with the borders of iris.
+     *            изображение глаза с границами РОГ.
+     * @return the iris template.
+     * шаблон РОГ.
+     * @throws IrisNotFoundException is thrown when a iris not found or the eye is not fully visible.
+     *                               данное исключение, выбрасывается если РОГ не обнаружено.
+     */
+    public IrisTemplate normalize(EyeImage eye) throws IrisNotFoundException {
+        NormalizeEvent event = new NormalizeEvent(normalization.getClass(), reducedScale != 1);
+        long start = System.nanoTime();
         try {
-            Mat irisImage = createIrisImage(image);
+            Mat irisImage = eye.getIrisImage();
+            IrisBorders borders = eye.getBorders();
 
-            // Локализация РОГ.
-            IrisBorders borders = localization.localize(irisImage);
+            // The iris ring is sampled at full resolution, the only full resolution decode of the image.
+            // Кольцо РОГ выбирается в полном разрешении, это единственное полное декодирование изображения.
+            if (reducedScale != 1) {
+                irisImage = createIrisImage(eye.getImage(), 1);
+                borders = scaleBorders(borders, reducedScale);
+            }
 
             // Нормализация РОГ.
             Mat normalizedIris = normalization.normalize(irisImage, borders);
 
-            // Converts the mat to byte array.
-            // Конвертирует матрицу в массив байт.
-            int length = (int) (normalizedIris.total() * normalizedIris.elemSize());
-            byte[] buffer = new byte[length];
-            normalizedIris.get(0, 0, buffer);
-
-            return buffer;
+            // Eyelids, eyelashes and reflections are excluded from the comparison.
+            // Веки, ресницы и блики исключаются из сравнения.
+            Mat mask = normalization.occlusionMask(normalizedIris);
+            if (event.shouldCommit()) {
+                event.normalized(borders.getOutsideBorder().getR(),
+                        1.0 - (double) Core.countNonZero(mask) / mask.total());
+            }
+            return new IrisTemplate(normalizedIris, mask);
         } catch (Exception exception) {
             // If iris not found throw exception.
             // Если РОГ не обнаружен выбросить исключение.
             throw new IrisNotFoundException("Iris not found or the eye is not fully visible.");
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            normalizeTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            ServerTiming.record(ServerTiming.Metric.NORMALIZE, elapsed);
+            event.commit();
         }
     }
 }
@@ -0,0 +1,243 @@
+package ru.smirnovv.iris.irisDetection;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+
+import java.util.Arrays;
+
+/**
+ * The normalized iris with the occlusion mask.
+ * Нормализованный РОГ с маской перекрытий.
+ */
+public class IrisTemplate {
+    /**
+     * The number of rows of the normalized iris.
+     * Количество строк нормализованного РОГ.
+     */
+    public static final int ROWS = 128;
+
+    /**
+     * The number of columns of the normalized iris.
+     * Количество столбцов нормализованного РОГ.
+     */
+    public static final int COLS = 256;
+
+    /**
+     * The size of the normalized iris in bytes.
+     * Размер нормализованного РОГ в байтах.
+     */
+    private static final int IMAGE_SIZE = ROWS * COLS;
+
+    /**
+     * The size of the packed mask in bytes.
+     * Размер упакованной маски в байтах.
+     */
+    private static final int MASK_SIZE = IMAGE_SIZE / 8;
+
+    /**
+     * The maximum length of an iris code.
+     * Максимальная длина iris code.
+     */
+    public static final int MAX_CODE_SIZE = IMAGE_SIZE + MASK_SIZE;
+
+    /**
+     * The normalized iris image.
+     * Нормализованное изображение РОГ.
+     */
+    private final Mat image;
+
+    /**
+     * The packed occlusion mask, a set bit marks a valid pixel
+     * ({@code null} if all pixels are valid).
+     * Упакованная маска перекрытий, установленный бит отмечает корректный пиксель
+     * ({@code null}, если все пиксели корректны).
+     */
+    private final byte[] mask;
+
+    /**
+     * Constructs an instance without occlusions.
+     * Создает экземпляр без перекрытий.
+     *
+     * @param image the normalized iris image.
+     *              нормализованное изображение РОГ.
+     */
+    public IrisTemplate(final Mat image) {
+        this.image = image;
+        this.mask = null;
+    }
+
+    /**
+     * Constructs an instance with the specified properties.
+     * Создает экземпляр с указанными свойствами.
+     *
+     * @param image the normalized iris image.
+     *              нормализованное изображение РОГ.
+     * @param mask  the occlusion mask, non-zero marks a valid pixel.
+     *              маска перекрытий, ненулевое значение отмечает корректный пиксель.
+     */
+    public IrisTemplate(final Mat image, final Mat mask) {
+        this(image, pack(mask));
+    }
+
+    /**
+     * Constructs an instance with the specified properties.
+     * Создает экземпляр с указанными свойствами.
+     *
+     * @param image the normalized iris image.
+     *              нормализованное изображение РОГ.
+     * @param mask  the packed occlusion mask or {@code null} if all pixels are valid.
+     *              упакованная маска перекрытий или {@code null}, если все пиксели корректны.
+     */
+    private IrisTemplate(final Mat image, final byte[] mask) {
+        this.image = image;
+        this.mask = mask;
+    }
+
+    /**
+     * Restores the template from the iris code.
+     * Восстанавливает шаблон из iris code.
+     *
+     * @param code the iris code, the codes without the mask are accepted too.
+     *             iris code, коды без маски также допускаются.
+     * @return the template.
+     *         шаблон.
+     */
+    public static IrisTemplate fromBytes(final byte[] code) {
+        return fromBytes(code, code.length);
+    }
+
+    /**
+     * Restores the template from the beginning of the buffer.
+     * Восстанавливает шаблон из начала буфера.
+     *
+     * @param code   the buffer with the iris code.
+     *               буфер с iris code.
+     * @param length the length of the iris code.
+     *               длина iris code.
+     * @return the template.
+     *         шаблон.
+     */
+    public static IrisTemplate fromBytes(final byte[] code, final int length) {
+        if (length != IMAGE_SIZE && length != IMAGE_SIZE + MASK_SIZE) {
+            throw new IllegalArgumentException("Invalid iris code length " + length);
+        }
+
+        Mat image = new Mat(ROWS, COLS, CvType.CV_8U);
+        image.put(0, 0, code, 0, IMAGE_SIZE);
+
+        return new IrisTemplate(image, length == IMAGE_SIZE ? null
+                : normalize(Arrays.copyOfRange(code, IMAGE_SIZE, length)));
+    }
+
+    /**
+     * Converts the template to the iris code.
+     * Конвертирует шаблон в iris code.
+     *
+     * @return the iris code.
+     *         iris code.
+     */
+    public byte[] toBytes() {
+        byte[] code = new byte[mask == null ? IMAGE_SIZE : IMAGE_SIZE + MASK_SIZE];
+        image.get(0, 0, code);
+        if (mask != null) {
+            System.arraycopy(mask, 0, code, IMAGE_SIZE, MASK_SIZE);
+        }
+
+        return code;
+    }
+
+    /**
+     * Returns the normalized iris image.
+     * Возвращает нормализованное изображение РОГ.
+     *
+     * @return the normalized iris image.
+     *         нормализованное изображение РОГ.
+     */
+    public Mat getImage() {
+        return image;
+    }
+
+    /**
+     * Returns the packed occlusion mask.
+     * Возвращает упакованную маску перекрытий.
+     *
+     * @return the packed occlusion mask or {@code null} if all pixels are valid.
+     *         упакованная маска перекрытий или {@code null}, если все пиксели корректны.
+     */
+    public byte[] getMask() {
+        return mask;
+    }
+
+    /**
+     * Returns {@code true} if some pixels are occluded.
+     * Возвращает {@code true}, если часть пикселей перекрыта.
+     *
+     * @return {@code true} if some pixels are occluded.
+     *         {@code true}, если часть пикселей перекрыта.
+     */
+    public boolean isMasked() {
+        return mask != null;
+    }
+
+    /**
+     * Returns the unpacked occlusion mask, 255 marks a valid pixel.
+     * Возвращает распакованную маску перекрытий, 255 отмечает корректный пиксель.
+     *
+     * @return the unpacked occlusion mask.
+     *         распакованная маска перекрытий.
+     */
+    public Mat getMaskImage() {
+        byte[] pixels = new byte[IMAGE_SIZE];
+        for (int i = 0; i < IMAGE_SIZE; ++i) {
+            if (mask == null || (mask[i >> 3] & (0x80 >> (i & 7))) != 0) {
+                pixels[i] = (byte) 255;
+            }
+        }
+
+        Mat result = new Mat(ROWS, COLS, CvType.CV_8U);
+        result.put(0, 0, pixels);
+        return result;
+    }
+
+    /**
+     * Packs the occlusion mask into bits.
+     * Упаковывает маску перекрытий в биты.
+     *
+     * @param mask the occlusion mask, non-zero marks a valid pixel.
+     *             маска перекрытий, ненулевое значение отмечает корректный пиксель.
+     * @return the packed mask or {@code null} if all pixels are valid.
+     *         упакованная маска или {@code null}, если все пиксели корректны.
+     */
+    private static byte[] pack(final Mat mask) {
+        byte[] pixels = new byte[IMAGE_SIZE];
+        mask.get(0, 0, pixels);
+
+        byte[] result = new byte[MASK_SIZE];
+        for (int i = 0; i < IMAGE_SIZE; ++i) {
+            if (pixels[i] != 0) {
+                result[i >> 3] |= 0x80 >> (i & 7);
+            }
+        }
+
+        return normalize(result);
+    }
+
+    /**
+     * Drops the mask which marks all pixels as valid.
+     * Отбрасывает маску, отмечающую все пиксели корректными.
+     *
+     * @param mask the packed mask.
+     *             упакованная маска.
+     * @return the packed mask or {@code null} if all pixels are valid.
+     *         упакованная маска или {@code null}, если все пиксели корректны.
+     */
+    private static byte[] normalize(final byte[] mask) {
+        for (byte bits : mask) {
+            if (bits != (byte) 0xFF) {
+                return mask;
+            }
+        }
+
+        return null;
+    }
+}
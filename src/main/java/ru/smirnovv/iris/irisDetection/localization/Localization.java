@@ -1,6 +1,7 @@
 package ru.smirnovv.iris.irisDetection.localization;
 
 import org.opencv.core.Mat;
+import ru.smirnovv.iris.irisDetection.localization.IrisBorders.Border;
 
 /**
  * An abstract class that provides localization of iris.
@@ -16,4 +17,19 @@ public abstract class Localization {
      *         границы РОГ.
      */
     public abstract IrisBorders localize(final Mat irisImage);
+
+    /**
+     * Localizes iris near the pupil candidate.
+     * Локализует РОГ около кандидата зрачка.
+     *
+     * @param irisImage the iris image.
+     *                  изображение РОГ.
+     * @param pupil     the approximate pupil border or {@code null} to search the whole image.
+     *                  приблизительная граница зрачка или {@code null} для поиска по всему изображению.
+     * @return the borders of iris.
+     *         границы РОГ.
+     */
+    public IrisBorders localize(final Mat irisImage, final Border pupil) {
+        return localize(irisImage);
+    }
 }
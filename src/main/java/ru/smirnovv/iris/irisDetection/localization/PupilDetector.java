@@ -0,0 +1,124 @@
+package ru.smirnovv.iris.irisDetection.localization;
+
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.Point;
+import org.opencv.core.Size;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.smirnovv.iris.irisDetection.localization.IrisBorders.Border;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.opencv.imgproc.Imgproc.CHAIN_APPROX_SIMPLE;
+import static org.opencv.imgproc.Imgproc.INTER_AREA;
+import static org.opencv.imgproc.Imgproc.MORPH_OPEN;
+import static org.opencv.imgproc.Imgproc.MORPH_RECT;
+import static org.opencv.imgproc.Imgproc.RETR_EXTERNAL;
+import static org.opencv.imgproc.Imgproc.THRESH_BINARY_INV;
+import static org.opencv.imgproc.Imgproc.contourArea;
+import static org.opencv.imgproc.Imgproc.findContours;
+import static org.opencv.imgproc.Imgproc.getStructuringElement;
+import static org.opencv.imgproc.Imgproc.minEnclosingCircle;
+import static org.opencv.imgproc.Imgproc.morphologyEx;
+import static org.opencv.imgproc.Imgproc.resize;
+import static org.opencv.imgproc.Imgproc.threshold;
+
+/**
+ * A class that quickly finds the pupil candidate to narrow the localization search.
+ * Класс, быстро находящий кандидата зрачка для сужения области поиска локализации.
+ */
+@Component
+public class PupilDetector {
+    /**
+     * The minimum ratio of the blob area to the area of its enclosing circle.
+     * Минимальное отношение площади пятна к площади описанной окружности.
+     */
+    private static final double MIN_CIRCULARITY = 0.5;
+
+    /**
+     * The downsampling factor of the image.
+     * Коэффициент уменьшения изображения.
+     */
+    private final int scale;
+
+    /**
+     * The binarization threshold of the pupil.
+     * Порог бинаризации зрачка.
+     */
+    private final int threshold;
+
+    /**
+     * Constructs an instance with injected properties.
+     * Создает экземпляр с внедренными настройками.
+     *
+     * @param scale     the downsampling factor of the image.
+     *                  коэффициент уменьшения изображения.
+     * @param threshold the binarization threshold of the pupil.
+     *                  порог бинаризации зрачка.
+     */
+    @Autowired
+    public PupilDetector(@Value("${iris.pupil.scale:4}") final int scale,
+                         @Value("${iris.pupil.threshold:60}") final int threshold) {
+        this.scale = scale;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Finds the pupil candidate as the largest round dark blob.
+     * Находит кандидата зрачка как наибольшее круглое темное пятно.
+     *
+     * @param irisImage the grayscale iris image.
+     *                  изображение РОГ в оттенках серого.
+     * @return the approximate pupil border or {@code null} if the candidate is not found.
+     *         приблизительная граница зрачка или {@code null}, если кандидат не найден.
+     */
+    public Border detect(final Mat irisImage) {
+        // Downsampling.
+        // Уменьшение изображения.
+        Mat small = new Mat();
+        resize(irisImage, small, new Size(), 1d / scale, 1d / scale, INTER_AREA);
+
+        // The binarization and removing of eyelashes.
+        // Бинаризация и удаление ресниц.
+        threshold(small, small, threshold, 255, THRESH_BINARY_INV);
+        morphologyEx(small, small, MORPH_OPEN, getStructuringElement(MORPH_RECT, new Size(3, 3)));
+
+        // Dark blobs.
+        // Темные пятна.
+        List<MatOfPoint> contours = new ArrayList<>();
+        findContours(small, contours, new Mat(), RETR_EXTERNAL, CHAIN_APPROX_SIMPLE);
+
+        double max = 0;
+        Border result = null;
+
+        for (MatOfPoint contour : contours) {
+            double area = contourArea(contour);
+            if (area < 4) {
+                continue;
+            }
+
+            Point center = new Point();
+            float[] radius = new float[1];
+            minEnclosingCircle(new MatOfPoint2f(contour.toArray()), center, radius);
+
+            // The pupil is the largest round blob.
+            // Зрачок - наибольшее круглое пятно.
+            double circularity = area / (Math.PI * radius[0] * radius[0]);
+            if (circularity >= MIN_CIRCULARITY && area * circularity > max) {
+                max = area * circularity;
+
+                // Rows are x and columns are y as in the localization.
+                // Строки - x, столбцы - y, как и в локализации.
+                result = new Border((int) Math.round(center.y * scale),
+                        (int) Math.round(center.x * scale),
+                        Math.round(radius[0] * scale));
+            }
+        }
+
+        return result;
+    }
+}
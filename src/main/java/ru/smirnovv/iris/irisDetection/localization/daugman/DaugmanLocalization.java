@@ -13,6 +13,12 @@ import static org.opencv.imgproc.Imgproc.threshold;
  */
 //@Component
 public class DaugmanLocalization extends Localization {
+    /**
+     * The sigma of the Gaussian that smooths the change of the brightness.
+     * Сигма Гауссиана, сглаживающего перепад яркости.
+     */
+    private static final int GAUSS_SIGMA = 3;
+
     /**
      *
      */
@@ -34,7 +40,23 @@ public class DaugmanLocalization extends Localization {
      * @return
      */
     public IrisBorders localize(final Mat irisImage) {
-        Border inside = border(irisImage, parameters, null);
+        return localize(irisImage, null);
+    }
+
+    /**
+     * Localizes iris near the pupil candidate.
+     * Локализует РОГ около кандидата зрачка.
+     *
+     * @param irisImage the iris image.
+     *                  изображение РОГ.
+     * @param pupil     the approximate pupil border or {@code null} to search the whole image.
+     *                  приблизительная граница зрачка или {@code null} для поиска по всему изображению.
+     * @return the borders of iris.
+     *         границы РОГ.
+     */
+    @Override
+    public IrisBorders localize(final Mat irisImage, final Border pupil) {
+        Border inside = pupil == null ? border(irisImage, parameters, null) : insideBorder(irisImage, pupil);
 
         DaugmanParameters outsideSettings = this.parameters.outsideParameters(irisImage, inside);
 
@@ -43,6 +65,59 @@ public class DaugmanLocalization extends Localization {
         return new IrisBorders(inside, outside);
     }
 
+    /**
+     * Finds the inside border on the window around the pupil candidate.
+     * Находит внутреннюю границу в окне около кандидата зрачка.
+     *
+     * @param in    the iris image.
+     *              изображение РОГ.
+     * @param pupil the approximate pupil border.
+     *              приблизительная граница зрачка.
+     * @return the inside border.
+     *         внутренняя граница.
+     */
+    private Border insideBorder(final Mat in, final Border pupil) {
+        // The neighborhood of the center and the radius range around the candidate.
+        // Окрестность центра и диапазон радиусов около кандидата.
+        int area = Math.min(parameters.getArea(), Math.max(pupil.getR() / 4, 3));
+        int minR = Math.max(parameters.getMinR(), pupil.getR() * 7 / 10);
+        int maxR = Math.min(parameters.getMaxR(), pupil.getR() * 13 / 10 + 1);
+        if (minR >= maxR) {
+            return border(in, parameters, null);
+        }
+
+        // The window of the projections around the candidate.
+        // Окно проекций около кандидата.
+        int w = pupil.getR() * 3 / 2;
+        int windowTop = Math.max(parameters.getDistance(), pupil.getX() - w);
+        int windowBottom = Math.min(in.rows() - parameters.getDistance(), pupil.getX() + w);
+        int windowLeft = Math.max(parameters.getDistance(), pupil.getY() - w);
+        int windowRight = Math.min(in.cols() - parameters.getDistance(), pupil.getY() + w);
+
+        // Only the part of the image with the window and all circles of the search is binarized.
+        // Бинаризуется только часть изображения с окном и всеми окружностями поиска.
+        int margin = w + area + maxR + 3 * GAUSS_SIGMA;
+        int top = Math.max(0, pupil.getX() - margin);
+        int bottom = Math.min(in.rows(), pupil.getX() + margin + 1);
+        int left = Math.max(0, pupil.getY() - margin);
+        int right = Math.min(in.cols(), pupil.getY() + margin + 1);
+        if (windowTop >= windowBottom || windowLeft >= windowRight) {
+            return border(in, parameters, null);
+        }
+
+        Mat mat = in.submat(top, bottom, left, right).clone();
+        threshold(mat, mat, parameters.getThreshold(), 100, THRESH_BINARY_INV);
+
+        int x = insideX(mat, windowTop - top, windowBottom - top, windowLeft - left, windowRight - left);
+        int y = insideY(mat, windowLeft - left, windowRight - left, windowTop - top, windowBottom - top);
+
+        threshold(mat, mat, parameters.getThreshold(), 100, THRESH_BINARY_INV);
+        Border border = search(mat, x, y, area, minR, maxR);
+        mat.release();
+
+        return new Border(border.getX() + top, border.getY() + left, border.getR());
+    }
+
     /**
      *
      * @param in
@@ -53,8 +128,6 @@ public class DaugmanLocalization extends Localization {
     private Border border(final Mat in, final DaugmanParameters parameters, final Border inside) {
         Mat mat = in.clone();
 
-        int gauss_sigma = 3;
-
         //Outside Border
         threshold(mat, mat, parameters.getThreshold(), 100, THRESH_BINARY_INV);
 
@@ -63,23 +136,49 @@ public class DaugmanLocalization extends Localization {
             x = outsideX(mat, parameters.getDistance(), in.rows() - parameters.getDistance(), inside.getX(), parameters.getArea());
             y = outsideY(mat, parameters.getDistance(), in.cols() - parameters.getDistance(), inside.getY(), parameters.getArea());
         } else {
-            x = insideX(mat, parameters.getDistance(), in.rows() - parameters.getDistance());
-            y = insideY(mat, parameters.getDistance(), in.cols() - parameters.getDistance());
+            x = insideX(mat, parameters.getDistance(), in.rows() - parameters.getDistance(), 0, in.cols());
+            y = insideY(mat, parameters.getDistance(), in.cols() - parameters.getDistance(), 0, in.rows());
         }
 
 
         threshold(mat, mat, parameters.getThreshold(), 100, THRESH_BINARY_INV);
+        Border border = search(mat, x, y, parameters.getArea(), parameters.getMinR(), parameters.getMaxR());
+        mat.release();
+
+        return border;
+    }
+
+    /**
+     * Finds the circle with the largest change of the brightness around the point.
+     * Находит окружность с наибольшим перепадом яркости около точки.
+     *
+     * @param mat  the binarized image.
+     *             бинаризованное изображение.
+     * @param x    the row of the point.
+     *             строка точки.
+     * @param y    the column of the point.
+     *             столбец точки.
+     * @param area the half size of the neighborhood of the center.
+     *             половина размера окрестности центра.
+     * @param minR the minimum radius.
+     *             минимальный радиус.
+     * @param maxR the maximum radius.
+     *             максимальный радиус.
+     * @return the circle.
+     *         окружность.
+     */
+    private Border search(final Mat mat, final int x, final int y, final int area, final int minR, final int maxR) {
         double max = 0;
         int resX = 0;
         int resY = 0;
         int resR = 0;
 
-        for (int i = x - parameters.getArea(); i < x + parameters.getArea(); i++) {
-            for (int j = y - parameters.getArea(); j < y + parameters.getArea(); j++) {
-                for (int r = parameters.getMinR(); r < parameters.getMaxR(); r++) {
+        for (int i = x - area; i < x + area; i++) {
+            for (int j = y - area; j < y + area; j++) {
+                for (int r = minR; r < maxR; r++) {
                     double sum = 0;
 
-                    for (int k = r - 3 * gauss_sigma; k < r + 3 * gauss_sigma; k++) {
+                    for (int k = r - 3 * GAUSS_SIGMA; k < r + 3 * GAUSS_SIGMA; k++) {
                         double def = funcGauss(r - k + 1, parameters) - funcGauss(r - k, parameters);
                         sum = sum + def * sumCircle(i, j, k, mat);
                     }
@@ -150,15 +249,17 @@ public class DaugmanLocalization extends Localization {
      * @param image
      * @param begin
      * @param end
+     * @param from
+     * @param to
      * @return
      */
-    private int insideX(final Mat image, final int begin, final int end) {
+    private int insideX(final Mat image, final int begin, final int end, final int from, final int to) {
         int max = 0;
         int x = 0;
 
         for (int i = begin; i < end; i++) {
             int sum = 0;
-            for (int j = 0; j < image.cols(); j++) {
+            for (int j = from; j < to; j++) {
                 sum = sum + (int) image.get(i, j)[0];
             }
             if (sum > max) {
@@ -174,15 +275,17 @@ public class DaugmanLocalization extends Localization {
      * @param image
      * @param begin
      * @param end
+     * @param from
+     * @param to
      * @return
      */
-    private int insideY(final Mat image, final int begin, final int end) {
+    private int insideY(final Mat image, final int begin, final int end, final int from, final int to) {
         int max = 0;
         int y = 0;
 
         for (int i = begin; i < end; i++) {
             int sum = 0;
-            for (int j = 0; j < image.rows(); j++) {
+            for (int j = from; j < to; j++) {
                 sum = sum + (int) image.get(j, i)[0];
             }
             if (sum > max) {
@@ -62,10 +62,26 @@ public final class HoughLocalization extends Localization {
      * границы РОГ.
      */
     public IrisBorders localize(final Mat irisImage) {
+        return localize(irisImage, null);
+    }
+
+    /**
+     * Localizes iris near the pupil candidate.
+     * Локализует РОГ около кандидата зрачка.
+     *
+     * @param irisImage the iris image.
+     *                  изображение РОГ.
+     * @param pupil     the approximate pupil border or {@code null} to search the whole image.
+     *                  приблизительная граница зрачка или {@code null} для поиска по всему изображению.
+     * @return the borders of iris.
+     * границы РОГ.
+     */
+    @Override
+    public IrisBorders localize(final Mat irisImage, final Border pupil) {
         if (houghParameters.isType()) {
-            return searchIrisWithDifferentCentres(irisImage);
+            return searchIrisWithDifferentCentres(irisImage, pupil);
         } else {
-            return searchIrisWithSameCentres(irisImage);
+            return searchIrisWithSameCentres(irisImage, pupil);
         }
     }
 
@@ -75,13 +91,15 @@ public final class HoughLocalization extends Localization {
      *
      * @param irisImage the iris image.
      *                  изображение РОГ.
+     * @param pupil     the approximate pupil border or {@code null}.
+     *                  приблизительная граница зрачка или {@code null}.
      * @return the borders of iris.
      * границы РОГ.
      */
-    private IrisBorders searchIrisWithSameCentres(final Mat irisImage) {
+    private IrisBorders searchIrisWithSameCentres(final Mat irisImage, final Border pupil) {
         // Searches the inside border.
         // Поиск внутренней границы.
-        Border inside = insideBorder(irisImage);
+        Border inside = pupil == null ? insideBorder(irisImage) : insideBorder(irisImage, pupil);
 
         // Creates parameters for the outside border.
         // Создание параметров для внешней границы.
@@ -100,13 +118,15 @@ public final class HoughLocalization extends Localization {
      *
      * @param irisImage the iris image.
      *                  изображение РОГ.
+     * @param pupil     the approximate pupil border or {@code null}.
+     *                  приблизительная граница зрачка или {@code null}.
      * @return the borders of iris.
      * границы РОГ.
      */
-    private IrisBorders searchIrisWithDifferentCentres(final Mat irisImage) {
+    private IrisBorders searchIrisWithDifferentCentres(final Mat irisImage, final Border pupil) {
         // Searches the inside border.
         // Поиск внутренней границы.
-        Border inside = insideBorder(irisImage);
+        Border inside = pupil == null ? insideBorder(irisImage) : insideBorder(irisImage, pupil);
 
         // Creates parameters for the outside border.
         // Создание параметров для внешней границы.
@@ -213,6 +233,91 @@ public final class HoughLocalization extends Localization {
         return new Border(resX, resY, resR);
     }
 
+    /**
+     * Localizes inside border near the pupil candidate.
+     * Локализует внутреннюю границу около кандидата зрачка.
+     *
+     * @param irisImage the iris image.
+     *                  изображение РОГ.
+     * @param pupil     the approximate pupil border.
+     *                  приблизительная граница зрачка.
+     * @return the inside border.
+     * внутренняя граница РОГ.
+     */
+    private Border insideBorder(final Mat irisImage, final Border pupil) {
+        // The neighborhood of the center and the radius range around the candidate.
+        // Окрестность центра и диапазон радиусов около кандидата.
+        int d = Math.max(pupil.getR() / 4, 3);
+        int minR = Math.max(houghParameters.getMinR(), pupil.getR() * 7 / 10);
+        int maxR = Math.min(houghParameters.getMaxR(), pupil.getR() * 13 / 10 + 1);
+        if (minR >= maxR) {
+            return insideBorder(irisImage);
+        }
+
+        // The window that contains all possible points of the border.
+        // Окно, содержащее все возможные точки границы.
+        int top = Math.max(0, pupil.getX() - d - maxR);
+        int bottom = Math.min(irisImage.rows(), pupil.getX() + d + maxR + 1);
+        int left = Math.max(0, pupil.getY() - d - maxR);
+        int right = Math.min(irisImage.cols(), pupil.getY() + d + maxR + 1);
+        if (top >= bottom || left >= right) {
+            return insideBorder(irisImage);
+        }
+
+        Mat temp = irisImage.submat(top, bottom, left, right).clone();
+
+        // The binarization.
+        // Бинаризация.
+        threshold(temp, temp, houghParameters.getThreshold(), 255, THRESH_BINARY);
+
+        // The morphological operations.
+        // Морфологические операции.
+        erode(temp, temp, getStructuringElement(MORPH_RECT, new Size(7, 7)));
+        dilate(temp, temp, getStructuringElement(MORPH_RECT, new Size(7, 7)));
+
+        // Sobel.
+        // Оператор Собеля.
+        Sobel(temp, temp, 0, 1, 1);
+
+        byte[] pixels = new byte[(int) temp.total()];
+        temp.get(0, 0, pixels);
+
+        // Search border.
+        // Поиск границы.
+        double[][][] acc = new double[2 * d + 1][2 * d + 1][maxR];
+        double max = 0;
+        int resX = pupil.getX();
+        int resY = pupil.getY();
+        int resR = pupil.getR();
+
+        // Перебор возможных точек границы в окне.
+        for (int x = 0; x < temp.rows(); ++x) {
+            for (int y = 0; y < temp.cols(); ++y) {
+                // Если точка не черная, то находим возможные центры около кандидата.
+                if (pixels[x * temp.cols() + y] != 0) {
+                    for (int i = -d; i <= d; ++i) {
+                        for (int j = -d; j <= d; ++j) {
+                            // Находим возможный центр РОГ и увеличиваем аккумулятор.
+                            long r = round(sqrt(pow(top + x - pupil.getX() - i, 2)
+                                    + pow(left + y - pupil.getY() - j, 2)));
+                            if (minR < r && r < maxR) {
+                                acc[i + d][j + d][(int) r] = acc[i + d][j + d][(int) r] + 1d / r;
+                                if (acc[i + d][j + d][(int) r] > max) {
+                                    resR = (int) r;
+                                    resX = pupil.getX() + i;
+                                    resY = pupil.getY() + j;
+                                    max = acc[i + d][j + d][(int) r];
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return new Border(resX, resY, resR);
+    }
+
     /**
      * Localizes outside border when the centers match.
      * Локализует внешнюю границу, когда центры совпадают.
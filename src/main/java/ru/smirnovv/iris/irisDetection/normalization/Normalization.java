@@ -1,6 +1,8 @@
 package ru.smirnovv.iris.irisDetection.normalization;
 
+import org.opencv.core.CvType;
 import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
 import ru.smirnovv.iris.irisDetection.localization.IrisBorders;
 
 /**
@@ -20,5 +22,18 @@ public abstract class Normalization {
      * нормализованное изображение РОГ.
      */
     public abstract Mat normalize(final Mat irisImage, final IrisBorders borders);
+
+    /**
+     * Finds pixels of the normalized iris occluded by eyelids, eyelashes and reflections.
+     * Находит пиксели нормализованного РОГ, перекрытые веками, ресницами и бликами.
+     *
+     * @param normalizedIris the normalized iris image.
+     *                       нормализованное изображение РОГ.
+     * @return the occlusion mask, 255 marks a valid pixel and 0 marks an occluded one.
+     * маска перекрытий, 255 отмечает корректный пиксель, 0 - перекрытый.
+     */
+    public Mat occlusionMask(final Mat normalizedIris) {
+        return new Mat(normalizedIris.rows(), normalizedIris.cols(), CvType.CV_8U, new Scalar(255));
+    }
 }
 
@@ -1,5 +1,6 @@
 package ru.smirnovv.iris.irisDetection.normalization.polarСoordinateSystem;
 
+import org.opencv.core.CvType;
 import org.opencv.core.Mat;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -14,6 +15,24 @@ import static java.lang.Math.*;
  */
 @Component
 public final class PolarCoordinateNormalization extends Normalization {
+    /**
+     * The deviation from the iris brightness (in standard deviations) that marks an eyelid.
+     * Отклонение от яркости РОГ (в стандартных отклонениях), отмечающее веко.
+     */
+    private static final double EYELID_DEVIATION = 2.0;
+
+    /**
+     * The deviation below the iris brightness (in standard deviations) that marks an eyelash.
+     * Отклонение ниже яркости РОГ (в стандартных отклонениях), отмечающее ресницу.
+     */
+    private static final double EYELASH_DEVIATION = 3.0;
+
+    /**
+     * The brightness of the specular reflection.
+     * Яркость блика.
+     */
+    private static final int REFLECTION = 250;
+
     /**
      * Parameters for the normalization.
      * Параметры для нормализации.
@@ -148,4 +167,64 @@ public final class PolarCoordinateNormalization extends Normalization {
 
         return result;
     }
+
+    /**
+     * Finds pixels of the normalized iris occluded by eyelids, eyelashes and reflections.
+     * Находит пиксели нормализованного РОГ, перекрытые веками, ресницами и бликами.
+     *
+     * @param normalizedIris the normalized iris image.
+     *                       нормализованное изображение РОГ.
+     * @return the occlusion mask, 255 marks a valid pixel and 0 marks an occluded one.
+     *                       маска перекрытий, 255 отмечает корректный пиксель, 0 - перекрытый.
+     */
+    @Override
+    public Mat occlusionMask(Mat normalizedIris) {
+        int rows = normalizedIris.rows();
+        int cols = normalizedIris.cols();
+        byte[] pixels = new byte[rows * cols];
+        normalizedIris.get(0, 0, pixels);
+
+        // The brightness of the iris is estimated near the pupil, where eyelids are rare.
+        // Яркость РОГ оценивается около зрачка, где веки встречаются редко.
+        double sum = 0;
+        double squares = 0;
+        int count = (rows - rows / 2) * cols;
+        for (int i = rows / 2 * cols; i < rows * cols; ++i) {
+            int value = pixels[i] & 0xFF;
+            sum = sum + value;
+            squares = squares + value * value;
+        }
+        double aver = sum / count;
+        double disp = sqrt(max(squares / count - aver * aver, 1));
+
+        byte[] mask = new byte[rows * cols];
+        for (int x = 0; x < cols; ++x) {
+            // The eyelid covers the outer rows, they go first in the normalized image.
+            // Веко перекрывает внешние строки, они идут первыми в нормализованном изображении.
+            int eyelid = 0;
+            for (int y = 0, inRange = 0; y < rows / 2 && inRange < 3; ++y) {
+                int value = pixels[y * cols + x] & 0xFF;
+                if (abs(value - aver) > EYELID_DEVIATION * disp) {
+                    inRange = 0;
+                    eyelid = y + 1;
+                } else {
+                    ++inRange;
+                }
+            }
+
+            for (int y = 0; y < rows; ++y) {
+                int value = pixels[y * cols + x] & 0xFF;
+
+                // Eyelids, eyelashes and reflections.
+                // Веки, ресницы и блики.
+                if (y >= eyelid && value < REFLECTION && aver - value <= EYELASH_DEVIATION * disp) {
+                    mask[y * cols + x] = (byte) 255;
+                }
+            }
+        }
+
+        Mat result = new Mat(rows, cols, CvType.CV_8U);
+        result.put(0, 0, mask);
+        return result;
+    }
 }
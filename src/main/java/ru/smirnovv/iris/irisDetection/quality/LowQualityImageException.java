@@ -0,0 +1,70 @@
+package ru.smirnovv.iris.irisDetection.quality;
+
+import ru.smirnovv.iris.InvalidIrisImageException;
+
+/**
+ * This exception indicates that the image of the iris is not good enough for the recognition.
+ * Исключение, указывающие на то, что качество изображения РОГ недостаточно для распознавания.
+ */
+public class LowQualityImageException extends InvalidIrisImageException {
+    /**
+     * The reason why the image was rejected.
+     * Причина, по которой изображение отклонено.
+     */
+    private final Reason reason;
+
+    /**
+     * Constructs an instance with the specified reason and detail message.
+     * Создает экземпляр с указанной причиной и подробным сообщением.
+     *
+     * @param reason  the reason why the image was rejected.
+     *                причина, по которой изображение отклонено.
+     * @param message the detail message.
+     *                подробное сообщение.
+     */
+    public LowQualityImageException(final Reason reason, final String message) {
+        super(reason + ": " + message);
+        this.reason = reason;
+    }
+
+    /**
+     * Returns the reason why the image was rejected.
+     * Возвращает причину, по которой изображение отклонено.
+     *
+     * @return the reason why the image was rejected.
+     *         причина, по которой изображение отклонено.
+     */
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * The reason why the image was rejected.
+     * Причина, по которой изображение отклонено.
+     */
+    public enum Reason {
+        /**
+         * The image is out of focus.
+         * Изображение не в фокусе.
+         */
+        BLURRED,
+
+        /**
+         * The image is too dark.
+         * Изображение слишком темное.
+         */
+        UNDEREXPOSED,
+
+        /**
+         * The image is too bright.
+         * Изображение слишком светлое.
+         */
+        OVEREXPOSED,
+
+        /**
+         * The pupil is not visible, e.g. the eye is closed.
+         * Зрачок не виден, например, глаз закрыт.
+         */
+        PUPIL_NOT_VISIBLE
+    }
+}
@@ -0,0 +1,162 @@
+package ru.smirnovv.iris.irisDetection.quality;
+
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfDouble;
+import org.opencv.core.Size;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import static org.opencv.imgproc.Imgproc.INTER_AREA;
+import static org.opencv.imgproc.Imgproc.Laplacian;
+import static org.opencv.imgproc.Imgproc.THRESH_BINARY_INV;
+import static org.opencv.imgproc.Imgproc.resize;
+import static org.opencv.imgproc.Imgproc.threshold;
+import static ru.smirnovv.iris.irisDetection.quality.LowQualityImageException.Reason;
+
+/**
+ * A class that rejects images which are not good enough for the recognition.
+ * Класс, отклоняющий изображения, непригодные для распознавания.
+ */
+@Component
+public class QualityAssessment {
+    /**
+     * Parameters for the quality assessment.
+     * Параметры для оценки качества.
+     */
+    private final QualityParameters parameters;
+
+    /**
+     * Constructs an instance with injected dependencies.
+     * Создает экземпляр с внедренными зависимостями.
+     *
+     * @param parameters parameters for the quality assessment.
+     *                   параметры для оценки качества.
+     */
+    public QualityAssessment(final QualityParameters parameters) {
+        this.parameters = parameters;
+    }
+
+    /**
+     * Constructs an instance with injected properties.
+     * Создает экземпляр с внедренными настройками.
+     *
+     * @param minFocus       the minimum variance of the Laplacian (focus measure).
+     *                       минимальная дисперсия Лапласиана (мера фокусировки).
+     * @param minBrightness  the minimum average brightness.
+     *                       минимальная средняя яркость.
+     * @param maxBrightness  the maximum average brightness.
+     *                       максимальная средняя яркость.
+     * @param pupilThreshold the binarization threshold of the pupil.
+     *                       порог бинаризации зрачка.
+     * @param minPupilArea   the minimum number of the pupil pixels.
+     *                       минимальное количество пикселей зрачка.
+     * @param sampleScale    the scale at which the image is reduced for the assessment at least.
+     *                       масштаб, с которым изображение уменьшается для оценки как минимум.
+     */
+    @Autowired
+    public QualityAssessment(@Value("${iris.quality.min-focus:10}") final double minFocus,
+                             @Value("${iris.quality.min-brightness:30}") final double minBrightness,
+                             @Value("${iris.quality.max-brightness:220}") final double maxBrightness,
+                             @Value("${iris.quality.pupil-threshold:60}") final int pupilThreshold,
+                             @Value("${iris.quality.min-pupil-area:1000}") final int minPupilArea,
+                             @Value("${iris.quality.sample-scale:4}") final int sampleScale) {
+        this(new QualityParameters(minFocus, minBrightness, maxBrightness, pupilThreshold, minPupilArea,
+                sampleScale));
+    }
+
+    /**
+     * Checks the exposure, the focus and the visibility of the pupil on the image reduced to the sample scale.
+     * Проверяет экспозицию, фокусировку и видимость зрачка на изображении, уменьшенном до масштаба выборки.
+     * <p>
+     * The focus and the pupil area thresholds are calibrated in pixels of the full resolution image,
+     * the pupil area shrinks by scale² and the Laplacian of the downscaled edges grows roughly by scale.
+     * Пороги фокусировки и площади зрачка откалиброваны в пикселях изображения в полном разрешении,
+     * площадь зрачка уменьшается в scale² раз, а Лапласиан уменьшенных границ растет примерно в scale раз.
+     *
+     * @param irisImage the grayscale iris image.
+     *                  изображение РОГ в оттенках серого.
+     * @param scale     the scale at which the image is reduced relative to the full resolution.
+     *                  масштаб, с которым изображение уменьшено относительно полного разрешения.
+     * @throws LowQualityImageException is thrown when the image is not good enough for the recognition.
+     *                                  данное исключение, выбрасывается если изображение непригодно для распознавания.
+     */
+    public void assess(final Mat irisImage, final int scale) throws LowQualityImageException {
+        int sampleScale = Math.max(scale, parameters.getSampleScale());
+        if (sampleScale == scale) {
+            check(irisImage, scale);
+            return;
+        }
+
+        Mat sample = new Mat();
+        try {
+            resize(irisImage, sample, new Size(), (double) scale / sampleScale, (double) scale / sampleScale,
+                    INTER_AREA);
+            check(sample, sampleScale);
+        } finally {
+            sample.release();
+        }
+    }
+
+    /**
+     * Checks the exposure, the focus and the visibility of the pupil.
+     * Проверяет экспозицию, фокусировку и видимость зрачка.
+     *
+     * @param irisImage the grayscale iris image.
+     *                  изображение РОГ в оттенках серого.
+     * @param scale     the scale at which the image is reduced relative to the full resolution.
+     *                  масштаб, с которым изображение уменьшено относительно полного разрешения.
+     * @throws LowQualityImageException is thrown when the image is not good enough for the recognition.
+     *                                  данное исключение, выбрасывается если изображение непригодно для распознавания.
+     */
+    private void check(final Mat irisImage, final int scale) throws LowQualityImageException {
+        // Exposure.
+        // Экспозиция.
+        double brightness = Core.mean(irisImage).val[0];
+        if (brightness < parameters.getMinBrightness()) {
+            throw new LowQualityImageException(Reason.UNDEREXPOSED,
+                    "The average brightness " + Math.round(brightness) + " is too low.");
+        }
+        if (brightness > parameters.getMaxBrightness()) {
+            throw new LowQualityImageException(Reason.OVEREXPOSED,
+                    "The average brightness " + Math.round(brightness) + " is too high.");
+        }
+
+        // Focus measure is the variance of the Laplacian.
+        // Мера фокусировки - дисперсия Лапласиана.
+        Mat laplacian = new Mat();
+        MatOfDouble mean = new MatOfDouble();
+        MatOfDouble deviation = new MatOfDouble();
+        double focus;
+        try {
+            Laplacian(irisImage, laplacian, CvType.CV_64F);
+            Core.meanStdDev(laplacian, mean, deviation);
+            focus = deviation.get(0, 0)[0] * deviation.get(0, 0)[0];
+        } finally {
+            laplacian.release();
+            mean.release();
+            deviation.release();
+        }
+        if (focus < parameters.getMinFocus() * scale) {
+            throw new LowQualityImageException(Reason.BLURRED,
+                    "The image is out of focus.");
+        }
+
+        // The pupil is the dark area, it is missing when the eye is closed.
+        // Зрачок - темная область, она отсутствует, если глаз закрыт.
+        Mat pupil = new Mat();
+        int pupilArea;
+        try {
+            threshold(irisImage, pupil, parameters.getPupilThreshold(), 255, THRESH_BINARY_INV);
+            pupilArea = Core.countNonZero(pupil);
+        } finally {
+            pupil.release();
+        }
+        if (pupilArea < parameters.getMinPupilArea() / (scale * scale)) {
+            throw new LowQualityImageException(Reason.PUPIL_NOT_VISIBLE,
+                    "The pupil is not visible.");
+        }
+    }
+}
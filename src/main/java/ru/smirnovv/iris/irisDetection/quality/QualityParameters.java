@@ -0,0 +1,166 @@
+package ru.smirnovv.iris.irisDetection.quality;
+
+/**
+ * Parameters for the quality assessment.
+ * Параметры для оценки качества.
+ */
+public class QualityParameters {
+    /**
+     * The minimum variance of the Laplacian (focus measure).
+     * Минимальная дисперсия Лапласиана (мера фокусировки).
+     */
+    final private double minFocus;
+
+    /**
+     * The minimum average brightness.
+     * Минимальная средняя яркость.
+     */
+    final private double minBrightness;
+
+    /**
+     * The maximum average brightness.
+     * Максимальная средняя яркость.
+     */
+    final private double maxBrightness;
+
+    /**
+     * The binarization threshold of the pupil.
+     * Порог бинаризации зрачка.
+     */
+    final private int pupilThreshold;
+
+    /**
+     * The minimum number of the pupil pixels.
+     * Минимальное количество пикселей зрачка.
+     */
+    final private int minPupilArea;
+
+    /**
+     * The scale at which the image is reduced for the assessment at least.
+     * Масштаб, с которым изображение уменьшается для оценки как минимум.
+     */
+    final private int sampleScale;
+
+    /**
+     * Constructs an instance with injected dependencies.
+     * Создает экземпляр с внедренными зависимостями.
+     *
+     * @param minFocus       the minimum variance of the Laplacian (focus measure).
+     *                       минимальная дисперсия Лапласиана (мера фокусировки).
+     * @param minBrightness  the minimum average brightness.
+     *                       минимальная средняя яркость.
+     * @param maxBrightness  the maximum average brightness.
+     *                       максимальная средняя яркость.
+     * @param pupilThreshold the binarization threshold of the pupil.
+     *                       порог бинаризации зрачка.
+     * @param minPupilArea   the minimum number of the pupil pixels.
+     *                       минимальное количество пикселей зрачка.
+     */
+    public QualityParameters(final double minFocus,
+                             final double minBrightness,
+                             final double maxBrightness,
+                             final int pupilThreshold,
+                             final int minPupilArea) {
+        this(minFocus, minBrightness, maxBrightness, pupilThreshold, minPupilArea, 1);
+    }
+
+    /**
+     * Constructs an instance with injected dependencies and the sample scale.
+     * Создает экземпляр с внедренными зависимостями и масштабом выборки.
+     *
+     * @param minFocus       the minimum variance of the Laplacian (focus measure).
+     *                       минимальная дисперсия Лапласиана (мера фокусировки).
+     * @param minBrightness  the minimum average brightness.
+     *                       минимальная средняя яркость.
+     * @param maxBrightness  the maximum average brightness.
+     *                       максимальная средняя яркость.
+     * @param pupilThreshold the binarization threshold of the pupil.
+     *                       порог бинаризации зрачка.
+     * @param minPupilArea   the minimum number of the pupil pixels.
+     *                       минимальное количество пикселей зрачка.
+     * @param sampleScale    the scale at which the image is reduced for the assessment at least.
+     *                       масштаб, с которым изображение уменьшается для оценки как минимум.
+     */
+    public QualityParameters(final double minFocus,
+                             final double minBrightness,
+                             final double maxBrightness,
+                             final int pupilThreshold,
+                             final int minPupilArea,
+                             final int sampleScale) {
+        if (sampleScale < 1) {
+            throw new IllegalArgumentException("Argument 'sampleScale' must be positive");
+        }
+        this.minFocus = minFocus;
+        this.minBrightness = minBrightness;
+        this.maxBrightness = maxBrightness;
+        this.pupilThreshold = pupilThreshold;
+        this.minPupilArea = minPupilArea;
+        this.sampleScale = sampleScale;
+    }
+
+    /**
+     * Returns the minimum variance of the Laplacian.
+     * Возвращает минимальную дисперсию Лапласиана.
+     *
+     * @return the minimum variance of the Laplacian.
+     *         минимальная дисперсия Лапласиана.
+     */
+    public final double getMinFocus() {
+        return minFocus;
+    }
+
+    /**
+     * Returns the minimum average brightness.
+     * Возвращает минимальную среднюю яркость.
+     *
+     * @return the minimum average brightness.
+     *         минимальная средняя яркость.
+     */
+    public final double getMinBrightness() {
+        return minBrightness;
+    }
+
+    /**
+     * Returns the maximum average brightness.
+     * Возвращает максимальную среднюю яркость.
+     *
+     * @return the maximum average brightness.
+     *         максимальная средняя яркость.
+     */
+    public final double getMaxBrightness() {
+        return maxBrightness;
+    }
+
+    /**
+     * Returns the binarization threshold of the pupil.
+     * Возвращает порог бинаризации зрачка.
+     *
+     * @return the binarization threshold of the pupil.
+     *         порог бинаризации зрачка.
+     */
+    public final int getPupilThreshold() {
+        return pupilThreshold;
+    }
+
+    /**
+     * Returns the minimum number of the pupil pixels.
+     * Возвращает минимальное количество пикселей зрачка.
+     *
+     * @return the minimum number of the pupil pixels.
+     *         минимальное количество пикселей зрачка.
+     */
+    public final int getMinPupilArea() {
+        return minPupilArea;
+    }
+
+    /**
+     * Returns the scale at which the image is reduced for the assessment at least.
+     * Возвращает масштаб, с которым изображение уменьшается для оценки как минимум.
+     *
+     * @return the scale of the assessment.
+     *         масштаб оценки.
+     */
+    public final int getSampleScale() {
+        return sampleScale;
+    }
+}
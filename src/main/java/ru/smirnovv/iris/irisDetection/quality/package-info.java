@@ -0,0 +1,5 @@
+/**
+ * The package containing classes that assess the quality of the iris image.
+ * Пакет, содержащий классы, оценивающие качество изображения РОГ.
+ */
+package ru.smirnovv.iris.irisDetection.quality;
@@ -0,0 +1,64 @@
+package ru.smirnovv.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JFR event of the encryption or decryption of an iris code.
+ * JFR событие шифрования или дешифрования iris code.
+ * <p>
+ * A gallery scan decrypts every entry, so the event is disabled by default,
+ * the scan event already carries the number of the decrypted entries.
+ * Просмотр галереи дешифрует каждую запись, поэтому событие по умолчанию выключено,
+ * событие просмотра уже содержит количество дешифрованных записей.
+ */
+@Name("ru.smirnovv.Crypto")
+@Label("Iris Code Crypto")
+@Description("Encryption or decryption of an iris code")
+@Category({"IrisRec", "Gallery"})
+@Enabled(false)
+public final class CryptoEvent extends jdk.jfr.Event {
+    /**
+     * Whether the code is encrypted or decrypted.
+     * Шифруется или дешифруется код.
+     */
+    @Label("Encrypt")
+    private boolean encrypt;
+
+    /**
+     * The id of the key.
+     * Id ключа.
+     */
+    @Label("Key Id")
+    private String keyId;
+
+    /**
+     * The size of the encrypted code.
+     * Размер зашифрованного кода.
+     */
+    @Label("Size")
+    @DataAmount
+    private long size;
+
+    /**
+     * Starts the event.
+     * Начинает событие.
+     *
+     * @param encrypt whether the code is encrypted or decrypted.
+     *                шифруется или дешифруется код.
+     * @param keyId   the id of the key.
+     *                id ключа.
+     * @param size    the size of the code.
+     *                размер кода.
+     */
+    public CryptoEvent(final boolean encrypt, final String keyId, final long size) {
+        this.encrypt = encrypt;
+        this.keyId = keyId;
+        this.size = size;
+        begin();
+    }
+}
@@ -0,0 +1,75 @@
+package ru.smirnovv.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JFR event of the decoding of an uploaded image.
+ * JFR событие декодирования загруженного изображения.
+ */
+@Name("ru.smirnovv.Decode")
+@Label("Iris Image Decode")
+@Description("Decoding of an uploaded eye image and its quality assessment")
+@Category({"IrisRec", "Detection"})
+public final class DecodeEvent extends jdk.jfr.Event {
+    /**
+     * The size of the uploaded image.
+     * Размер загруженного изображения.
+     */
+    @Label("Image Size")
+    @DataAmount
+    private long imageSize;
+
+    /**
+     * The width of the decoded image.
+     * Ширина декодированного изображения.
+     */
+    @Label("Width")
+    private int width;
+
+    /**
+     * The height of the decoded image.
+     * Высота декодированного изображения.
+     */
+    @Label("Height")
+    private int height;
+
+    /**
+     * The scale at which the image is decoded for the localization.
+     * Масштаб, с которым изображение декодируется для локализации.
+     */
+    @Label("Reduced Scale")
+    private int reducedScale;
+
+    /**
+     * Starts the event.
+     * Начинает событие.
+     *
+     * @param imageSize    the size of the uploaded image.
+     *                     размер загруженного изображения.
+     * @param reducedScale the scale at which the image is decoded for the localization.
+     *                     масштаб, с которым изображение декодируется для локализации.
+     */
+    public DecodeEvent(final long imageSize, final int reducedScale) {
+        this.imageSize = imageSize;
+        this.reducedScale = reducedScale;
+        begin();
+    }
+
+    /**
+     * Records the decoded size.
+     * Записывает декодированный размер.
+     *
+     * @param width  the width of the decoded image.
+     *               ширина декодированного изображения.
+     * @param height the height of the decoded image.
+     *               высота декодированного изображения.
+     */
+    public void decoded(final int width, final int height) {
+        this.width = width;
+        this.height = height;
+    }
+}
@@ -0,0 +1,159 @@
+package ru.smirnovv.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A JFR event of a scan of the gallery by one or several probes.
+ * JFR событие просмотра галереи одной или несколькими пробами.
+ */
+@Name("ru.smirnovv.GalleryScan")
+@Label("Gallery Scan")
+@Description("Decryption and comparison of the gallery entries, a full scan visits the whole gallery")
+@Category({"IrisRec", "Gallery"})
+public final class GalleryScanEvent extends jdk.jfr.Event {
+    /**
+     * The operation of the scan.
+     * Операция просмотра.
+     */
+    @Label("Operation")
+    private String operation;
+
+    /**
+     * The number of the probes.
+     * Количество проб.
+     */
+    @Label("Probes")
+    private int probes;
+
+    /**
+     * The number of the decrypted gallery entries.
+     * Количество дешифрованных записей галереи.
+     */
+    @Label("Entries")
+    private long entries;
+
+    /**
+     * The number of the comparisons.
+     * Количество сравнений.
+     */
+    @Label("Comparisons")
+    private long comparisons;
+
+    /**
+     * The number of the probes that found a match.
+     * Количество проб, нашедших совпадение.
+     */
+    @Label("Matches")
+    private int matches;
+
+    /**
+     * The total time of the decryption.
+     * Общее время дешифрования.
+     */
+    @Label("Decrypt Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long decryptTime;
+
+    /**
+     * The total time of the comparisons.
+     * Общее время сравнений.
+     */
+    @Label("Compare Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long compareTime;
+
+    /**
+     * Starts the event.
+     * Начинает событие.
+     *
+     * @param operation the operation of the scan.
+     *                  операция просмотра.
+     * @param probes    the number of the probes.
+     *                  количество проб.
+     */
+    public GalleryScanEvent(final String operation, final int probes) {
+        this.operation = operation;
+        this.probes = probes;
+        begin();
+    }
+
+    /**
+     * Counts a decrypted entry.
+     * Учитывает дешифрованную запись.
+     *
+     * @param nanos the time of the decryption in nanoseconds.
+     *              время дешифрования в наносекундах.
+     */
+    public void entry(final long nanos) {
+        entries++;
+        decryptTime += nanos;
+    }
+
+    /**
+     * Counts a comparison.
+     * Учитывает сравнение.
+     *
+     * @param nanos the time of the comparison in nanoseconds.
+     *              время сравнения в наносекундах.
+     */
+    public void comparison(final long nanos) {
+        comparisons++;
+        compareTime += nanos;
+    }
+
+    /**
+     * Counts a probe that found a match.
+     * Учитывает пробу, нашедшую совпадение.
+     */
+    public void match() {
+        matches++;
+    }
+
+    /**
+     * Returns the number of the decrypted gallery entries.
+     * Возвращает количество дешифрованных записей галереи.
+     *
+     * @return the number of the entries.
+     *         количество записей.
+     */
+    public long getEntries() {
+        return entries;
+    }
+
+    /**
+     * Returns the number of the comparisons.
+     * Возвращает количество сравнений.
+     *
+     * @return the number of the comparisons.
+     *         количество сравнений.
+     */
+    public long getComparisons() {
+        return comparisons;
+    }
+
+    /**
+     * Returns the total time of the decryption.
+     * Возвращает общее время дешифрования.
+     *
+     * @return the time in nanoseconds.
+     *         время в наносекундах.
+     */
+    public long getDecryptTime() {
+        return decryptTime;
+    }
+
+    /**
+     * Returns the total time of the comparisons.
+     * Возвращает общее время сравнений.
+     *
+     * @return the time in nanoseconds.
+     *         время в наносекундах.
+     */
+    public long getCompareTime() {
+        return compareTime;
+    }
+}
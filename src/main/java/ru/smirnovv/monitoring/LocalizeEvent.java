@@ -0,0 +1,142 @@
+package ru.smirnovv.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JFR event of the search of the iris borders by a localization.
+ * JFR событие поиска границ РОГ локализацией.
+ */
+@Name("ru.smirnovv.Localize")
+@Label("Iris Localization")
+@Description("Search of the pupil and iris borders, the borders are -1 if the iris is not found")
+@Category({"IrisRec", "Detection"})
+public final class LocalizeEvent extends jdk.jfr.Event {
+    /**
+     * The class of the localization.
+     * Класс локализации.
+     */
+    @Label("Localization")
+    private Class<?> localization;
+
+    /**
+     * The width of the image.
+     * Ширина изображения.
+     */
+    @Label("Width")
+    private int width;
+
+    /**
+     * The height of the image.
+     * Высота изображения.
+     */
+    @Label("Height")
+    private int height;
+
+    /**
+     * Whether the search is narrowed by the pupil candidate.
+     * Сужен ли поиск кандидатом зрачка.
+     */
+    @Label("Pupil Hint")
+    private boolean pupilHint;
+
+    /**
+     * The row of the center of the pupil.
+     * Строка центра зрачка.
+     */
+    @Label("Pupil X")
+    private int pupilX = -1;
+
+    /**
+     * The column of the center of the pupil.
+     * Столбец центра зрачка.
+     */
+    @Label("Pupil Y")
+    private int pupilY = -1;
+
+    /**
+     * The radius of the pupil.
+     * Радиус зрачка.
+     */
+    @Label("Pupil Radius")
+    private int pupilRadius = -1;
+
+    /**
+     * The row of the center of the iris.
+     * Строка центра РОГ.
+     */
+    @Label("Iris X")
+    private int irisX = -1;
+
+    /**
+     * The column of the center of the iris.
+     * Столбец центра РОГ.
+     */
+    @Label("Iris Y")
+    private int irisY = -1;
+
+    /**
+     * The radius of the iris.
+     * Радиус РОГ.
+     */
+    @Label("Iris Radius")
+    private int irisRadius = -1;
+
+    /**
+     * Starts the event.
+     * Начинает событие.
+     *
+     * @param localization the class of the localization.
+     *                     класс локализации.
+     * @param width        the width of the image.
+     *                     ширина изображения.
+     * @param height       the height of the image.
+     *                     высота изображения.
+     */
+    public LocalizeEvent(final Class<?> localization, final int width, final int height) {
+        this.localization = localization;
+        this.width = width;
+        this.height = height;
+        begin();
+    }
+
+    /**
+     * Records whether the search is narrowed by the pupil candidate.
+     * Записывает, сужен ли поиск кандидатом зрачка.
+     *
+     * @param pupilHint whether the pupil candidate is found.
+     *                  найден ли кандидат зрачка.
+     */
+    public void pupilHint(final boolean pupilHint) {
+        this.pupilHint = pupilHint;
+    }
+
+    /**
+     * Records the found borders.
+     * Записывает найденные границы.
+     *
+     * @param pupilX      the row of the center of the pupil.
+     *                    строка центра зрачка.
+     * @param pupilY      the column of the center of the pupil.
+     *                    столбец центра зрачка.
+     * @param pupilRadius the radius of the pupil.
+     *                    радиус зрачка.
+     * @param irisX       the row of the center of the iris.
+     *                    строка центра РОГ.
+     * @param irisY       the column of the center of the iris.
+     *                    столбец центра РОГ.
+     * @param irisRadius  the radius of the iris.
+     *                    радиус РОГ.
+     */
+    public void found(final int pupilX, final int pupilY, final int pupilRadius,
+                      final int irisX, final int irisY, final int irisRadius) {
+        this.pupilX = pupilX;
+        this.pupilY = pupilY;
+        this.pupilRadius = pupilRadius;
+        this.irisX = irisX;
+        this.irisY = irisY;
+        this.irisRadius = irisRadius;
+    }
+}
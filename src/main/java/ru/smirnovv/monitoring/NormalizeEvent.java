@@ -0,0 +1,75 @@
+package ru.smirnovv.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+
+/**
+ * A JFR event of the normalization of the iris ring and the search of its occlusions.
+ * JFR событие нормализации кольца РОГ и поиска его перекрытий.
+ */
+@Name("ru.smirnovv.Normalize")
+@Label("Iris Normalization")
+@Description("Unwrapping of the iris ring into the template and the search of its occlusions")
+@Category({"IrisRec", "Detection"})
+public final class NormalizeEvent extends jdk.jfr.Event {
+    /**
+     * The class of the normalization.
+     * Класс нормализации.
+     */
+    @Label("Normalization")
+    private Class<?> normalization;
+
+    /**
+     * The radius of the iris at the sampled resolution.
+     * Радиус РОГ в разрешении выборки.
+     */
+    @Label("Iris Radius")
+    private int irisRadius;
+
+    /**
+     * Whether the image is decoded again at full resolution.
+     * Декодируется ли изображение повторно в полном разрешении.
+     */
+    @Label("Full Resolution Redecode")
+    private boolean redecoded;
+
+    /**
+     * The fraction of the occluded pixels.
+     * Доля перекрытых пикселей.
+     */
+    @Label("Occluded")
+    @Percentage
+    private double occluded;
+
+    /**
+     * Starts the event.
+     * Начинает событие.
+     *
+     * @param normalization the class of the normalization.
+     *                      класс нормализации.
+     * @param redecoded     whether the image is decoded again at full resolution.
+     *                      декодируется ли изображение повторно в полном разрешении.
+     */
+    public NormalizeEvent(final Class<?> normalization, final boolean redecoded) {
+        this.normalization = normalization;
+        this.redecoded = redecoded;
+        begin();
+    }
+
+    /**
+     * Records the sampled ring and its occlusions.
+     * Записывает выбранное кольцо и его перекрытия.
+     *
+     * @param irisRadius the radius of the iris at the sampled resolution.
+     *                   радиус РОГ в разрешении выборки.
+     * @param occluded   the fraction of the occluded pixels.
+     *                   доля перекрытых пикселей.
+     */
+    public void normalized(final int irisRadius, final double occluded) {
+        this.irisRadius = irisRadius;
+        this.occluded = occluded;
+    }
+}
@@ -0,0 +1,472 @@
+package ru.smirnovv.monitoring;
+
+import ru.smirnovv.iris.irisDetection.localization.IrisBorders;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * The breakdown of one request into the recognition stages for the {@code Server-Timing} header
+ * and the slow request sampler.
+ * Разбивка одного запроса по этапам распознавания для заголовка {@code Server-Timing}
+ * и сборщика медленных запросов.
+ * <p>
+ * The breakdown of the current request is bound to the thread, the pipeline stages
+ * carry it over to their threads, so the stages record into it wherever they run.
+ * Without the bound breakdown the recording does nothing.
+ * Разбивка текущего запроса привязана к потоку, этапы конвейера переносят ее
+ * в свои потоки, поэтому этапы записывают в нее, где бы они ни выполнялись.
+ * Без привязанной разбивки запись ничего не делает.
+ */
+public final class ServerTiming {
+    /**
+     * The name of the request attribute with the breakdown.
+     * Название атрибута запроса с разбивкой.
+     */
+    public static final String ATTRIBUTE = ServerTiming.class.getName();
+
+    /**
+     * The name of the header.
+     * Название заголовка.
+     */
+    public static final String HEADER = "Server-Timing";
+
+    /**
+     * The maximum number of the images kept for the sampler.
+     * Максимальное количество изображений, сохраняемых для сборщика.
+     */
+    private static final int MAX_IMAGES = 16;
+
+    /**
+     * The breakdown bound to the thread.
+     * Разбивка, привязанная к потоку.
+     */
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    /**
+     * The recorded stages of the request.
+     * Записываемые этапы запроса.
+     */
+    public enum Metric {
+        /**
+         * The decoding of the image.
+         * Декодирование изображения.
+         */
+        DECODE("decode"),
+
+        /**
+         * The localization of the iris.
+         * Локализация РОГ.
+         */
+        LOCALIZE("localize"),
+
+        /**
+         * The normalization of the iris.
+         * Нормализация РОГ.
+         */
+        NORMALIZE("normalize"),
+
+        /**
+         * The encoding and encryption of the iris code.
+         * Кодирование и шифрование iris code.
+         */
+        ENCODE("encode"),
+
+        /**
+         * The waiting in the queues of the pipeline stages.
+         * Ожидание в очередях этапов конвейера.
+         */
+        QUEUE("queue"),
+
+        /**
+         * The scan of the gallery, including the reading of the gallery from the database.
+         * Просмотр галереи, включая чтение галереи из базы данных.
+         */
+        SCAN("scan"),
+
+        /**
+         * The other database queries.
+         * Остальные запросы к базе данных.
+         */
+        DB("db");
+
+        /**
+         * The name of the metric in the header.
+         * Название метрики в заголовке.
+         */
+        private final String name;
+
+        /**
+         * Constructs an instance with the specified name.
+         * Создает экземпляр с указанным названием.
+         *
+         * @param name the name of the metric in the header.
+         *             название метрики в заголовке.
+         */
+        Metric(final String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * The time the request started.
+     * Время начала запроса.
+     */
+    private final long start = System.nanoTime();
+
+    /**
+     * The durations of the stages in nanoseconds.
+     * Длительности этапов в наносекундах.
+     */
+    private final AtomicLongArray durations = new AtomicLongArray(Metric.values().length);
+
+    /**
+     * The number of the comparisons.
+     * Количество сравнений.
+     */
+    private final AtomicLong comparisons = new AtomicLong();
+
+    /**
+     * The localized images kept for the sampler or {@code null} if they are not kept.
+     * Локализованные изображения, сохраняемые для сборщика, или {@code null}, если они не сохраняются.
+     */
+    private final List<Localized> localized;
+
+    /**
+     * Constructs an instance that does not keep the images.
+     * Создает экземпляр, не сохраняющий изображения.
+     */
+    public ServerTiming() {
+        this(false);
+    }
+
+    /**
+     * Constructs an instance with the specified properties.
+     * Создает экземпляр с указанными свойствами.
+     *
+     * @param keepImages whether the localized images are kept for the sampler.
+     *                   сохраняются ли локализованные изображения для сборщика.
+     */
+    public ServerTiming(final boolean keepImages) {
+        this.localized = keepImages ? new CopyOnWriteArrayList<>() : null;
+    }
+
+    /**
+     * Returns the breakdown bound to the thread.
+     * Возвращает разбивку, привязанную к потоку.
+     *
+     * @return the breakdown or {@code null} if none is bound.
+     *         разбивка или {@code null}, если она не привязана.
+     */
+    public static ServerTiming current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds the breakdown to the thread.
+     * Привязывает разбивку к потоку.
+     *
+     * @param timing the breakdown or {@code null} to unbind.
+     *               разбивка или {@code null}, чтобы отвязать.
+     * @return the previously bound breakdown to restore.
+     *         ранее привязанная разбивка для восстановления.
+     */
+    public static ServerTiming bind(final ServerTiming timing) {
+        ServerTiming previous = CURRENT.get();
+        if (timing == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(timing);
+        }
+        return previous;
+    }
+
+    /**
+     * Records the duration of the stage into the bound breakdown.
+     * Записывает длительность этапа в привязанную разбивку.
+     *
+     * @param metric the stage.
+     *               этап.
+     * @param nanos  the duration in nanoseconds.
+     *               длительность в наносекундах.
+     */
+    public static void record(final Metric metric, final long nanos) {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.add(metric, nanos);
+        }
+    }
+
+    /**
+     * Records the comparisons into the bound breakdown.
+     * Записывает сравнения в привязанную разбивку.
+     *
+     * @param count the number of the comparisons.
+     *              количество сравнений.
+     */
+    public static void compared(final long count) {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.comparisons.addAndGet(count);
+        }
+    }
+
+    /**
+     * Records the localized image into the bound breakdown if it keeps the images.
+     * Записывает локализованное изображение в привязанную разбивку, если она сохраняет изображения.
+     *
+     * @param image        the uploaded image.
+     *                     загруженное изображение.
+     * @param localization the class of the localization.
+     *                     класс локализации.
+     * @param borders      the found borders or {@code null} if the iris is not found.
+     *                     найденные границы или {@code null}, если РОГ не найден.
+     * @param nanos        the duration of the localization in nanoseconds.
+     *                     длительность локализации в наносекундах.
+     */
+    public static void localized(final byte[] image, final Class<?> localization,
+                                 final IrisBorders borders, final long nanos) {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null && timing.localized != null && timing.localized.size() < MAX_IMAGES) {
+            timing.localized.add(new Localized(image, localization.getSimpleName(), borders, nanos));
+        }
+    }
+
+    /**
+     * Runs the task and records its duration into the bound breakdown.
+     * Выполняет задачу и записывает ее длительность в привязанную разбивку.
+     *
+     * @param metric the stage.
+     *               этап.
+     * @param task   the task.
+     *               задача.
+     * @param <T>    the type of the result.
+     *               тип результата.
+     * @return the result of the task.
+     *         результат задачи.
+     */
+    public static <T> T time(final Metric metric, final Supplier<T> task) {
+        long started = System.nanoTime();
+        try {
+            return task.get();
+        } finally {
+            record(metric, System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * Adds the duration of the stage.
+     * Добавляет длительность этапа.
+     *
+     * @param metric the stage.
+     *               этап.
+     * @param nanos  the duration in nanoseconds.
+     *               длительность в наносекундах.
+     */
+    public void add(final Metric metric, final long nanos) {
+        durations.addAndGet(metric.ordinal(), nanos);
+    }
+
+    /**
+     * Adds the breakdown of the work shared with other requests, such as a batched gallery scan.
+     * Добавляет разбивку работы, общей с другими запросами, например пакетного просмотра галереи.
+     *
+     * @param shared the breakdown of the shared work.
+     *               разбивка общей работы.
+     */
+    public void add(final ServerTiming shared) {
+        for (Metric metric : Metric.values()) {
+            durations.addAndGet(metric.ordinal(), shared.durations.get(metric.ordinal()));
+        }
+        comparisons.addAndGet(shared.comparisons.get());
+    }
+
+    /**
+     * Returns the duration of the stage.
+     * Возвращает длительность этапа.
+     *
+     * @param metric the stage.
+     *               этап.
+     * @return the duration in nanoseconds.
+     *         длительность в наносекундах.
+     */
+    public long getDuration(final Metric metric) {
+        return durations.get(metric.ordinal());
+    }
+
+    /**
+     * Returns the number of the comparisons.
+     * Возвращает количество сравнений.
+     *
+     * @return the number of the comparisons.
+     *         количество сравнений.
+     */
+    public long getComparisons() {
+        return comparisons.get();
+    }
+
+    /**
+     * Returns the time since the start of the request.
+     * Возвращает время с начала запроса.
+     *
+     * @return the time in nanoseconds.
+     *         время в наносекундах.
+     */
+    public long getElapsed() {
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Returns the localized images.
+     * Возвращает локализованные изображения.
+     *
+     * @return the localized images, empty if they are not kept.
+     *         локализованные изображения, пустой список, если они не сохраняются.
+     */
+    public List<Localized> getLocalized() {
+        return localized == null ? Collections.emptyList() : localized;
+    }
+
+    /**
+     * Formats the breakdown as the value of the {@code Server-Timing} header, the stages that
+     * did not run are omitted.
+     * Форматирует разбивку как значение заголовка {@code Server-Timing}, невыполненные этапы опускаются.
+     *
+     * @return the value of the header.
+     *         значение заголовка.
+     */
+    public String toHeader() {
+        StringBuilder header = new StringBuilder();
+        for (Metric metric : Metric.values()) {
+            long nanos = durations.get(metric.ordinal());
+            if (nanos > 0) {
+                append(header, metric.name, nanos);
+                if (metric == Metric.SCAN) {
+                    header.append(";desc=\"").append(comparisons.get()).append(" comparisons\"");
+                }
+            }
+        }
+        append(header, "total", getElapsed());
+        return header.toString();
+    }
+
+    /**
+     * Appends the metric to the header.
+     * Добавляет метрику к заголовку.
+     *
+     * @param header the header.
+     *               заголовок.
+     * @param name   the name of the metric.
+     *               название метрики.
+     * @param nanos  the duration in nanoseconds.
+     *               длительность в наносекундах.
+     */
+    private static void append(final StringBuilder header, final String name, final long nanos) {
+        if (header.length() > 0) {
+            header.append(", ");
+        }
+        header.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.1f",
+                nanos / (double) TimeUnit.MILLISECONDS.toNanos(1)));
+    }
+
+    /**
+     * An image of the request with the result of its localization.
+     * Изображение запроса с результатом его локализации.
+     */
+    public static final class Localized {
+        /**
+         * The uploaded image.
+         * Загруженное изображение.
+         */
+        private final byte[] image;
+
+        /**
+         * The name of the localization.
+         * Название локализации.
+         */
+        private final String localization;
+
+        /**
+         * The found borders or {@code null} if the iris is not found.
+         * Найденные границы или {@code null}, если РОГ не найден.
+         */
+        private final IrisBorders borders;
+
+        /**
+         * The duration of the localization in nanoseconds.
+         * Длительность локализации в наносекундах.
+         */
+        private final long nanos;
+
+        /**
+         * Constructs an instance with the specified properties.
+         * Создает экземпляр с указанными свойствами.
+         *
+         * @param image        the uploaded image.
+         *                     загруженное изображение.
+         * @param localization the name of the localization.
+         *                     название локализации.
+         * @param borders      the found borders or {@code null} if the iris is not found.
+         *                     найденные границы или {@code null}, если РОГ не найден.
+         * @param nanos        the duration of the localization in nanoseconds.
+         *                     длительность локализации в наносекундах.
+         */
+        private Localized(final byte[] image, final String localization, final IrisBorders borders,
+                          final long nanos) {
+            this.image = image;
+            this.localization = localization;
+            this.borders = borders;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Returns the uploaded image.
+         * Возвращает загруженное изображение.
+         *
+         * @return the uploaded image.
+         *         загруженное изображение.
+         */
+        public byte[] getImage() {
+            return image;
+        }
+
+        /**
+         * Returns the name of the localization.
+         * Возвращает название локализации.
+         *
+         * @return the name of the localization.
+         *         название локализации.
+         */
+        public String getLocalization() {
+            return localization;
+        }
+
+        /**
+         * Returns the found borders.
+         * Возвращает найденные границы.
+         *
+         * @return the found borders or {@code null} if the iris is not found.
+         *         найденные границы или {@code null}, если РОГ не найден.
+         */
+        public IrisBorders getBorders() {
+            return borders;
+        }
+
+        /**
+         * Returns the duration of the localization.
+         * Возвращает длительность локализации.
+         *
+         * @return the duration in nanoseconds.
+         *         длительность в наносекундах.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ru.smirnovv.monitoring;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * An advice that attaches the {@code Server-Timing} header started by {@link ServerTimingFilter}.
+ * Совет, добавляющий заголовок {@code Server-Timing}, начатый {@link ServerTimingFilter}.
+ */
+@ControllerAdvice
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+    /**
+     * Whether the header is attached.
+     * Добавляется ли заголовок.
+     */
+    private final boolean enabled;
+
+    /**
+     * Constructs an instance with injected properties.
+     * Создает экземпляр с внедренными свойствами.
+     *
+     * @param enabled whether the header is attached.
+     *                добавляется ли заголовок.
+     */
+    @Autowired
+    public ServerTimingAdvice(@Value("${iris.server-timing.enabled:false}") final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public boolean supports(final MethodParameter returnType,
+                            final Class<? extends HttpMessageConverter<?>> converterType) {
+        return enabled;
+    }
+
+    @Override
+    public Object beforeBodyWrite(final Object body, final MethodParameter returnType,
+                                  final MediaType selectedContentType,
+                                  final Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  final ServerHttpRequest request, final ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest) {
+            Object timing = ((ServletServerHttpRequest) request).getServletRequest()
+                    .getAttribute(ServerTiming.ATTRIBUTE);
+            if (timing instanceof ServerTiming) {
+                response.getHeaders().set(ServerTiming.HEADER, ((ServerTiming) timing).toHeader());
+            }
+        }
+        return body;
+    }
+}
@@ -0,0 +1,105 @@
+package ru.smirnovv.monitoring;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * A filter that starts the breakdown of the recognition and enrollment requests for the {@code Server-Timing}
+ * header and the slow request sampler.
+ * Фильтр, начинающий разбивку запросов распознавания и регистрации для заголовка {@code Server-Timing}
+ * и сборщика медленных запросов.
+ * <p>
+ * The header is written by {@link ServerTimingAdvice} right before the body, since the asynchronous
+ * responses are written after the filter returns.
+ * Заголовок записывается {@link ServerTimingAdvice} непосредственно перед телом, так как асинхронные
+ * ответы записываются после возврата из фильтра.
+ */
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+    /**
+     * Whether the header is attached.
+     * Добавляется ли заголовок.
+     */
+    private final boolean enabled;
+
+    /**
+     * A sampler that captures the slow requests.
+     * Сборщик, сохраняющий медленные запросы.
+     */
+    private final SlowRequestSampler sampler;
+
+    /**
+     * Constructs an instance with injected dependencies.
+     * Создает экземпляр с внедренными зависимостями.
+     *
+     * @param enabled whether the header is attached.
+     *                добавляется ли заголовок.
+     * @param sampler a sampler that captures the slow requests.
+     *                сборщик, сохраняющий медленные запросы.
+     */
+    @Autowired
+    public ServerTimingFilter(@Value("${iris.server-timing.enabled:false}") final boolean enabled,
+                              final SlowRequestSampler sampler) {
+        this.enabled = enabled;
+        this.sampler = sampler;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !(enabled || sampler.isEnabled()) || !(path.startsWith("/index") || path.startsWith("/iris"));
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        ServerTiming timing = new ServerTiming(sampler.isEnabled());
+        request.setAttribute(ServerTiming.ATTRIBUTE, timing);
+
+        ServerTiming previous = ServerTiming.bind(timing);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ServerTiming.bind(previous);
+        }
+
+        if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(final AsyncEvent event) {
+                    sampler.sample(request.getMethod(), request.getRequestURI(), response.getStatus(), timing);
+                }
+
+                @Override
+                public void onTimeout(final AsyncEvent event) {
+                }
+
+                @Override
+                public void onError(final AsyncEvent event) {
+                }
+
+                @Override
+                public void onStartAsync(final AsyncEvent event) {
+                }
+            });
+            return;
+        }
+
+        // The responses without a body are not seen by the advice.
+        // Ответы без тела не видны совету.
+        if (enabled && !response.isCommitted() && !response.containsHeader(ServerTiming.HEADER)) {
+            response.setHeader(ServerTiming.HEADER, timing.toHeader());
+        }
+        sampler.sample(request.getMethod(), request.getRequestURI(), response.getStatus(), timing);
+    }
+}
@@ -0,0 +1,344 @@
+package ru.smirnovv.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CustomizableThreadFactory;
+import org.springframework.util.FileSystemUtils;
+import ru.smirnovv.iris.irisDetection.localization.IrisBorders;
+import ru.smirnovv.iris.irisDetection.localization.IrisBorders.Border;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A sampler that captures the slow requests for the offline profiling.
+ * Сборщик, сохраняющий медленные запросы для офлайн профилирования.
+ * <p>
+ * Each sample is a directory with the uploaded images and {@code sample.properties} holding the found
+ * borders, the stage timings and the detection configuration, the oldest samples are removed when
+ * there are too many of them. The samples are written in the background and dropped when the writer
+ * falls behind. {@code ru.smirnovv.benchmarks.Replay} runs the samples through the detection again.
+ * Каждый образец - каталог с загруженными изображениями и {@code sample.properties}, содержащим найденные
+ * границы, время этапов и конфигурацию детектирования, самые старые образцы удаляются, когда их становится
+ * слишком много. Образцы записываются в фоне и отбрасываются, когда запись не успевает.
+ * {@code ru.smirnovv.benchmarks.Replay} повторно пропускает образцы через детектирование.
+ */
+@Component
+public class SlowRequestSampler implements DisposableBean {
+    /**
+     * The name of the file with the properties of a sample.
+     * Название файла со свойствами образца.
+     */
+    public static final String PROPERTIES = "sample.properties";
+
+    /**
+     * Whether the slow requests are captured.
+     * Сохраняются ли медленные запросы.
+     */
+    private final boolean enabled;
+
+    /**
+     * The latency above which a request is captured in nanoseconds.
+     * Время, начиная с которого запрос сохраняется, в наносекундах.
+     */
+    private final long threshold;
+
+    /**
+     * The directory of the samples.
+     * Каталог образцов.
+     */
+    private final Path directory;
+
+    /**
+     * The maximum number of the kept samples.
+     * Максимальное количество хранимых образцов.
+     */
+    private final int maxSamples;
+
+    /**
+     * The detection configuration written to every sample.
+     * Конфигурация детектирования, записываемая в каждый образец.
+     */
+    private final Properties config;
+
+    /**
+     * The writer of the samples.
+     * Исполнитель записи образцов.
+     */
+    private final ThreadPoolExecutor writer;
+
+    /**
+     * The sequence that orders the samples written within a millisecond.
+     * Последовательность, упорядочивающая образцы, записанные в пределах миллисекунды.
+     */
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    /**
+     * The number of the written samples.
+     * Количество записанных образцов.
+     */
+    private final Counter written;
+
+    /**
+     * The number of the samples dropped by the full queue or a failed write.
+     * Количество образцов, отброшенных заполненной очередью или ошибкой записи.
+     */
+    private final Counter dropped;
+
+    /**
+     * Constructs an instance with injected properties.
+     * Создает экземпляр с внедренными свойствами.
+     *
+     * @param enabled       whether the slow requests are captured.
+     *                      сохраняются ли медленные запросы.
+     * @param threshold     the latency above which a request is captured in milliseconds.
+     *                      время, начиная с которого запрос сохраняется, в миллисекундах.
+     * @param directory     the directory of the samples.
+     *                      каталог образцов.
+     * @param maxSamples    the maximum number of the kept samples.
+     *                      максимальное количество хранимых образцов.
+     * @param queue         the number of the samples waiting to be written.
+     *                      количество образцов, ожидающих записи.
+     * @param environment   the environment with the detection configuration.
+     *                      окружение с конфигурацией детектирования.
+     * @param meterRegistry a registry of the metrics.
+     *                      реестр метрик.
+     */
+    @Autowired
+    public SlowRequestSampler(@Value("${iris.sampler.enabled:false}") final boolean enabled,
+                              @Value("${iris.sampler.threshold:1000}") final long threshold,
+                              @Value("${iris.sampler.directory:slow-requests}") final String directory,
+                              @Value("${iris.sampler.max-samples:100}") final int maxSamples,
+                              @Value("${iris.sampler.queue:4}") final int queue,
+                              final ConfigurableEnvironment environment,
+                              final MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.threshold = TimeUnit.MILLISECONDS.toNanos(threshold);
+        this.directory = Paths.get(directory);
+        this.maxSamples = maxSamples;
+        this.config = config(environment);
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queue), new CustomizableThreadFactory("iris-sampler-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.written = Counter.builder("iris.sampler.samples")
+                .description("The slow requests written by the sampler")
+                .tag("result", "written")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("iris.sampler.samples")
+                .description("The slow requests written by the sampler")
+                .tag("result", "dropped")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Collects the detection configuration, the keys are left out.
+     * Собирает конфигурацию детектирования, ключи не включаются.
+     *
+     * @param environment the environment.
+     *                    окружение.
+     * @return the detection configuration.
+     *         конфигурация детектирования.
+     */
+    private static Properties config(final ConfigurableEnvironment environment) {
+        Properties config = new Properties();
+        for (PropertySource<?> source : environment.getPropertySources()) {
+            if (source instanceof EnumerablePropertySource) {
+                for (String name : ((EnumerablePropertySource<?>) source).getPropertyNames()) {
+                    if (name.startsWith("iris.") && !name.startsWith("iris.crypto.")
+                            && !config.containsKey(name)) {
+                        config.setProperty(name, environment.getProperty(name, ""));
+                    }
+                }
+            }
+        }
+        return config;
+    }
+
+    /**
+     * Returns whether the slow requests are captured.
+     * Возвращает, сохраняются ли медленные запросы.
+     *
+     * @return {@code true} if the slow requests are captured.
+     *         {@code true}, если медленные запросы сохраняются.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Captures the finished request if it is slow.
+     * Сохраняет завершенный запрос, если он медленный.
+     *
+     * @param method the method of the request.
+     *               метод запроса.
+     * @param uri    the URI of the request.
+     *               URI запроса.
+     * @param status the status of the response.
+     *               статус ответа.
+     * @param timing the breakdown of the request.
+     *               разбивка запроса.
+     */
+    public void sample(final String method, final String uri, final int status, final ServerTiming timing) {
+        long elapsed = timing.getElapsed();
+        if (!enabled || elapsed < threshold) {
+            return;
+        }
+        try {
+            writer.execute(() -> {
+                try {
+                    write(method, uri, status, elapsed, timing);
+                    written.increment();
+                } catch (IOException exception) {
+                    dropped.increment();
+                }
+            });
+        } catch (RejectedExecutionException exception) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Writes the sample and removes the oldest ones.
+     * Записывает образец и удаляет самые старые.
+     *
+     * @param method  the method of the request.
+     *                метод запроса.
+     * @param uri     the URI of the request.
+     *                URI запроса.
+     * @param status  the status of the response.
+     *                статус ответа.
+     * @param elapsed the latency of the request in nanoseconds.
+     *                время запроса в наносекундах.
+     * @param timing  the breakdown of the request.
+     *                разбивка запроса.
+     * @throws IOException is thrown when the sample can not be written.
+     *                     данное исключение, выбрасывается если образец не записывается.
+     */
+    private void write(final String method, final String uri, final int status, final long elapsed,
+                       final ServerTiming timing) throws IOException {
+        // The names sort in the order of the capture, so the rotation removes the first ones.
+        // Названия сортируются в порядке сохранения, поэтому ротация удаляет первые.
+        Path sample = Files.createDirectories(directory.resolve(String.format(Locale.ROOT, "%013d-%04d",
+                System.currentTimeMillis(), sequence.getAndIncrement() % 10000)));
+
+        Properties properties = new Properties();
+        properties.putAll(config);
+        properties.setProperty("request.method", method);
+        properties.setProperty("request.uri", uri);
+        properties.setProperty("request.status", Integer.toString(status));
+        properties.setProperty("timing.total", millis(elapsed));
+        for (ServerTiming.Metric metric : ServerTiming.Metric.values()) {
+            properties.setProperty("timing." + metric.name().toLowerCase(Locale.ROOT),
+                    millis(timing.getDuration(metric)));
+        }
+        properties.setProperty("timing.comparisons", Long.toString(timing.getComparisons()));
+
+        List<ServerTiming.Localized> images = timing.getLocalized();
+        properties.setProperty("images", Integer.toString(images.size()));
+        for (int i = 0; i < images.size(); i++) {
+            ServerTiming.Localized image = images.get(i);
+            String file = "image-" + i + extension(image.getImage());
+            Files.write(sample.resolve(file), image.getImage());
+
+            String prefix = "image." + i + ".";
+            properties.setProperty(prefix + "file", file);
+            properties.setProperty(prefix + "localization", image.getLocalization());
+            properties.setProperty(prefix + "localize", millis(image.getNanos()));
+            IrisBorders borders = image.getBorders();
+            if (borders != null) {
+                properties.setProperty(prefix + "pupil", border(borders.getInsideBorder()));
+                properties.setProperty(prefix + "iris", border(borders.getOutsideBorder()));
+            }
+        }
+
+        try (OutputStream output = Files.newOutputStream(sample.resolve(PROPERTIES))) {
+            properties.store(output, method + " " + uri);
+        }
+
+        rotate();
+    }
+
+    /**
+     * Removes the oldest samples above the limit.
+     * Удаляет самые старые образцы сверх ограничения.
+     *
+     * @throws IOException is thrown when the directory can not be read.
+     *                     данное исключение, выбрасывается если каталог не читается.
+     */
+    private void rotate() throws IOException {
+        List<Path> samples;
+        try (Stream<Path> files = Files.list(directory)) {
+            samples = files.filter(Files::isDirectory).sorted().collect(Collectors.toList());
+        }
+        for (int i = 0; i < samples.size() - maxSamples; i++) {
+            FileSystemUtils.deleteRecursively(samples.get(i));
+        }
+    }
+
+    /**
+     * Formats the duration in milliseconds.
+     * Форматирует длительность в миллисекундах.
+     *
+     * @param nanos the duration in nanoseconds.
+     *              длительность в наносекундах.
+     * @return the duration in milliseconds.
+     *         длительность в миллисекундах.
+     */
+    private static String millis(final long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    /**
+     * Formats the border as {@code x;y;r}.
+     * Форматирует границу как {@code x;y;r}.
+     *
+     * @param border the border.
+     *               граница.
+     * @return the formatted border.
+     *         отформатированная граница.
+     */
+    private static String border(final Border border) {
+        return border.getX() + ";" + border.getY() + ";" + border.getR();
+    }
+
+    /**
+     * Guesses the extension of the image by its signature.
+     * Определяет расширение изображения по его сигнатуре.
+     *
+     * @param image the image.
+     *              изображение.
+     * @return the extension.
+     *         расширение.
+     */
+    private static String extension(final byte[] image) {
+        if (image.length > 3 && image[0] == (byte) 0x89 && image[1] == 'P' && image[2] == 'N' && image[3] == 'G') {
+            return ".png";
+        }
+        return ".jpg";
+    }
+
+    @Override
+    public void destroy() {
+        writer.shutdown();
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * The package containing JDK Flight Recorder events of the recognition stages.
+ * Пакет, содержащий события JDK Flight Recorder этапов распознавания.
+ */
+package ru.smirnovv.monitoring;
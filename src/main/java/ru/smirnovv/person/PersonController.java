@@ -16,8 +16,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.smirnovv.ErrorType;
+import ru.smirnovv.KeysetPage;
 
 import javax.servlet.http.HttpServletRequest;
+import java.util.List;
 
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.util.Assert.notNull;
@@ -64,6 +66,23 @@ public class PersonController {
         return personService.list(pageable);
     }
 
+    /**
+     * Lists persons registered in the system after the id.
+     * Возвращает список зарегистрированных людей после id.
+     *
+     * @param after the id to continue after, {@code 0} for the first page.
+     *              id, после которого продолжить, {@code 0} для первой страницы.
+     * @param size  the size of the page.
+     *              размер страницы.
+     * @return the page of retrieved persons.
+     * страница зарегистрированных людей.
+     */
+    @GetMapping(params = "after")
+    public final KeysetPage<Person> listAfter(@RequestParam final long after,
+                                              @RequestParam(defaultValue = "20") final int size) {
+        return personService.listAfter(after, size);
+    }
+
     /**
      * Adds a new person.
      * Зарегистрировать нового человека.
@@ -122,6 +141,20 @@ public class PersonController {
         personService.remove(id);
     }
 
+    /**
+     * Removes the persons and their irises by ids if they exist.
+     * Удалить людей и их РОГ по id, если найдены.
+     *
+     * @param ids the ids of the persons.
+     *            id людей.
+     * @return the number of removed persons.
+     * количество удаленных людей.
+     */
+    @DeleteMapping(params = "ids")
+    public final int removeAll(@RequestParam final List<Long> ids) {
+        return personService.removeAll(ids);
+    }
+
     /**
      * Handles {@link InvalidNameException} and returns the response with error information.
      *
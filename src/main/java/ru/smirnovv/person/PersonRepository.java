@@ -1,10 +1,44 @@
 package ru.smirnovv.person;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * A repository that manages registered in the system persons.
  * Репозиторий, управляющий зарегистрированными людьми.
  */
 public interface PersonRepository extends JpaRepository<Person, Long> {
+    /**
+     * Finds the persons after the id.
+     * Найти людей после id.
+     *
+     * @param after    the id to continue after.
+     *                 id, после которого продолжить.
+     * @param pageable the size of the page.
+     *                 размер страницы.
+     * @return the persons in the order of ids.
+     * Найденные люди в порядке id.
+     */
+    List<Person> findByIdGreaterThanOrderById(Long after, Pageable pageable);
+
+    /**
+     * Removes the persons by ids with one statement, without loading them.
+     * Their irises are removed by the database cascade.
+     * Удалить людей по id одним запросом, без их загрузки.
+     * Их РОГ удаляются каскадно базой данных.
+     *
+     * @param ids the ids of the persons.
+     *            id людей.
+     * @return the number of removed persons.
+     * Количество удаленных людей.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Person p where p.id in :ids")
+    int deletePersonsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -1,10 +1,17 @@
 package ru.smirnovv.person;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.smirnovv.GalleryChangedEvent;
+import ru.smirnovv.KeysetPage;
+
+import java.util.Collections;
+import java.util.List;
 
 import static org.springframework.util.Assert.notNull;
 
@@ -21,17 +28,28 @@ public class PersonService {
      */
     private final PersonRepository personRepository;
 
+    /**
+     * A publisher of the gallery changes.
+     * Издатель изменений галереи.
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
     /**
      * Constructs an instance with injected dependencies.
      * Создает экземпляр с внедренными зависимостями.
      *
      * @param personRepository a repository that manages registered in the system persons.
      *                         репозиторий, управляющий зарегистрированными людьми.
+     * @param eventPublisher   a publisher of the gallery changes.
+     *                         издатель изменений галереи.
      */
     @Autowired
-    public PersonService(final PersonRepository personRepository) {
+    public PersonService(final PersonRepository personRepository,
+                         final ApplicationEventPublisher eventPublisher) {
         notNull(personRepository, "Argument 'personRepository' can not be null");
+        notNull(eventPublisher, "Argument 'eventPublisher' can not be null");
         this.personRepository = personRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -68,6 +86,25 @@ public class PersonService {
         return personRepository.findAll(pageable);
     }
 
+    /**
+     * Lists persons registered in the system after the id.
+     * Возвращает список зарегистрированных людей после id.
+     *
+     * @param after the id to continue after, {@code 0} for the first page.
+     *              id, после которого продолжить, {@code 0} для первой страницы.
+     * @param size  the size of the page.
+     *              размер страницы.
+     * @return the page of retrieved persons.
+     * страница зарегистрированных людей.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Person> listAfter(final long after, final int size) {
+        KeysetPage.checkSize(size);
+
+        return KeysetPage.of(personRepository.findByIdGreaterThanOrderById(after, PageRequest.of(0, size)),
+                size, Person::getId);
+    }
+
     /**
      * Adds a new person.
      * Зарегистрировать нового человека.
@@ -124,7 +161,9 @@ public class PersonService {
 
         final Person person = getPersonById(id);
         person.setName(name);
-        return personRepository.save(person);
+        final Person updated = personRepository.save(person);
+        eventPublisher.publishEvent(new GalleryChangedEvent(this));
+        return updated;
     }
 
     /**
@@ -136,6 +175,28 @@ public class PersonService {
      */
     @Transactional
     public void remove(final long id) {
-        personRepository.deleteById(id);
+        removeAll(Collections.singletonList(id));
+    }
+
+    /**
+     * Removes the persons and their irises by ids if they exist.
+     * Удалить людей и их РОГ по id, если найдены.
+     *
+     * @param ids the ids of the persons.
+     *            id людей.
+     * @return the number of removed persons.
+     * количество удаленных людей.
+     */
+    @Transactional
+    public int removeAll(final List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        final int removed = personRepository.deletePersonsByIdIn(ids);
+        if (removed > 0) {
+            eventPublisher.publishEvent(new GalleryChangedEvent(this, ids));
+        }
+        return removed;
     }
 }
@@ -0,0 +1,4 @@
+alter table iris
+  add column key_id varchar(64);
+
+create index iris_key_id on iris (key_id);
\ No newline at end of file
@@ -0,0 +1,38 @@
+package ru.smirnovv;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit test for {@link PartialResult}.
+ */
+public class PartialResultTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void shouldReturnScannedFraction() {
+        assertEquals(0.5, PartialResult.of("Test", 3, 6).getCompleteness(), DELTA);
+        assertEquals(0, PartialResult.of("Test", 0, 6).getCompleteness(), DELTA);
+    }
+
+    @Test
+    public void shouldNotExceedCompleteResult() {
+        // The cached size of the gallery may lag behind the scanned entries.
+        assertEquals(1.0, PartialResult.of("Test", 7, 6).getCompleteness(), DELTA);
+    }
+
+    @Test
+    public void shouldBeCompleteForEmptyGallery() {
+        assertEquals(1.0, PartialResult.of(null, 0, 0).getCompleteness(), DELTA);
+    }
+
+    @Test
+    public void shouldKeepCompletenessWhenMapped() {
+        PartialResult<Integer> result = PartialResult.of("Test", 1, 4).map(String::length);
+
+        assertEquals(Integer.valueOf(4), result.getResult());
+        assertEquals(0.25, result.getCompleteness(), DELTA);
+    }
+}
@@ -0,0 +1,89 @@
+package ru.smirnovv.index;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import ru.smirnovv.GalleryChangedEvent;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test for {@link GalleryPriority}.
+ */
+public class GalleryPriorityTest {
+
+    @Test
+    public void shouldOrderByMatches() {
+        GalleryPriority priority = new GalleryPriority(10, 1000);
+        match(priority, 1L, 2L, 3L, 1L, 3L, 1L);
+
+        assertEquals(Arrays.asList(1L, 3L, 2L), priority.first());
+    }
+
+    @Test
+    public void shouldDecayOldMatches() {
+        GalleryPriority priority = new GalleryPriority(10, 1);
+        // The score of 1 halves with every later match: 1.75 after its matches, 0.4375 after the matches of 2.
+        match(priority, 1L, 1L, 1L, 2L, 2L);
+
+        assertEquals(Arrays.asList(2L, 1L), priority.first());
+    }
+
+    @Test
+    public void shouldReturnHottestPersonsUpToMaxSize() {
+        GalleryPriority priority = new GalleryPriority(2, 1000);
+        match(priority, 1L, 2L, 2L, 3L, 3L, 3L);
+
+        assertEquals(Arrays.asList(3L, 2L), priority.first());
+    }
+
+    @Test
+    public void shouldTrimColdPersons() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GalleryPriority priority = new GalleryPriority(2, 1000);
+        priority.bindTo(registry);
+
+        match(priority, 1L, 2L, 3L, 4L);
+        assertEquals(4, registry.get("iris.priority.size").gauge().value(), 0);
+
+        // The fifth person exceeds twice the maximum size, only the two most recent ones are kept.
+        match(priority, 5L);
+        assertEquals(2, registry.get("iris.priority.size").gauge().value(), 0);
+        assertEquals(Arrays.asList(5L, 4L), priority.first());
+    }
+
+    @Test
+    public void shouldForgetRemovedPersons() {
+        GalleryPriority priority = new GalleryPriority(10, 1000);
+        match(priority, 1L, 2L, 1L);
+
+        priority.onGalleryChanged(new GalleryChangedEvent(this, Collections.singleton(1L)));
+
+        assertEquals(Collections.singletonList(2L), priority.first());
+    }
+
+    @Test
+    public void shouldIgnoreUnmatchedProbes() {
+        GalleryPriority priority = new GalleryPriority(10, 1000);
+        priority.matched(null);
+
+        assertTrue(priority.first().isEmpty());
+    }
+
+    @Test
+    public void shouldNotRememberWhenDisabled() {
+        GalleryPriority priority = new GalleryPriority(0, 1000);
+        match(priority, 1L, 2L);
+
+        assertTrue(priority.first().isEmpty());
+    }
+
+    private static void match(final GalleryPriority priority, final Long... personIds) {
+        for (Long personId : personIds) {
+            priority.matched(personId);
+        }
+    }
+}
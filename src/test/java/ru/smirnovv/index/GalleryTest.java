@@ -0,0 +1,88 @@
+package ru.smirnovv.index;
+
+import org.junit.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.smirnovv.GalleryChangedEvent;
+import ru.smirnovv.iris.GalleryEntry;
+import ru.smirnovv.iris.IrisRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit test for {@link Gallery}.
+ */
+public class GalleryTest {
+
+    private final IrisRepository irisRepository = mock(IrisRepository.class);
+
+    private final Gallery gallery = new Gallery(irisRepository, mock(PlatformTransactionManager.class));
+
+    @Test
+    public void shouldCountSizeOnce() {
+        when(irisRepository.count()).thenReturn(5L);
+
+        assertEquals(5, gallery.size());
+        assertEquals(5, gallery.size());
+        verify(irisRepository, times(1)).count();
+    }
+
+    @Test
+    public void shouldCountSizeAgainWhenGalleryChanged() {
+        when(irisRepository.count()).thenReturn(5L, 6L);
+        gallery.size();
+
+        gallery.onGalleryChanged(new GalleryChangedEvent(this));
+
+        assertEquals(6, gallery.size());
+        assertEquals(6, gallery.size());
+        verify(irisRepository, times(2)).count();
+    }
+
+    @Test
+    public void shouldCountSizeAgainAfterFailure() {
+        when(irisRepository.count()).thenThrow(new IllegalStateException()).thenReturn(5L);
+        try {
+            gallery.size();
+        } catch (IllegalStateException exception) {
+            // The next call counts again.
+        }
+
+        assertEquals(5, gallery.size());
+    }
+
+    @Test
+    public void shouldScanPrioritizedPersonsFirstInTheirOrder() {
+        // The database returns the irises of the block in the order of their ids.
+        when(irisRepository.streamGalleryByPersonIdIn(anyCollection()))
+                .thenReturn(Stream.of(entry(1, 10), entry(2, 20), entry(3, 30), entry(4, 20)));
+        when(irisRepository.streamGalleryByPersonIdNotIn(anyCollection()))
+                .thenReturn(Stream.of(entry(5, 40), entry(6, 50)));
+
+        List<Long> ids = gallery.scan(Arrays.asList(30L, 20L, 10L), irises -> {
+            List<Long> scanned = new ArrayList<>();
+            for (GalleryEntry entry : irises) {
+                scanned.add(entry.getId());
+            }
+            return scanned;
+        });
+
+        assertEquals(Arrays.asList(3L, 2L, 4L, 1L, 5L, 6L), ids);
+        verify(irisRepository).streamGalleryByPersonIdNotIn(new HashSet<>(Arrays.asList(10L, 20L, 30L)));
+        verify(irisRepository, times(0)).streamGallery();
+    }
+
+    private static GalleryEntry entry(final long id, final long personId) {
+        return new GalleryEntry(id, personId, "test", new byte[0]);
+    }
+}
@@ -0,0 +1,90 @@
+package ru.smirnovv.index.cache;
+
+import org.junit.Test;
+import ru.smirnovv.GalleryChangedEvent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Unit test for {@link ProbeCache}.
+ */
+public class ProbeCacheTest {
+
+    private final ProbeCache cache = new ProbeCache(16, 60000, 60000);
+
+    private final AtomicInteger computed = new AtomicInteger();
+
+    @Test
+    public void shouldReturnCachedResult() {
+        String key = cache.key(new byte[]{1, 2, 3});
+
+        assertEquals("Test", cache.result("identify", key, matcher("Test")).join());
+        assertEquals("Test", cache.result("identify", key, matcher("Other")).join());
+        assertEquals(1, computed.get());
+    }
+
+    @Test
+    public void shouldCacheNullResult() {
+        String key = cache.key(new byte[]{1, 2, 3});
+
+        assertNull(cache.result("identify", key, matcher(null)).join());
+        assertNull(cache.result("identify", key, matcher("Test")).join());
+        assertEquals(1, computed.get());
+    }
+
+    @Test
+    public void shouldKeepOperationsApart() {
+        String key = cache.key(new byte[]{1, 2, 3});
+
+        assertEquals("Test", cache.result("identify", key, matcher("Test")).join());
+        assertEquals("Other", cache.result("authorize/1", key, matcher("Other")).join());
+        assertEquals(2, computed.get());
+    }
+
+    @Test
+    public void shouldComputeAgainWhenGalleryChanged() {
+        String key = cache.key(new byte[]{1, 2, 3});
+        cache.result("identify", key, matcher(null)).join();
+
+        cache.onGalleryChanged(new GalleryChangedEvent(this));
+
+        assertEquals("Test", cache.result("identify", key, matcher("Test")).join());
+        assertEquals(2, computed.get());
+    }
+
+    @Test
+    public void shouldNotStoreResultComputedBeforeGalleryChanged() {
+        String key = cache.key(new byte[]{1, 2, 3});
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        cache.result("identify", key, () -> pending);
+
+        cache.onGalleryChanged(new GalleryChangedEvent(this));
+        pending.complete("Stale");
+
+        assertEquals("Test", cache.result("identify", key, matcher("Test")).join());
+        assertEquals(1, computed.get());
+    }
+
+    @Test
+    public void shouldComputeEveryTimeWhenDisabled() {
+        ProbeCache disabled = new ProbeCache(16, 0, 0);
+        String key = disabled.key(new byte[]{1, 2, 3});
+
+        disabled.result("identify", key, matcher("Test")).join();
+        disabled.result("identify", key, matcher("Test")).join();
+
+        assertEquals(2, computed.get());
+    }
+
+    private Supplier<CompletableFuture<String>> matcher(final String result) {
+        return () -> {
+            computed.incrementAndGet();
+            return CompletableFuture.completedFuture(result);
+        };
+    }
+}
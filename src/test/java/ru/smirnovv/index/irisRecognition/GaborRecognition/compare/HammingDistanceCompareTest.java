@@ -0,0 +1,98 @@
+package ru.smirnovv.index.irisRecognition.GaborRecognition.compare;
+
+import org.bytedeco.javacpp.Loader;
+import org.bytedeco.opencv.opencv_java;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import ru.smirnovv.iris.irisDetection.IrisTemplate;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit test for {@link HammingDistanceCompare}.
+ */
+public class HammingDistanceCompareTest {
+
+    private static final int SIZE = IrisTemplate.ROWS * IrisTemplate.COLS;
+
+    private static final double DELTA = 1e-9;
+
+    private final HammingDistanceCompare compare = new HammingDistanceCompare();
+
+    @BeforeClass
+    public static void loadOpenCv() {
+        Loader.load(opencv_java.class);
+    }
+
+    @Test
+    public void shouldEqualUnmaskedScoreWhenAllPixelsValid() {
+        Mat iris = image(random(1));
+        Mat template = image(random(2));
+
+        assertEquals(compare.compare(iris, template), compare.compare(iris, template, image(fill(255))), DELTA);
+    }
+
+    @Test
+    public void shouldEqualUnmaskedScoreWithoutMask() {
+        Mat iris = image(random(1));
+        Mat template = image(random(2));
+
+        assertEquals(compare.compare(iris, template), compare.compare(iris, template, null), DELTA);
+    }
+
+    @Test
+    public void shouldRescaleByValidPixels() {
+        Mat iris = image(random(1));
+        byte[] mask = fill(255);
+        for (int i = 0; i < SIZE / 2; i++) {
+            mask[i] = 0;
+        }
+
+        assertEquals(compare.compare(iris, iris), compare.compare(iris, iris, image(mask)), DELTA);
+    }
+
+    @Test
+    public void shouldSkipOccludedPixels() {
+        byte[] irisPixels = random(1);
+        byte[] templatePixels = irisPixels.clone();
+        byte[] mask = fill(255);
+        for (int i = 0; i < SIZE / 2; i++) {
+            templatePixels[i] = (byte) ~templatePixels[i];
+            mask[i] = 0;
+        }
+        Mat iris = image(irisPixels);
+
+        assertEquals(compare.compare(iris, iris),
+                compare.compare(iris, image(templatePixels), image(mask)), DELTA);
+    }
+
+    @Test
+    public void shouldReturnZeroWhenAllPixelsOccluded() {
+        Mat iris = image(random(1));
+
+        assertEquals(0, compare.compare(iris, iris, image(fill(0))), DELTA);
+    }
+
+    private static byte[] random(final long seed) {
+        byte[] pixels = new byte[SIZE];
+        new Random(seed).nextBytes(pixels);
+        return pixels;
+    }
+
+    private static byte[] fill(final int value) {
+        byte[] pixels = new byte[SIZE];
+        Arrays.fill(pixels, (byte) value);
+        return pixels;
+    }
+
+    private static Mat image(final byte[] pixels) {
+        Mat image = new Mat(IrisTemplate.ROWS, IrisTemplate.COLS, CvType.CV_8U);
+        image.put(0, 0, pixels);
+        return image;
+    }
+}
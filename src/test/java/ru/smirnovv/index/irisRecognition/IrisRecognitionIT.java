@@ -0,0 +1,170 @@
+package ru.smirnovv.index.irisRecognition;
+
+import org.flywaydb.core.internal.util.Pair;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import ru.smirnovv.PartialResult;
+import ru.smirnovv.iris.Cryptographer;
+import ru.smirnovv.iris.GalleryEntry;
+import ru.smirnovv.iris.irisDetection.IrisTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Integration test for {@link IrisRecognition}.
+ */
+@ActiveProfiles("test")
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class IrisRecognitionIT {
+
+    @Autowired
+    private IrisRecognition irisRecognition;
+
+    @Autowired
+    private Cryptographer cryptographer;
+
+    private final Random random = new Random(1);
+
+    private final List<IrisTemplate> templates = new ArrayList<>();
+
+    private final List<GalleryEntry> gallery = new ArrayList<>();
+
+    @Before
+    public void createGallery() {
+        for (int i = 0; i < 6; i++) {
+            IrisTemplate template = template();
+            templates.add(template);
+            gallery.add(new GalleryEntry(i, i / 2, cryptographer.getKeyId(),
+                    cryptographer.encrypt(template.toBytes())));
+        }
+    }
+
+    @Test
+    public void shouldIdentifyBatchAsSingleProbes() {
+        List<IrisTemplate> probes = Arrays.asList(templates.get(3), template(), templates.get(0));
+
+        List<Long> batch = irisRecognition.identify(gallery, probes);
+
+        assertEquals(probes.size(), batch.size());
+        for (int i = 0; i < probes.size(); i++) {
+            assertEquals(irisRecognition.identify(gallery, probes.get(i)), batch.get(i));
+        }
+    }
+
+    @Test
+    public void shouldFindBatchAsSingleProbes() {
+        List<IrisTemplate> probes = Arrays.asList(templates.get(3), template(), templates.get(0));
+
+        List<List<Pair<Long, Double>>> batch = irisRecognition.find(gallery, probes);
+
+        assertEquals(probes.size(), batch.size());
+        for (int i = 0; i < probes.size(); i++) {
+            assertEquals(scores(irisRecognition.find(gallery, probes.get(i))), scores(batch.get(i)));
+        }
+    }
+
+    @Test
+    public void shouldIdentifyEmptyGallery() {
+        List<Long> batch = irisRecognition.identify(new ArrayList<>(), Arrays.asList(template(), template()));
+
+        assertEquals(Arrays.asList(null, null), batch);
+    }
+
+    @Test
+    public void shouldBeCompleteWhenScannedBeforeDeadline() {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        IrisTemplate probe = template();
+
+        PartialResult<List<Pair<Long, Double>>> found = irisRecognition.find(gallery, gallery.size(), probe,
+                deadline);
+
+        assertEquals(1.0, found.getCompleteness(), 0);
+        assertEquals(scores(irisRecognition.find(gallery, probe)), scores(found.getResult()));
+    }
+
+    @Test
+    public void shouldNotFetchWhenDeadlineExpired() {
+        Iterable<GalleryEntry> unreachable = () -> new Iterator<GalleryEntry>() {
+            @Override
+            public boolean hasNext() {
+                throw new AssertionError("The gallery is fetched after the deadline.");
+            }
+
+            @Override
+            public GalleryEntry next() {
+                throw new AssertionError("The gallery is fetched after the deadline.");
+            }
+        };
+
+        PartialResult<Long> found = irisRecognition.identify(unreachable, 10, template(), System.nanoTime());
+
+        assertNull(found.getResult());
+        assertEquals(0, found.getCompleteness(), 0);
+    }
+
+    @Test
+    public void shouldReturnScannedFractionWhenDeadlineExpires() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        // The third entry is fetched after the deadline, so the scan stops after it.
+        Iterable<GalleryEntry> slow = () -> new Iterator<GalleryEntry>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == 2) {
+                    while (System.nanoTime() - deadline < 0) {
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException exception) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }
+                return next < gallery.size();
+            }
+
+            @Override
+            public GalleryEntry next() {
+                return gallery.get(next++);
+            }
+        };
+
+        PartialResult<List<Pair<Long, Double>>> found = irisRecognition.find(slow, gallery.size(), template(),
+                deadline);
+
+        assertEquals(0.5, found.getCompleteness(), 1e-9);
+        assertEquals(3, found.getResult().size());
+    }
+
+    private IrisTemplate template() {
+        byte[] pixels = new byte[IrisTemplate.ROWS * IrisTemplate.COLS];
+        random.nextBytes(pixels);
+        Mat image = new Mat(IrisTemplate.ROWS, IrisTemplate.COLS, CvType.CV_8U);
+        image.put(0, 0, pixels);
+        return new IrisTemplate(image);
+    }
+
+    private static List<String> scores(final List<Pair<Long, Double>> matches) {
+        List<String> result = new ArrayList<>();
+        for (Pair<Long, Double> match : matches) {
+            result.add(match.getLeft() + ":" + match.getRight());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,55 @@
+package ru.smirnovv.index.pipeline;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import ru.smirnovv.iris.irisDetection.IrisTemplate;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Unit test for {@link MatchBatcher}.
+ */
+public class MatchBatcherTest {
+
+    private final Stage stage = new Stage("match", 1, 1, new SimpleMeterRegistry());
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+
+    @After
+    public void shutdown() {
+        stage.shutdown();
+        timer.shutdownNow();
+    }
+
+    @Test
+    public void shouldCompletePublishedRequestBeforeBatch() throws Exception {
+        CountDownLatch scanned = new CountDownLatch(1);
+        MatchBatcher<String> batcher = new MatchBatcher<>(stage, timer, (probes, matched) -> {
+            matched.accept(0, "first");
+            try {
+                scanned.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            return Arrays.asList("first", "second");
+        }, 1000, 2);
+
+        CompletableFuture<String> first = batcher.match(CompletableFuture.completedFuture((IrisTemplate) null));
+        CompletableFuture<String> second = batcher.match(CompletableFuture.completedFuture((IrisTemplate) null));
+
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertFalse(second.isDone());
+
+        scanned.countDown();
+        assertEquals("second", second.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,69 @@
+package ru.smirnovv.index.pipeline;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import ru.smirnovv.BatchItem;
+import ru.smirnovv.ServiceUnavailableException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+/**
+ * Unit test for {@link Stage}.
+ */
+public class StageTest {
+
+    private final Stage stage = new Stage("test", 1, 1, new SimpleMeterRegistry());
+
+    private final CountDownLatch blocked = new CountDownLatch(1);
+
+    @After
+    public void shutdown() {
+        blocked.countDown();
+        stage.shutdown();
+    }
+
+    @Test
+    public void shouldRejectTaskWhenQueueIsFull() throws Exception {
+        // The worker is busy with the first task and the second one fills the queue.
+        stage.supply(() -> {
+            try {
+                blocked.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            return 1;
+        });
+        stage.supply(() -> 2);
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch failed = new CountDownLatch(1);
+        stage.then(CompletableFuture.completedFuture(3), value -> value).whenComplete((value, exception) -> {
+            failure.set(exception);
+            failed.countDown();
+        });
+
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        assertTrue(failure.get() instanceof ServiceUnavailableException);
+        assertEquals(SERVICE_UNAVAILABLE.value(), BatchItem.statusOf(failure.get()));
+    }
+
+    @Test
+    public void shouldPassUnwrappedFailureOfPreviousStage() {
+        CompletableFuture<Integer> previous = new CompletableFuture<>();
+        previous.completeExceptionally(new CompletionException(new ServiceUnavailableException("Overloaded.")));
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        stage.then(previous, value -> value).whenComplete((value, exception) -> failure.set(exception));
+
+        assertTrue(failure.get() instanceof ServiceUnavailableException);
+    }
+}
@@ -0,0 +1,81 @@
+package ru.smirnovv.iris;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ru.smirnovv.InternalServerException;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Unit test for {@link Cryptographer}.
+ */
+public class CryptographerTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private Cryptographer cryptographer;
+
+    private final byte[] data = new byte[1000];
+
+    @Before
+    public void createCryptographer() {
+        cryptographer = new Cryptographer(new KeyRing(
+                folder.getRoot().toPath().resolve("keys.jceks").toString(), "test", "test-1", true));
+        new Random(1).nextBytes(data);
+    }
+
+    @Test
+    public void shouldRoundTrip() {
+        byte[] encrypted = cryptographer.encrypt(data);
+
+        assertEquals("test-1", cryptographer.getKeyId());
+        assertFalse(Arrays.equals(data, Arrays.copyOfRange(encrypted, encrypted.length - data.length,
+                encrypted.length)));
+        assertArrayEquals(data, cryptographer.decrypt(cryptographer.getKeyId(), encrypted));
+    }
+
+    @Test
+    public void shouldUseFreshIv() {
+        assertFalse(Arrays.equals(cryptographer.encrypt(data), cryptographer.encrypt(data)));
+    }
+
+    @Test
+    public void shouldDecryptIntoBuffer() {
+        byte[] encrypted = cryptographer.encrypt(data);
+        byte[] buffer = new byte[2 * data.length];
+
+        int length = cryptographer.decrypt(cryptographer.getKeyId(), encrypted, buffer);
+
+        assertEquals(data.length, length);
+        assertArrayEquals(data, Arrays.copyOf(buffer, length));
+    }
+
+    @Test(expected = InternalServerException.class)
+    public void shouldRejectTamperedCode() {
+        byte[] encrypted = cryptographer.encrypt(data);
+        encrypted[encrypted.length / 2] ^= 1;
+
+        cryptographer.decrypt(cryptographer.getKeyId(), encrypted);
+    }
+
+    @Test(expected = InternalServerException.class)
+    public void shouldRejectTamperedIv() {
+        byte[] encrypted = cryptographer.encrypt(data);
+        encrypted[0] ^= 1;
+
+        cryptographer.decrypt(cryptographer.getKeyId(), encrypted);
+    }
+
+    @Test(expected = InternalServerException.class)
+    public void shouldRejectUnknownKey() {
+        cryptographer.decrypt("unknown", cryptographer.encrypt(data));
+    }
+}
@@ -1,5 +1,6 @@
 package ru.smirnovv.iris;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -54,6 +55,13 @@ public class IrisControllerIT {
         irisRepository.deleteAll();
     }
 
+    @After
+    public void deleteTestIrises() {
+        // The test codes have no key id, they would stop the next start of the application.
+        irisRepository.deleteAll();
+        personRepository.deleteAll();
+    }
+
 
     @Test
     public void shouldReturnIrisList() throws Exception {
@@ -180,5 +188,32 @@ public class IrisControllerIT {
         assertTrue(irisRepository.findById(irisD.getId()).isPresent());
     }
 
+    @Test
+    public void shouldReturnIrisesAfterIdWithoutCodes() throws Exception {
+        Person person = personRepository.save(new Person("Test"));
+        Iris irisA = irisRepository.save(new Iris(person, new byte[3]));
+        Iris irisB = irisRepository.save(new Iris(person, new byte[3]));
+
+        mockMvc.perform(get("/iris").param("after", "0").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(APPLICATION_JSON))
+                .andExpect(jsonPath("$.content[0].id").value(irisA.getId().intValue()))
+                .andExpect(jsonPath("$.content[0].personName").value("Test"))
+                .andExpect(jsonPath("$.content[0].irisCode").doesNotExist())
+                .andExpect(jsonPath("$.next").value(irisA.getId().intValue()));
+
+        mockMvc.perform(get("/iris").param("after", irisA.getId().toString()).param("size", "2")
+                .param("codes", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(irisB.getId().intValue()))
+                .andExpect(jsonPath("$.content[0].irisCode").exists())
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
 
+    @Test
+    public void shouldNotReturnIrisesAfterIdWhenSizeIsOutOfRange() throws Exception {
+        mockMvc.perform(get("/iris").param("after", "0").param("size", "1001"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("The page size must be from 1 to 1000."));
+    }
 }
@@ -0,0 +1,105 @@
+package ru.smirnovv.iris;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import ru.smirnovv.InternalServerException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit test for {@link KeyRing}.
+ */
+public class KeyRingTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldGenerateKeystoreWhenEnabled() {
+        Path keystore = folder.getRoot().toPath().resolve("keys.jceks");
+
+        KeyRing keyRing = new KeyRing(keystore.toString(), "test", "Test-1", true);
+
+        assertTrue(Files.exists(keystore));
+        assertEquals("test-1", keyRing.getActiveKeyId());
+        assertNotNull(keyRing.get("test-1"));
+    }
+
+    @Test
+    public void shouldNotCreateMissingKeystore() {
+        Path keystore = folder.getRoot().toPath().resolve("keys.jceks");
+
+        try {
+            new KeyRing(keystore.toString(), "test", "test-1", false);
+            throw new AssertionError("The missing keystore is accepted.");
+        } catch (InternalServerException exception) {
+            assertFalse(Files.exists(keystore));
+        }
+    }
+
+    @Test(expected = InternalServerException.class)
+    public void shouldNotGenerateMissingActiveKey() {
+        String keystore = folder.getRoot().toPath().resolve("keys.jceks").toString();
+        new KeyRing(keystore, "test", "test-1", true);
+
+        new KeyRing(keystore, "test", "test-2", false);
+    }
+
+    @Test
+    public void shouldKeepOldKeysWhenActiveKeyGenerated() {
+        String keystore = folder.getRoot().toPath().resolve("keys.jceks").toString();
+        KeyRing old = new KeyRing(keystore, "test", "test-1", true);
+
+        KeyRing keyRing = new KeyRing(keystore, "test", "test-2", true);
+
+        assertEquals("test-2", keyRing.getActiveKeyId());
+        assertEquals(old.get("test-1"), keyRing.get("test-1"));
+    }
+
+    @Test(expected = InternalServerException.class)
+    public void shouldRejectWrongPassword() {
+        String keystore = folder.getRoot().toPath().resolve("keys.jceks").toString();
+        new KeyRing(keystore, "test", "test-1", true);
+
+        new KeyRing(keystore, "wrong", "test-1", false);
+    }
+
+    @Test
+    public void shouldStartWhenStoredKeysArePresent() {
+        String keystore = folder.getRoot().toPath().resolve("keys.jceks").toString();
+        new KeyRing(keystore, "test", "test-1", true);
+        IrisRepository repository = mock(IrisRepository.class);
+        when(repository.findDistinctKeyIds()).thenReturn(Collections.singletonList("test-1"));
+
+        assertEquals("test-2", new KeyRing(keystore, "test", "test-2", true, repository).getActiveKeyId());
+    }
+
+    @Test(expected = InternalServerException.class)
+    public void shouldFailWhenStoredKeyIsMissing() {
+        String keystore = folder.getRoot().toPath().resolve("keys.jceks").toString();
+        IrisRepository repository = mock(IrisRepository.class);
+        when(repository.findDistinctKeyIds()).thenReturn(Arrays.asList("test-1", "removed"));
+
+        new KeyRing(keystore, "test", "test-1", true, repository);
+    }
+
+    @Test(expected = InternalServerException.class)
+    public void shouldFailWhenStoredCodeHasNoKey() {
+        String keystore = folder.getRoot().toPath().resolve("keys.jceks").toString();
+        IrisRepository repository = mock(IrisRepository.class);
+        when(repository.findDistinctKeyIds()).thenReturn(Arrays.asList("test-1", null));
+
+        new KeyRing(keystore, "test", "test-1", true, repository);
+    }
+}
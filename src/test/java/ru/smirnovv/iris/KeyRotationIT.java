@@ -0,0 +1,115 @@
+package ru.smirnovv.iris;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.smirnovv.person.Person;
+import ru.smirnovv.person.PersonRepository;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Integration test for {@link KeyRotation}.
+ */
+@ActiveProfiles("test")
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class KeyRotationIT {
+
+    private static final byte[] CODE = {1, 2, 3};
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Autowired
+    private IrisRepository irisRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Cryptographer oldCryptographer;
+
+    private Cryptographer cryptographer;
+
+    private KeyRotation keyRotation;
+
+    private Person person;
+
+    @Before
+    public void createKeys() {
+        irisRepository.deleteAll();
+        personRepository.deleteAll();
+
+        String keystore = folder.getRoot().toPath().resolve("keys.jceks").toString();
+        oldCryptographer = new Cryptographer(new KeyRing(keystore, "test", "rotation-old", true));
+        cryptographer = new Cryptographer(new KeyRing(keystore, "test", "rotation-new", true));
+        keyRotation = new KeyRotation(irisRepository, cryptographer, transactionManager, false, 100);
+        person = personRepository.save(new Person("Test"));
+    }
+
+    @After
+    public void deleteIrises() {
+        // The keys of this test are not in the keystore of the application.
+        irisRepository.deleteAll();
+        personRepository.deleteAll();
+    }
+
+    @Test
+    public void shouldReEncryptWithActiveKey() {
+        Iris irisA = irisRepository.save(new Iris(person, "rotation-old", oldCryptographer.encrypt(CODE)));
+        Iris irisB = irisRepository.save(new Iris(person, "rotation-old", oldCryptographer.encrypt(CODE)));
+
+        assertEquals(2, keyRotation.rotateBatch());
+
+        for (Iris iris : new Iris[]{irisA, irisB}) {
+            Iris rotated = irisRepository.findById(iris.getId()).get();
+            assertEquals("rotation-new", rotated.getKeyId());
+            assertArrayEquals(CODE, cryptographer.decrypt(rotated.getKeyId(), rotated.getIrisCode()));
+        }
+        assertEquals(0, keyRotation.rotateBatch());
+    }
+
+    @Test
+    public void shouldSkipRowRotatedInTheMeantime() {
+        Iris iris = irisRepository.save(new Iris(person, "rotation-new", cryptographer.encrypt(CODE)));
+
+        assertEquals(0, update(iris.getId(), "rotation-old", new byte[]{4}));
+        assertArrayEquals(CODE, cryptographer.decrypt("rotation-new",
+                irisRepository.findById(iris.getId()).get().getIrisCode()));
+    }
+
+    @Test
+    public void shouldSkipRowDeletedInTheMeantime() {
+        Iris iris = irisRepository.save(new Iris(person, "rotation-old", oldCryptographer.encrypt(CODE)));
+        irisRepository.deleteById(iris.getId());
+
+        assertEquals(0, update(iris.getId(), "rotation-old", cryptographer.encrypt(CODE)));
+        assertEquals(0, irisRepository.count());
+    }
+
+    @Test
+    public void shouldUpdateRowWithOldKey() {
+        Iris iris = irisRepository.save(new Iris(person, "rotation-old", oldCryptographer.encrypt(CODE)));
+
+        assertEquals(1, update(iris.getId(), "rotation-old", cryptographer.encrypt(CODE)));
+        assertEquals("rotation-new", irisRepository.findById(iris.getId()).get().getKeyId());
+    }
+
+    private int update(final Long id, final String oldKeyId, final byte[] irisCode) {
+        return new TransactionTemplate(transactionManager).execute(
+                status -> irisRepository.updateIrisCode(id, oldKeyId, "rotation-new", irisCode));
+    }
+}
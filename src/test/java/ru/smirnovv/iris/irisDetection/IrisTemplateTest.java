@@ -0,0 +1,106 @@
+package ru.smirnovv.iris.irisDetection;
+
+import org.bytedeco.javacpp.Loader;
+import org.bytedeco.opencv.opencv_java;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test for {@link IrisTemplate}.
+ */
+public class IrisTemplateTest {
+
+    private static final int SIZE = IrisTemplate.ROWS * IrisTemplate.COLS;
+
+    @BeforeClass
+    public static void loadOpenCv() {
+        Loader.load(opencv_java.class);
+    }
+
+    @Test
+    public void shouldRoundTripWithoutMask() {
+        byte[] pixels = random();
+
+        byte[] code = new IrisTemplate(image(pixels)).toBytes();
+        IrisTemplate restored = IrisTemplate.fromBytes(code);
+
+        assertEquals(SIZE, code.length);
+        assertFalse(restored.isMasked());
+        assertArrayEquals(pixels, pixels(restored.getImage()));
+    }
+
+    @Test
+    public void shouldRoundTripWithMask() {
+        byte[] pixels = random();
+        byte[] mask = new byte[SIZE];
+        Arrays.fill(mask, (byte) 255);
+        mask[0] = 0;
+        mask[SIZE - 1] = 0;
+
+        IrisTemplate template = new IrisTemplate(image(pixels), image(mask));
+        byte[] code = template.toBytes();
+        IrisTemplate restored = IrisTemplate.fromBytes(code);
+
+        assertEquals(IrisTemplate.MAX_CODE_SIZE, code.length);
+        assertTrue(restored.isMasked());
+        assertArrayEquals(template.getMask(), restored.getMask());
+        assertArrayEquals(pixels, pixels(restored.getImage()));
+        assertArrayEquals(mask, pixels(restored.getMaskImage()));
+    }
+
+    @Test
+    public void shouldDropMaskWithoutOcclusions() {
+        byte[] mask = new byte[SIZE];
+        Arrays.fill(mask, (byte) 1);
+
+        IrisTemplate template = new IrisTemplate(image(random()), image(mask));
+
+        assertFalse(template.isMasked());
+        assertEquals(SIZE, template.toBytes().length);
+    }
+
+    @Test
+    public void shouldRestoreFromBufferPrefix() {
+        byte[] pixels = random();
+        byte[] buffer = new byte[IrisTemplate.MAX_CODE_SIZE];
+        System.arraycopy(pixels, 0, buffer, 0, SIZE);
+
+        IrisTemplate restored = IrisTemplate.fromBytes(buffer, SIZE);
+
+        assertFalse(restored.isMasked());
+        assertArrayEquals(pixels, pixels(restored.getImage()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidCodeLength() {
+        IrisTemplate.fromBytes(new byte[3]);
+    }
+
+    private static byte[] random() {
+        byte[] pixels = new byte[SIZE];
+        new Random(1).nextBytes(pixels);
+        return pixels;
+    }
+
+    private static Mat image(final byte[] pixels) {
+        Mat image = new Mat(IrisTemplate.ROWS, IrisTemplate.COLS, CvType.CV_8U);
+        image.put(0, 0, pixels);
+        return image;
+    }
+
+    private static byte[] pixels(final Mat image) {
+        byte[] pixels = new byte[SIZE];
+        image.get(0, 0, pixels);
+        return pixels;
+    }
+}
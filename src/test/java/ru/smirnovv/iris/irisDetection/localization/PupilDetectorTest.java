@@ -0,0 +1,84 @@
+package ru.smirnovv.iris.irisDetection.localization;
+
+import org.bytedeco.javacpp.Loader;
+import org.bytedeco.opencv.opencv_java;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import ru.smirnovv.iris.irisDetection.localization.IrisBorders.Border;
+import ru.smirnovv.iris.irisDetection.localization.daugman.DaugmanLocalization;
+import ru.smirnovv.iris.irisDetection.localization.daugman.DaugmanParameters;
+import ru.smirnovv.iris.irisDetection.localization.hough.HoughLocalization;
+import ru.smirnovv.iris.irisDetection.localization.hough.HoughParameters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.opencv.imgproc.Imgproc.circle;
+
+/**
+ * Unit test for {@link PupilDetector}.
+ */
+public class PupilDetectorTest {
+
+    private static final int ROW = 96;
+
+    private static final int COLUMN = 104;
+
+    private static final int PUPIL_RADIUS = 16;
+
+    private final PupilDetector pupilDetector = new PupilDetector(4, 60);
+
+    @BeforeClass
+    public static void loadOpenCv() {
+        Loader.load(opencv_java.class);
+    }
+
+    @Test
+    public void shouldFindPupilOfSyntheticEye() {
+        Border pupil = pupilDetector.detect(eye());
+
+        assertNotNull(pupil);
+        assertEquals(ROW, pupil.getX(), 4);
+        assertEquals(COLUMN, pupil.getY(), 4);
+        assertEquals(PUPIL_RADIUS, pupil.getR(), 4);
+    }
+
+    @Test
+    public void shouldFindSameBordersWithPupilCandidateByHough() {
+        assertSameBorders(new HoughLocalization(new HoughParameters(true, 10, 30, 60, 10)));
+    }
+
+    @Test
+    public void shouldFindSameBordersWithPupilCandidateByDaugman() {
+        assertSameBorders(new DaugmanLocalization(new DaugmanParameters(10, 30, 60, 10, 3)));
+    }
+
+    private void assertSameBorders(final Localization localization) {
+        Mat eye = eye();
+        IrisBorders unseeded = localization.localize(eye);
+        IrisBorders seeded = localization.localize(eye, pupilDetector.detect(eye));
+
+        assertEquals(ROW, seeded.getInsideBorder().getX(), 3);
+        assertEquals(COLUMN, seeded.getInsideBorder().getY(), 3);
+        assertEquals(PUPIL_RADIUS, seeded.getInsideBorder().getR(), 3);
+        assertSameBorder(unseeded.getInsideBorder(), seeded.getInsideBorder());
+        assertSameBorder(unseeded.getOutsideBorder(), seeded.getOutsideBorder());
+    }
+
+    private static void assertSameBorder(final Border expected, final Border actual) {
+        assertEquals(expected.getX(), actual.getX(), 2);
+        assertEquals(expected.getY(), actual.getY(), 2);
+        assertEquals(expected.getR(), actual.getR(), 2);
+    }
+
+    private static Mat eye() {
+        // A dark pupil inside a gray iris on a bright sclera, rows are x and columns are y as in the localization.
+        Mat eye = new Mat(200, 200, CvType.CV_8UC1, new Scalar(200));
+        circle(eye, new Point(COLUMN, ROW), 45, new Scalar(120), -1);
+        circle(eye, new Point(COLUMN, ROW), PUPIL_RADIUS, new Scalar(20), -1);
+        return eye;
+    }
+}
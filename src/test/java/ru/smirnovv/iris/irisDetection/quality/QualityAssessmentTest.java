@@ -0,0 +1,92 @@
+package ru.smirnovv.iris.irisDetection.quality;
+
+import org.bytedeco.javacpp.Loader;
+import org.bytedeco.opencv.opencv_java;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import ru.smirnovv.iris.irisDetection.quality.LowQualityImageException.Reason;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.opencv.imgproc.Imgproc.GaussianBlur;
+import static org.opencv.imgproc.Imgproc.INTER_AREA;
+import static org.opencv.imgproc.Imgproc.circle;
+import static org.opencv.imgproc.Imgproc.rectangle;
+import static org.opencv.imgproc.Imgproc.resize;
+
+/**
+ * Unit test for {@link QualityAssessment}.
+ */
+public class QualityAssessmentTest {
+
+    private final QualityAssessment qualityAssessment =
+            new QualityAssessment(new QualityParameters(10, 30, 220, 60, 1000, 4));
+
+    @BeforeClass
+    public static void loadOpenCv() {
+        Loader.load(opencv_java.class);
+    }
+
+    @Test
+    public void shouldAcceptSharpOpenEye() throws Exception {
+        qualityAssessment.assess(eye(true), 1);
+    }
+
+    @Test
+    public void shouldAcceptReducedSharpOpenEye() throws Exception {
+        Mat reduced = new Mat();
+        resize(eye(true), reduced, new Size(), 0.5, 0.5, INTER_AREA);
+
+        qualityAssessment.assess(reduced, 2);
+    }
+
+    @Test
+    public void shouldRejectDarkImage() {
+        assertRejected(Reason.UNDEREXPOSED, new Mat(200, 200, CvType.CV_8UC1, new Scalar(10)));
+    }
+
+    @Test
+    public void shouldRejectBrightImage() {
+        assertRejected(Reason.OVEREXPOSED, new Mat(200, 200, CvType.CV_8UC1, new Scalar(250)));
+    }
+
+    @Test
+    public void shouldRejectBlurredImage() {
+        Mat blurred = new Mat(200, 200, CvType.CV_8UC1, new Scalar(150));
+        circle(blurred, new Point(100, 100), 30, new Scalar(20), -1);
+        GaussianBlur(blurred, blurred, new Size(0, 0), 15);
+
+        assertRejected(Reason.BLURRED, blurred);
+    }
+
+    @Test
+    public void shouldRejectClosedEye() {
+        assertRejected(Reason.PUPIL_NOT_VISIBLE, eye(false));
+    }
+
+    private void assertRejected(final Reason reason, final Mat image) {
+        try {
+            qualityAssessment.assess(image, 1);
+            fail("The image is accepted.");
+        } catch (LowQualityImageException exception) {
+            assertEquals(reason, exception.getReason());
+        }
+    }
+
+    private static Mat eye(final boolean open) {
+        // Sharp stripes stand for the texture of the iris, the dark disk is the pupil.
+        Mat eye = new Mat(200, 200, CvType.CV_8UC1, new Scalar(150));
+        for (int x = 0; x < 200; x += 16) {
+            rectangle(eye, new Point(x, 0), new Point(x + 7, 199), new Scalar(200), -1);
+        }
+        if (open) {
+            circle(eye, new Point(100, 100), 30, new Scalar(20), -1);
+        }
+        return eye;
+    }
+}
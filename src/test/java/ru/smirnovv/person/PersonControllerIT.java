@@ -277,4 +277,70 @@ public class PersonControllerIT {
         assertTrue(personRepository.findById(personA.getId()).isPresent());
         assertTrue(personRepository.findById(personB.getId()).isPresent());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldDeletePersons() throws Exception {
+        Person person = personRepository.save(new Person("Test"));
+        Person personA = personRepository.save(new Person("TestA"));
+        Person personB = personRepository.save(new Person("TestB"));
+
+        mockMvc.perform(delete("/person")
+                .param("ids", person.getId() + "," + personA.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().string("2"));
+
+        assertEquals(personRepository.count(), 1);
+        assertTrue(personRepository.findById(personB.getId()).isPresent());
+    }
+
+    @Test
+    public void shouldReturnPersonsAfterId() throws Exception {
+        Person personA = personRepository.save(new Person("TestA"));
+        Person personB = personRepository.save(new Person("TestB"));
+        Person personC = personRepository.save(new Person("TestC"));
+
+        mockMvc.perform(get("/person").param("after", "0").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(APPLICATION_JSON))
+                .andExpect(jsonPath("$.content.length()").value(is(2)))
+                .andExpect(jsonPath("$.content[0].name").value(is(personA.getName())))
+                .andExpect(jsonPath("$.content[1].name").value(is(personB.getName())))
+                .andExpect(jsonPath("$.next").value(is(personB.getId().intValue())));
+
+        mockMvc.perform(get("/person").param("after", personB.getId().toString()).param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(is(1)))
+                .andExpect(jsonPath("$.content[0].name").value(is(personC.getName())))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    public void shouldReturnEmptyLastPageAfterFullPage() throws Exception {
+        personRepository.save(new Person("TestA"));
+        Person personB = personRepository.save(new Person("TestB"));
+
+        mockMvc.perform(get("/person").param("after", "0").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.next").value(is(personB.getId().intValue())));
+
+        mockMvc.perform(get("/person").param("after", personB.getId().toString()).param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isEmpty())
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    public void shouldNotReturnPersonsAfterIdWhenSizeIsOutOfRange() throws Exception {
+        mockMvc.perform(get("/person").param("after", "0").param("size", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith(APPLICATION_JSON))
+                .andExpect(jsonPath("$.status").value(is(400)))
+                .andExpect(jsonPath("$.message").value(is("The page size must be from 1 to 1000.")));
+
+        mockMvc.perform(get("/person").param("after", "0").param("size", "1001"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/person").param("after", "0").param("size", "1000"))
+                .andExpect(status().isOk());
+    }
+}